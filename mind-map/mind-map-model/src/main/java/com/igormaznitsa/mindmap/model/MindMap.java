@@ -62,6 +62,7 @@ public class MindMap implements StandardMmdAttributes, Serializable, Constants,
       new CopyOnWriteArrayList<>();
 
   private Topic root;
+  private transient volatile long modificationStamp;
 
   /**
    * Create new container.
@@ -341,6 +342,7 @@ public class MindMap implements StandardMmdAttributes, Serializable, Constants,
       }
     }
     this.root = newRoot;
+    this.markModified();
     if (makeNotification) {
       this.fireModelChanged();
     }
@@ -440,6 +442,7 @@ public class MindMap implements StandardMmdAttributes, Serializable, Constants,
    */
   public String putAttribute(final String name, final String value) {
     final String previous;
+    this.markModified();
     if (value == null) {
       previous = this.attributes.remove(requireNonNull(name));
     } else {
@@ -448,6 +451,28 @@ public class MindMap implements StandardMmdAttributes, Serializable, Constants,
     return previous;
   }
 
+  /**
+   * Get modification stamp of the mind map. The stamp is changed by every mutating method of the
+   * map and its topics so that equal stamps mean that content was not changed. Direct changes of
+   * collections returned by topic getters are not tracked and must be followed by
+   * {@link #markModified()}.
+   *
+   * @return current modification stamp
+   * @since 1.6.6
+   */
+  public long getModificationStamp() {
+    return this.modificationStamp;
+  }
+
+  /**
+   * Change modification stamp of the mind map to notify that its content has been changed.
+   *
+   * @since 1.6.6
+   */
+  public void markModified() {
+    this.modificationStamp++;
+  }
+
   /**
    * Remove all topic payloads in the mind map.
    */
@@ -110,6 +110,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
         throw new IllegalArgumentException("Parent must belong to the same mind map");
       }
       parent.children.add(this);
+      map.markModified();
     }
   }
 
@@ -380,6 +381,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
   }
 
   public boolean putAttribute(final String name, final String value) {
+    this.map.markModified();
     if (value == null) {
       return this.attributes.remove(name) != null;
     } else {
@@ -388,6 +390,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
   }
 
   public boolean putCodeSnippet(final String language, final String text) {
+    this.map.markModified();
     if (text == null) {
       return this.codeSnippets.remove(language) != null;
     } else {
@@ -407,6 +410,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
     final Topic theParent = this.parent;
     if (theParent != null) {
       theParent.children.remove(this);
+      this.map.markModified();
     }
   }
 
@@ -420,6 +424,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
 
   public void setText(final String text) {
     this.text = requireNonNull(text);
+    this.map.markModified();
   }
 
   public boolean isFirstChild(final Topic t) {
@@ -431,6 +436,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
   }
 
   public boolean removeExtra(final Extra.ExtraType... types) {
+    this.map.markModified();
     boolean result = false;
     for (final Extra.ExtraType e : ensureNoNullElement(types)) {
       final Extra<?> removed = this.extras.remove(e);
@@ -443,6 +449,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
   }
 
   public void setExtra(final Extra<?>... extras) {
+    this.map.markModified();
     for (final Extra<?> e : ensureNoNullElement(extras)) {
       this.extras.put(e.getType(), e);
       e.attachedToTopic(this);
@@ -456,6 +463,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
       if (thatIndex > 0) {
         theParent.children.remove(thatIndex);
         theParent.children.add(0, this);
+        this.map.markModified();
         return true;
       }
     }
@@ -480,6 +488,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
       if (thatIndex >= 0 && thatIndex != theParent.children.size() - 1) {
         theParent.children.remove(thatIndex);
         theParent.children.add(this);
+        this.map.markModified();
         return true;
       }
     }
@@ -499,6 +508,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
       if (thatIndex >= 0 && thisIndex >= 0) {
         theParent.children.remove(this);
         theParent.children.add(thatIndex, this);
+        this.map.markModified();
       }
     }
   }
@@ -526,6 +536,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
       if (thatIndex >= 0 && thisIndex >= 0) {
         theParent.children.remove(this);
         theParent.children.add(thatIndex + 1, this);
+        this.map.markModified();
       }
     }
   }
@@ -589,6 +600,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
    */
   public void sortChildren(final Comparator<Topic> topicComparator, final boolean sortChildren) {
     this.children.sort(topicComparator);
+    this.map.markModified();
     if (sortChildren) {
       this.children.forEach(x -> x.sortChildren(topicComparator, true));
     }
@@ -652,6 +664,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
       final Topic t = iterator.next();
       if (t == topic) {
         iterator.remove();
+        this.map.markModified();
         return true;
       } else if (t.removeTopic(topic)) {
         return true;
@@ -662,6 +675,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
 
   public void removeAllChildren() {
     this.children.clear();
+    this.map.markModified();
   }
 
   public boolean moveToNewParent(final Topic newParent) {
@@ -676,6 +690,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
     }
     newParent.children.add(this);
     this.parent = newParent;
+    this.map.markModified();
 
     return true;
   }
@@ -728,6 +743,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
   }
 
   public void removeExtras(final Extra<?>... extras) {
+    this.map.markModified();
     if (extras == null || extras.length == 0) {
       this.extras.clear();
     } else {
@@ -863,6 +879,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
       final boolean includeSubtree,
       final Extra.ExtraType... types) {
     boolean result = false;
+    this.map.markModified();
 
     for (final Extra.ExtraType t : types) {
       result |= this.extras.remove(t) != null;
@@ -880,6 +897,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
    */
   public void clearAttributes() {
     this.attributes.clear();
+    this.map.markModified();
   }
 
   /**
@@ -894,6 +912,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
       final String... attributeNames
   ) {
     boolean result = false;
+    this.map.markModified();
 
     for (final String name : attributeNames) {
       result |= this.attributes.remove(name) != null;
@@ -920,6 +939,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
       final ExtraFile fileLink = (ExtraFile) this.extras.get(Extra.ExtraType.FILE);
       if (fileLink.isSameOrHasParent(baseFolder, fileUri)) {
         result = this.extras.remove(Extra.ExtraType.FILE) != null;
+        this.map.markModified();
       }
     }
     for (final Topic c : this.children) {
@@ -954,6 +974,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
         result = true;
         this.extras.remove(Extra.ExtraType.FILE);
         this.extras.put(Extra.ExtraType.FILE, replacement);
+        this.map.markModified();
       }
     }
 
@@ -18,6 +18,7 @@ package com.igormaznitsa.mindmap.model;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
@@ -198,4 +199,26 @@ public class MindMapTest {
     final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(buffer.toByteArray()));
     assertTrue(in.readObject() instanceof MindMap);
   }
+
+  @Test
+  public void testModificationStamp() throws Exception {
+    final MindMap map = new MindMap(new StringReader("---\n# root\n## child\n"));
+    final Topic child = map.getRoot().getChildren().get(0);
+
+    long stamp = map.getModificationStamp();
+    map.makeCopy();
+    child.getText();
+    assertEquals(stamp, map.getModificationStamp());
+
+    child.setText("changed");
+    assertNotEquals(stamp, map.getModificationStamp());
+
+    stamp = map.getModificationStamp();
+    child.makeChild("new", null);
+    assertNotEquals(stamp, map.getModificationStamp());
+
+    stamp = map.getModificationStamp();
+    child.delete();
+    assertNotEquals(stamp, map.getModificationStamp());
+  }
 }
@@ -73,6 +73,7 @@ public final class MindMapPluginRegistry implements Iterable<MindMapPlugin> {
   private final List<MindMapPlugin> pluginList = new ArrayList<>();
   private final Map<Class<? extends MindMapPlugin>, List<? extends MindMapPlugin>> FIND_CACHE =
           new HashMap<>();
+  private long version;
 
   private MindMapPluginRegistry() {
     registerPlugin(new FreeMindExporter());
@@ -138,6 +139,7 @@ public final class MindMapPluginRegistry implements Iterable<MindMapPlugin> {
       LOGGER.info("Registered plugin " + plugin.getClass().getName());
       Collections.sort(this.pluginList);
       FIND_CACHE.clear();
+      this.version++;
     }
   }
 
@@ -152,6 +154,8 @@ public final class MindMapPluginRegistry implements Iterable<MindMapPlugin> {
           iterator.remove();
         }
       }
+      FIND_CACHE.clear();
+      this.version++;
     }
   }
 
@@ -162,6 +166,7 @@ public final class MindMapPluginRegistry implements Iterable<MindMapPlugin> {
         Collections.sort(this.pluginList);
       }
       FIND_CACHE.clear();
+      this.version++;
     }
   }
 
@@ -175,6 +180,20 @@ public final class MindMapPluginRegistry implements Iterable<MindMapPlugin> {
     synchronized (FIND_CACHE) {
       this.pluginList.clear();
       FIND_CACHE.clear();
+      this.version++;
+    }
+  }
+
+  /**
+   * Get version of the registry content, it is changed on every registration or removal of
+   * plug-ins, so it can be used as key for structures made from registered plug-ins.
+   *
+   * @return version of registered plug-in list
+   * @since 1.6.6
+   */
+  public long getVersion() {
+    synchronized (FIND_CACHE) {
+      return this.version;
     }
   }
 
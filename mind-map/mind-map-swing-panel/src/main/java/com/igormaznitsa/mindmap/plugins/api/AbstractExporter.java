@@ -116,6 +116,12 @@ public abstract class AbstractExporter extends AbstractPopupMenuItem implements
     return PopUpSection.EXPORT;
   }
 
+  @Override
+  public boolean isMenuItemReusable() {
+    // externally executed plug-ins get active topic in activation call
+    return !(this instanceof ExternallyExecutedPlugin);
+  }
+
   protected Extra<?> findExtra(final Topic topic, final Extra.ExtraType type) {
     final Extra<?> result = topic.getExtras().get(type);
     return result == null ? null : (result.isExportable() ? result : null);
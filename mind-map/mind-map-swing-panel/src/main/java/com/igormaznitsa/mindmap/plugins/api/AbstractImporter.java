@@ -97,6 +97,12 @@ public abstract class AbstractImporter extends AbstractPopupMenuItem implements
     return PopUpSection.IMPORT;
   }
 
+  @Override
+  public boolean isMenuItemReusable() {
+    // externally executed plug-ins get active topic in activation call
+    return !(this instanceof ExternallyExecutedPlugin);
+  }
+
   @Override
   public boolean needsTopicUnderMouse() {
     return false;
@@ -69,4 +69,16 @@ public abstract class AbstractPopupMenuItem implements PopUpMenuItemPlugin {
   public boolean isCompatibleWithFullScreenMode() {
     return false;
   }
+
+  /**
+   * Check that menu item made by the plug-in doesn't depend on active topic, so that it can be
+   * made once for a context and reused in next pop-up menus. Reusable item is made with null
+   * as active topic and only its enabled state is updated for every pop-up menu.
+   *
+   * @return true if menu item can be reused, false if it must be made for every pop-up menu
+   * @since 1.6.6
+   */
+  public boolean isMenuItemReusable() {
+    return false;
+  }
 }
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.igormaznitsa.mindmap.plugins.attributes.emoticon;
+
+import com.igormaznitsa.mindmap.plugins.api.Renderable;
+import com.igormaznitsa.mindmap.plugins.api.RenderableImage;
+import com.igormaznitsa.mindmap.swing.panel.utils.MetricsRecorder;
+import com.igormaznitsa.mindmap.swing.panel.utils.MiscIcons;
+import com.igormaznitsa.mindmap.swing.panel.utils.RenderQuality;
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Atlas of emoticons scaled for one scale. Emoticons are rendered on demand into cells of fixed
+ * size pages and every emoticon is drawn as sub-image of its page, so every icon is scaled only
+ * once per scale and all icons share few images.
+ */
+final class EmoticonAtlas {
+
+  static final int ICON_SIZE = 32;
+  static final int PAGE_CELLS = 8;
+
+  private final int cellSize;
+  private final List<BufferedImage> pages = new ArrayList<>();
+  private final Map<String, Renderable> icons = new HashMap<>();
+  private int usedCells;
+
+  EmoticonAtlas(final double scale) {
+    this.cellSize = (int) Math.round(ICON_SIZE * scale);
+  }
+
+  int getPageCount() {
+    return this.pages.size();
+  }
+
+  /**
+   * Find emoticon for its name, the emoticon is placed into atlas if it is not there yet.
+   *
+   * @param name name of emoticon
+   * @return renderable sub-image of atlas or null if there is no such emoticon or scale too small
+   */
+  synchronized Renderable find(final String name) {
+    if (this.cellSize <= 0) {
+      return null;
+    }
+    Renderable result = this.icons.get(name);
+    final boolean cached = result != null || this.icons.containsKey(name);
+    MetricsRecorder.recordCacheAccess("emoticon", cached);
+    if (!cached) {
+      final Image icon = MiscIcons.findForName(name);
+      if (icon != null) {
+        result = new RenderableImage(this.place(icon));
+      }
+      this.icons.put(name, result);
+    }
+    return result;
+  }
+
+  private BufferedImage place(final Image icon) {
+    final int cellsPerPage = PAGE_CELLS * PAGE_CELLS;
+    final int pageIndex = this.usedCells / cellsPerPage;
+    final int cellIndex = this.usedCells % cellsPerPage;
+    if (pageIndex == this.pages.size()) {
+      this.pages.add(new BufferedImage(this.cellSize * PAGE_CELLS, this.cellSize * PAGE_CELLS,
+          BufferedImage.TYPE_INT_ARGB));
+    }
+    final BufferedImage page = this.pages.get(pageIndex);
+    final int x = (cellIndex % PAGE_CELLS) * this.cellSize;
+    final int y = (cellIndex / PAGE_CELLS) * this.cellSize;
+
+    final Graphics2D gfx = page.createGraphics();
+    try {
+      RenderQuality.QUALITY.prepare(gfx);
+      gfx.setComposite(AlphaComposite.Src);
+      gfx.setClip(x, y, this.cellSize, this.cellSize);
+      gfx.drawImage(icon, x, y, this.cellSize, this.cellSize, null);
+    } finally {
+      gfx.dispose();
+    }
+    this.usedCells++;
+    return page.getSubimage(x, y, this.cellSize, this.cellSize);
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.igormaznitsa.mindmap.plugins.attributes.images;
+
+import com.igormaznitsa.mindmap.plugins.api.Renderable;
+import com.igormaznitsa.mindmap.swing.panel.MindMapPanelConfig;
+import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics;
+import com.igormaznitsa.mindmap.swing.panel.utils.RenderResources;
+import java.awt.Color;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Topic image which is backed by the content cache. It knows its size from image header, decoded
+ * image is requested from the cache during every drawing and a placeholder is drawn until it is
+ * ready. If the header is still being read in background then the image has placeholder size.
+ */
+final class CachedRenderableImage implements Renderable {
+
+  private static final Color PLACEHOLDER_BORDER = new Color(0x80A0A0A0, true);
+  private static final Color PLACEHOLDER_FILL = new Color(0x40C0C0C0, true);
+  private static final int PLACEHOLDER_SIZE = 32;
+
+  private final ImageContentCache cache;
+  private final String encoded;
+  private volatile ImageContentCache.ImageInfo info;
+
+  CachedRenderableImage(final ImageContentCache cache, final ImageContentCache.ImageInfo info,
+                        final String encoded) {
+    this.cache = cache;
+    this.info = info;
+    this.encoded = encoded;
+  }
+
+  String getEncoded() {
+    return this.encoded;
+  }
+
+  /**
+   * Set info read in background.
+   *
+   * @param info info of the image, must not be null
+   */
+  void setInfo(final ImageContentCache.ImageInfo info) {
+    this.info = info;
+  }
+
+  void prefetch() {
+    final ImageContentCache.ImageInfo current = this.info;
+    if (current != null) {
+      this.cache.request(current, this.encoded, false);
+    }
+  }
+
+  @Override
+  public int getWidth(final double scale) {
+    final ImageContentCache.ImageInfo current = this.info;
+    return (int) Math.round((current == null ? PLACEHOLDER_SIZE : current.getWidth()) * scale);
+  }
+
+  @Override
+  public int getHeight(final double scale) {
+    final ImageContentCache.ImageInfo current = this.info;
+    return (int) Math.round((current == null ? PLACEHOLDER_SIZE : current.getHeight()) * scale);
+  }
+
+  @Override
+  public void renderAt(final MMGraphics gfx, final MindMapPanelConfig config, final int x,
+                       final int y) {
+    // image is resolved through the cache at every drawing, recorded display lists must not
+    // hold decoded image because it would bypass budget of the cache
+    final double scale = config.getScale();
+    gfx.drawResolved(g -> this.render(g, config, x, y), x, y, this.getWidth(scale),
+        this.getHeight(scale));
+  }
+
+  private void render(final MMGraphics gfx, final MindMapPanelConfig config, final int x,
+                      final int y) {
+    final ImageContentCache.ImageInfo current = this.info;
+    ScalableRenderableImage image = null;
+    if (current == null) {
+      // repaint will be made by relayout when the header is read
+      RenderResources.notifyResourceMissing();
+    } else {
+      image = this.cache.find(current);
+      if (image == null) {
+        if (config.isAsyncImageLoading()) {
+          final CompletableFuture<ScalableRenderableImage> decoding =
+              this.cache.request(current, this.encoded, true);
+          if (decoding.isDone()) {
+            image = decoding.join();
+          } else {
+            RenderResources.notifyResourceMissing();
+          }
+        } else {
+          image = this.cache.get(current, this.encoded);
+        }
+      }
+    }
+    if (image == null) {
+      final double scale = config.getScale();
+      gfx.drawRect(x, y, this.getWidth(scale), this.getHeight(scale), PLACEHOLDER_BORDER,
+          PLACEHOLDER_FILL);
+    } else {
+      image.renderAt(gfx, config, x, y);
+    }
+  }
+}
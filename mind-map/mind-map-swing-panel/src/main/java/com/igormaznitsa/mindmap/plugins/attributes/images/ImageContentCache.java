@@ -0,0 +1,437 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.igormaznitsa.mindmap.plugins.attributes.images;
+
+import com.igormaznitsa.mindmap.model.logger.Logger;
+import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
+import com.igormaznitsa.mindmap.swing.panel.utils.MetricsRecorder;
+import com.igormaznitsa.mindmap.swing.panel.utils.RenderResources;
+import com.igormaznitsa.mindmap.swing.panel.utils.Utils;
+import java.awt.Component;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Process-wide cache of decoded topic images. Images are addressed by SHA-256 of their content
+ * so that copies of the same image in different topics and maps are decoded only once. Decoded
+ * images are kept in LRU order within memory budget which includes their scaled copies, evicted
+ * images are decoded again on demand. Images used by the current paint frame are not evicted, so
+ * that the frame can't evict and request again the same image. Size of an image is read from its
+ * header only, so layout doesn't wait for decoding, and it can be probed in background together
+ * with hashing of content. When background decoding is completed, only components which have
+ * requested the image during paint are repainted. Keys of images which can't be decoded are kept
+ * in limited LRU set.
+ */
+final class ImageContentCache {
+
+  static final String PROPERTY_BUDGET_MB = "mmd.image.cache.mb";
+  private static final Logger LOGGER = LoggerFactory.getLogger(ImageContentCache.class);
+  private static final long DEFAULT_BUDGET_MB = 128L;
+  private static final int MAX_FAILED_KEYS = 256;
+  private static final ImageInfo BROKEN = new ImageInfo("", 0, 0);
+  private static final ImageContentCache INSTANCE = new ImageContentCache(findDefaultBudget());
+
+  private final Map<String, ImageInfo> infoCache =
+      Collections.synchronizedMap(new WeakHashMap<>());
+  private final Map<String, Entry> decoded = new LinkedHashMap<>(64, 0.75f, true);
+  private final Map<String, CompletableFuture<ImageInfo>> probing = new HashMap<>();
+  private final Map<String, CompletableFuture<ScalableRenderableImage>> pending = new HashMap<>();
+  private final Map<String, Set<Component>> waiters = new HashMap<>();
+  private final Set<String> waitedOutOfPaint = new HashSet<>();
+  private final Set<String> failed = Collections.newSetFromMap(
+      new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Boolean> eldest) {
+          return this.size() > MAX_FAILED_KEYS;
+        }
+      });
+  private final ExecutorService decoder;
+  private long budgetBytes;
+  private long usedBytes;
+
+  ImageContentCache(final long budgetBytes) {
+    this.budgetBytes = Math.max(0L, budgetBytes);
+    final AtomicInteger counter = new AtomicInteger();
+    this.decoder = Executors.newFixedThreadPool(
+        Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2)), r -> {
+          final Thread thread = new Thread(r, "mmd-image-decoder-" + counter.incrementAndGet());
+          thread.setDaemon(true);
+          thread.setPriority(Thread.NORM_PRIORITY - 1);
+          return thread;
+        });
+  }
+
+  static ImageContentCache getInstance() {
+    return INSTANCE;
+  }
+
+  private static long findDefaultBudget() {
+    long megabytes = DEFAULT_BUDGET_MB;
+    final String value = System.getProperty(PROPERTY_BUDGET_MB);
+    if (value != null) {
+      try {
+        megabytes = Long.parseLong(value.trim());
+      } catch (NumberFormatException ex) {
+        LOGGER.warn("Can't parse " + PROPERTY_BUDGET_MB + " value: " + value);
+      }
+    }
+    return Math.max(0L, megabytes) * 1024L * 1024L;
+  }
+
+  private static String makeKey(final byte[] data) {
+    try {
+      final byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+      final StringBuilder result = new StringBuilder(digest.length * 2);
+      for (final byte b : digest) {
+        result.append(Character.forDigit((b >> 4) & 0xF, 16))
+            .append(Character.forDigit(b & 0xF, 16));
+      }
+      return result.toString();
+    } catch (NoSuchAlgorithmException ex) {
+      throw new Error("SHA-256 is not supported", ex);
+    }
+  }
+
+  private static ImageInfo readInfo(final String encoded) {
+    try {
+      final byte[] data = Utils.base64decode(encoded);
+      try (final ImageInputStream in = ImageIO.createImageInputStream(
+          new ByteArrayInputStream(data))) {
+        final Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+        if (readers.hasNext()) {
+          final ImageReader reader = readers.next();
+          try {
+            reader.setInput(in, true, true);
+            return new ImageInfo(makeKey(data), reader.getWidth(0), reader.getHeight(0));
+          } finally {
+            reader.dispose();
+          }
+        }
+      }
+    } catch (Exception ex) {
+      LOGGER.error("Can't read image header", ex);
+    }
+    return null;
+  }
+
+  private static ScalableRenderableImage decode(final String encoded) {
+    try {
+      final BufferedImage image =
+          ImageIO.read(new ByteArrayInputStream(Utils.base64decode(encoded)));
+      if (image == null) {
+        LOGGER.error("Can't find decoder for image");
+      } else {
+        return new ScalableRenderableImage(image);
+      }
+    } catch (IOException ex) {
+      LOGGER.error("Can't extract image", ex);
+    }
+    return null;
+  }
+
+  /**
+   * Get info about encoded image, only header of the image is read but whole content is decoded
+   * from base64 and hashed, so that it should not be called in the event dispatch thread.
+   *
+   * @param encoded base64 encoded image
+   * @return info or null if image can't be recognized
+   * @see #requestInfo(String)
+   */
+  ImageInfo findInfo(final String encoded) {
+    ImageInfo result = this.infoCache.get(encoded);
+    if (result == null) {
+      result = readInfo(encoded);
+      this.infoCache.put(encoded, result == null ? BROKEN : result);
+    }
+    return result == BROKEN ? null : result;
+  }
+
+  /**
+   * Start reading of info about encoded image in background if it is not known yet.
+   *
+   * @param encoded base64 encoded image
+   * @return future which will be completed by info or null if image can't be recognized
+   */
+  CompletableFuture<ImageInfo> requestInfo(final String encoded) {
+    final ImageInfo known = this.infoCache.get(encoded);
+    if (known != null) {
+      return CompletableFuture.completedFuture(known == BROKEN ? null : known);
+    }
+    synchronized (this.probing) {
+      CompletableFuture<ImageInfo> result = this.probing.get(encoded);
+      if (result == null) {
+        result = CompletableFuture.supplyAsync(() -> {
+          try {
+            return this.findInfo(encoded);
+          } finally {
+            synchronized (this.probing) {
+              this.probing.remove(encoded);
+            }
+          }
+        }, this.decoder);
+        this.probing.put(encoded, result);
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Find already decoded image.
+   *
+   * @param info info of image
+   * @return decoded image or null if it is not decoded yet or evicted
+   */
+  ScalableRenderableImage find(final ImageInfo info) {
+    final Entry entry;
+    synchronized (this.decoded) {
+      entry = this.decoded.get(info.key);
+      if (entry != null) {
+        entry.markUsed();
+      }
+    }
+    MetricsRecorder.recordCacheAccess("imagedata", entry != null);
+    return entry == null ? null : entry.image;
+  }
+
+  /**
+   * Start decoding of image in background if it is not decoded or being decoded.
+   *
+   * @param info    info of image
+   * @param encoded base64 encoded image
+   * @param render  true if the image is requested to be rendered, then component painted in the
+   *                current thread is repainted when the image is decoded
+   * @return future which will be completed by decoded image or null if image can't be decoded
+   */
+  CompletableFuture<ScalableRenderableImage> request(final ImageInfo info, final String encoded,
+                                                     final boolean render) {
+    synchronized (this.decoded) {
+      final Entry entry = this.decoded.get(info.key);
+      if (entry != null || this.failed.contains(info.key)) {
+        if (entry != null) {
+          entry.markUsed();
+        }
+        return CompletableFuture.completedFuture(entry == null ? null : entry.image);
+      }
+      if (render) {
+        this.addWaiter(info.key);
+      }
+      CompletableFuture<ScalableRenderableImage> result = this.pending.get(info.key);
+      if (result == null) {
+        result = CompletableFuture.supplyAsync(() -> {
+          final ScalableRenderableImage image = decode(encoded);
+          this.onDecoded(info, image);
+          return image;
+        }, this.decoder);
+        this.pending.put(info.key, result);
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Get decoded image, decoding is made in the current thread if the image is not in cache and
+   * it is not being decoded by another thread.
+   *
+   * @param info    info of image
+   * @param encoded base64 encoded image
+   * @return decoded image or null if it can't be decoded
+   */
+  ScalableRenderableImage get(final ImageInfo info, final String encoded) {
+    ScalableRenderableImage result = this.find(info);
+    if (result == null) {
+      final CompletableFuture<ScalableRenderableImage> inProgress;
+      final CompletableFuture<ScalableRenderableImage> own;
+      synchronized (this.decoded) {
+        final Entry entry = this.decoded.get(info.key);
+        if (entry != null) {
+          return entry.image;
+        }
+        if (this.failed.contains(info.key)) {
+          return null;
+        }
+        inProgress = this.pending.get(info.key);
+        if (inProgress == null) {
+          own = new CompletableFuture<>();
+          this.pending.put(info.key, own);
+        } else {
+          own = null;
+        }
+      }
+      if (own == null) {
+        result = inProgress.join();
+      } else {
+        try {
+          result = decode(encoded);
+        } finally {
+          this.onDecoded(info, result);
+          own.complete(result);
+        }
+      }
+    }
+    return result;
+  }
+
+  private void addWaiter(final String key) {
+    final Component target = RenderResources.findPaintTarget();
+    if (target == null) {
+      this.waitedOutOfPaint.add(key);
+    } else {
+      this.waiters.computeIfAbsent(key, k -> new HashSet<>()).add(target);
+    }
+  }
+
+  private void onDecoded(final ImageInfo info, final ScalableRenderableImage image) {
+    final Collection<Component> targets;
+    final boolean allWindows;
+    synchronized (this.decoded) {
+      this.pending.remove(info.key);
+      this.put(info, image);
+      final Set<Component> found = this.waiters.remove(info.key);
+      targets = found == null ? Collections.emptySet() : found;
+      allWindows = this.waitedOutOfPaint.remove(info.key);
+    }
+    if (image != null) {
+      RenderResources.notifyResourceReady(targets, allWindows);
+    }
+  }
+
+  private void put(final ImageInfo info, final ScalableRenderableImage image) {
+    synchronized (this.decoded) {
+      if (image == null) {
+        this.failed.add(info.key);
+        return;
+      }
+      final Entry entry =
+          new Entry(image, (long) info.width * info.height * 4L + image.getDerivedBytes());
+      entry.markUsed();
+      final Entry previous = this.decoded.put(info.key, entry);
+      if (previous != null) {
+        this.usedBytes -= previous.bytes;
+      }
+      this.usedBytes += entry.bytes;
+      image.setDerivedBytesListener(delta -> this.onDerivedBytesChanged(info.key, image, delta));
+      this.evict(entry);
+    }
+  }
+
+  private void onDerivedBytesChanged(final String key, final ScalableRenderableImage image,
+                                     final long delta) {
+    synchronized (this.decoded) {
+      final Entry entry = this.decoded.get(key);
+      if (entry != null && entry.image == image) {
+        entry.bytes += delta;
+        this.usedBytes += delta;
+        entry.markUsed();
+        this.evict(entry);
+      }
+    }
+  }
+
+  private void evict(final Entry keep) {
+    final long frame = RenderResources.getFrame();
+    final Iterator<Entry> iterator = this.decoded.values().iterator();
+    while (this.usedBytes > this.budgetBytes && this.decoded.size() > 1 && iterator.hasNext()) {
+      final Entry entry = iterator.next();
+      if (entry != keep && entry.usedFrame != frame) {
+        this.usedBytes -= entry.bytes;
+        entry.image.setDerivedBytesListener(null);
+        iterator.remove();
+      }
+    }
+  }
+
+  long getBudget() {
+    synchronized (this.decoded) {
+      return this.budgetBytes;
+    }
+  }
+
+  void setBudget(final long bytes) {
+    synchronized (this.decoded) {
+      this.budgetBytes = Math.max(0L, bytes);
+      this.evict(null);
+    }
+  }
+
+  long getUsedBytes() {
+    synchronized (this.decoded) {
+      return this.usedBytes;
+    }
+  }
+
+  static final class ImageInfo {
+    private final String key;
+    private final int width;
+    private final int height;
+
+    private ImageInfo(final String key, final int width, final int height) {
+      this.key = key;
+      this.width = width;
+      this.height = height;
+    }
+
+    String getKey() {
+      return this.key;
+    }
+
+    int getWidth() {
+      return this.width;
+    }
+
+    int getHeight() {
+      return this.height;
+    }
+  }
+
+  private static final class Entry {
+    private final ScalableRenderableImage image;
+    private long bytes;
+    private long usedFrame = -1L;
+
+    private Entry(final ScalableRenderableImage image, final long bytes) {
+      this.image = image;
+      this.bytes = bytes;
+    }
+
+    private void markUsed() {
+      final long frame = RenderResources.findPaintFrame();
+      if (frame >= 0L) {
+        this.usedFrame = frame;
+      }
+    }
+  }
+}
@@ -19,37 +19,67 @@ package com.igormaznitsa.mindmap.plugins.attributes.images;
 import com.igormaznitsa.mindmap.model.Extra;
 import com.igormaznitsa.mindmap.model.MMapURI;
 import com.igormaznitsa.mindmap.model.Topic;
-import com.igormaznitsa.mindmap.model.logger.Logger;
-import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
 import com.igormaznitsa.mindmap.plugins.api.MindMapPlugin;
 import com.igormaznitsa.mindmap.plugins.api.PluginContext;
 import com.igormaznitsa.mindmap.plugins.api.Renderable;
 import com.igormaznitsa.mindmap.plugins.api.VisualAttributePlugin;
 import com.igormaznitsa.mindmap.swing.i18n.MmdI18n;
 import com.igormaznitsa.mindmap.swing.ide.IDEBridgeFactory;
+import com.igormaznitsa.mindmap.swing.panel.MindMapPanel;
 import com.igormaznitsa.mindmap.swing.panel.MindMapPanelConfig;
-import com.igormaznitsa.mindmap.swing.panel.utils.Utils;
-import java.awt.Image;
-import java.io.ByteArrayInputStream;
+import com.igormaznitsa.mindmap.swing.panel.utils.MetricsRecorder;
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Window;
 import java.io.File;
 import java.net.URISyntaxException;
+import java.util.Collections;
 import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Pattern;
-import javax.imageio.ImageIO;
+import javax.swing.SwingUtilities;
 
 public class ImageVisualAttributePlugin implements VisualAttributePlugin {
 
-  private static final Logger LOGGER = LoggerFactory.getLogger(ImageVisualAttributePlugin.class);
-  private static final Map<Topic, Renderable> CACHED_IMAGES = new WeakHashMap<>();
+  private static final Map<Topic, CachedRenderableImage> CACHED_IMAGES =
+      Collections.synchronizedMap(new WeakHashMap<>());
+  private static final AtomicBoolean RELAYOUT_SCHEDULED = new AtomicBoolean();
   private final ResourceBundle resourceBundle = MmdI18n.getInstance().findBundle();
 
+  /**
+   * Reset links between topics and images. Decoded images are kept in the content cache
+   * because they are addressed by content.
+   */
   public static void clearCachedImages() {
     CACHED_IMAGES.clear();
   }
 
+  /**
+   * Get memory budget for decoded images, by default it is defined by system property
+   * {@code mmd.image.cache.mb} in megabytes (128 if not defined).
+   *
+   * @return budget in bytes
+   * @since 1.6.6
+   */
+  public static long getImageCacheBudget() {
+    return ImageContentCache.getInstance().getBudget();
+  }
+
+  /**
+   * Set memory budget for decoded images, least recently used images are evicted if the budget
+   * is exceeded.
+   *
+   * @param bytes budget in bytes, negative value is processed as zero
+   * @since 1.6.6
+   */
+  public static void setImageCacheBudget(final long bytes) {
+    ImageContentCache.getInstance().setBudget(bytes);
+  }
+
   @Override
   public boolean doesTopicContentMatches(
       final Topic topic,
@@ -85,27 +115,87 @@ public class ImageVisualAttributePlugin implements VisualAttributePlugin {
   @Override
   public Renderable getScaledImage(final MindMapPanelConfig config,
                                    final Topic activeTopic) {
-    Renderable result = CACHED_IMAGES.get(activeTopic);
-    if (result == null) {
-      result = new ScalableRenderableImage(extractImage(activeTopic));
-      CACHED_IMAGES.put(activeTopic, result);
+    final String encoded = activeTopic.getAttribute(MMD_TOPIC_ATTRIBUTE_IMAGE_DATA);
+    if (encoded == null) {
+      return null;
+    }
+    CachedRenderableImage result = CACHED_IMAGES.get(activeTopic);
+    final boolean hit = result != null && result.getEncoded() == encoded;
+    MetricsRecorder.recordCacheAccess("image", hit);
+    if (!hit) {
+      final ImageContentCache cache = ImageContentCache.getInstance();
+      if (config.isAsyncImageLoading()) {
+        // content hashing and header reading are too heavy for layout in the dispatch thread
+        final CompletableFuture<ImageContentCache.ImageInfo> probe = cache.requestInfo(encoded);
+        if (probe.isDone()) {
+          result = makeImage(cache, activeTopic, probe.join(), encoded);
+          if (result != null) {
+            result.prefetch();
+          }
+        } else {
+          final CachedRenderableImage pending = new CachedRenderableImage(cache, null, encoded);
+          CACHED_IMAGES.put(activeTopic, pending);
+          probe.thenAccept(info -> {
+            if (info == null) {
+              CACHED_IMAGES.remove(activeTopic, pending);
+            } else {
+              pending.setInfo(info);
+              pending.prefetch();
+            }
+            scheduleRelayout();
+          });
+          result = pending;
+        }
+      } else {
+        result = makeImage(cache, activeTopic, cache.findInfo(encoded), encoded);
+      }
     }
     return result;
   }
 
-  private Image extractImage(final Topic topic) {
-    Image result = null;
-    final String encoded = topic.getAttribute(MMD_TOPIC_ATTRIBUTE_IMAGE_DATA);
-    if (encoded != null) {
-      try {
-        result = ImageIO.read(new ByteArrayInputStream(Utils.base64decode(encoded)));
-      } catch (Exception ex) {
-        LOGGER.error("Can't extract image", ex);
-      }
+  private static CachedRenderableImage makeImage(final ImageContentCache cache,
+                                                 final Topic topic,
+                                                 final ImageContentCache.ImageInfo info,
+                                                 final String encoded) {
+    if (info == null) {
+      CACHED_IMAGES.remove(topic);
+      return null;
     }
+    final CachedRenderableImage result = new CachedRenderableImage(cache, info, encoded);
+    CACHED_IMAGES.put(topic, result);
     return result;
   }
 
+  /**
+   * Relayout all shown mind map panels because images laid out with placeholder size have got
+   * their real size. Requests are coalesced into single event on the event dispatch thread.
+   */
+  private static void scheduleRelayout() {
+    if (RELAYOUT_SCHEDULED.compareAndSet(false, true)) {
+      SwingUtilities.invokeLater(() -> {
+        RELAYOUT_SCHEDULED.set(false);
+        for (final Window window : Window.getWindows()) {
+          if (window.isShowing()) {
+            relayoutPanels(window);
+          }
+        }
+      });
+    }
+  }
+
+  private static void relayoutPanels(final Component component) {
+    if (component instanceof MindMapPanel) {
+      final MindMapPanel panel = (MindMapPanel) component;
+      if (!panel.isDisposed() && panel.isShowing()) {
+        panel.doLayoutInBackground();
+      }
+    } else if (component instanceof Container) {
+      for (final Component child : ((Container) component).getComponents()) {
+        relayoutPanels(child);
+      }
+    }
+  }
+
   @Override
   public boolean onClick(final PluginContext context, final Topic topic,
                          final boolean activeGroupModifier, final int clickCount) {
@@ -19,27 +19,78 @@ package com.igormaznitsa.mindmap.plugins.attributes.images;
 import com.igormaznitsa.mindmap.plugins.api.Renderable;
 import com.igormaznitsa.mindmap.swing.panel.MindMapPanelConfig;
 import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics;
+import java.awt.AlphaComposite;
 import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.RenderingHints;
-import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
-import java.lang.ref.SoftReference;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.function.LongConsumer;
 
+/**
+ * Image which can be rendered in any scale. Downscaled variants are served from power-of-two
+ * mipmap pyramid (every level is half of previous one), so only final resampling from the nearest
+ * level is made for a scale with fast bilinear filter. Memory per image is bounded by the pyramid
+ * (one third of the base image) and the single last rendered variant, their size is reported to
+ * listener so that the owning cache counts them in its budget.
+ */
 final class ScalableRenderableImage implements Renderable {
 
-  private final Image baseImage;
+  private static final int MIN_LEVEL_SIZE = 8;
+
+  private final BufferedImage baseImage;
   private final int width;
   private final int height;
-  private final Map<Double, SoftReference<Image>> cache = new HashMap<>();
-  private double cachedScale = Double.MIN_VALUE;
+  private final BufferedImage[] levels;
+  private BufferedImage cachedImage;
+  private long cachedImageBytes;
+  private int cachedWidth = -1;
+  private int cachedHeight = -1;
+  private volatile long derivedBytes;
+  private volatile LongConsumer derivedBytesListener;
 
   public ScalableRenderableImage(final Image baseImage) {
-    this.baseImage = baseImage;
     this.width = baseImage.getWidth(null);
     this.height = baseImage.getHeight(null);
+    if (baseImage instanceof BufferedImage) {
+      this.baseImage = (BufferedImage) baseImage;
+    } else {
+      this.baseImage = new BufferedImage(Math.max(1, this.width), Math.max(1, this.height),
+          BufferedImage.TYPE_INT_ARGB);
+      final Graphics2D gfx = this.baseImage.createGraphics();
+      try {
+        gfx.drawImage(baseImage, 0, 0, null);
+      } finally {
+        gfx.dispose();
+      }
+    }
+
+    int levelCount = 0;
+    int side = Math.min(this.width, this.height);
+    while (side / 2 >= MIN_LEVEL_SIZE) {
+      side /= 2;
+      levelCount++;
+    }
+    this.levels = new BufferedImage[levelCount];
+  }
+
+  private static long findBytes(final BufferedImage image) {
+    return (long) image.getWidth() * image.getHeight() * 4L;
+  }
+
+  private static BufferedImage resample(final BufferedImage source, final int width,
+                                        final int height) {
+    final BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    final Graphics2D gfx = result.createGraphics();
+    try {
+      gfx.setComposite(AlphaComposite.Src);
+      gfx.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+          RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+      gfx.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
+      gfx.drawImage(source, 0, 0, width, height, null);
+    } finally {
+      gfx.dispose();
+    }
+    return result;
   }
 
   @Override
@@ -52,35 +103,107 @@ final class ScalableRenderableImage implements Renderable {
     return (int) Math.round(this.height * scale);
   }
 
-  private Image getCached(final double scale) {
-    Image result;
-    synchronized (this.cache) {
-      final SoftReference<Image> cachedImage = this.cache.get(scale);
-      result = cachedImage == null ? null : cachedImage.get();
-      if (result == null || Double.compare(this.cachedScale, scale) != 0) {
-        final int sw = getWidth(scale);
-        final int sh = getHeight(scale);
-
-        if (sw != 0 && sh != 0) {
-          final BufferedImage scaled = new BufferedImage(sw, sh, BufferedImage.TYPE_INT_ARGB);
-          final Graphics2D gfx = scaled.createGraphics();
-
-          gfx.setRenderingHint(RenderingHints.KEY_ALPHA_INTERPOLATION, RenderingHints.VALUE_ALPHA_INTERPOLATION_QUALITY);
-          gfx.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-          gfx.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-          gfx.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
-          gfx.setRenderingHint(RenderingHints.KEY_COLOR_RENDERING, RenderingHints.VALUE_COLOR_RENDER_QUALITY);
-
-          gfx.drawImage(this.baseImage, AffineTransform.getScaleInstance(scale, scale), null);
-          gfx.dispose();
-          result = scaled;
-          this.cache.put(scale, new SoftReference<>(result));
-        } else {
-          result = null;
-        }
-        this.cachedScale = scale;
+  int getLevelCount() {
+    return this.levels.length;
+  }
+
+  /**
+   * Get size of all derived images (pyramid levels and last rendered variant).
+   *
+   * @return size in bytes
+   */
+  long getDerivedBytes() {
+    return this.derivedBytes;
+  }
+
+  /**
+   * Set listener to be notified about change of size of derived images. The listener is called
+   * under lock of the image, so it must not call methods of the image.
+   *
+   * @param listener listener gets difference in bytes, can be null
+   */
+  void setDerivedBytesListener(final LongConsumer listener) {
+    this.derivedBytesListener = listener;
+  }
+
+  private void changeDerivedBytes(final long delta) {
+    if (delta != 0L) {
+      this.derivedBytes += delta;
+      final LongConsumer listener = this.derivedBytesListener;
+      if (listener != null) {
+        listener.accept(delta);
       }
     }
+  }
+
+  /**
+   * Get level of the pyramid, level 0 is the base image.
+   *
+   * @param level index of level, must be in [0, getLevelCount()]
+   * @return image of level
+   */
+  synchronized BufferedImage getLevel(final int level) {
+    if (level == 0) {
+      return this.baseImage;
+    }
+    BufferedImage result = this.levels[level - 1];
+    if (result == null) {
+      final BufferedImage previous = this.getLevel(level - 1);
+      result = resample(previous, Math.max(1, previous.getWidth() / 2),
+          Math.max(1, previous.getHeight() / 2));
+      this.levels[level - 1] = result;
+      this.changeDerivedBytes(findBytes(result));
+    }
+    return result;
+  }
+
+  /**
+   * Find the smallest pyramid level which is not smaller than required size.
+   *
+   * @param targetWidth  required width
+   * @param targetHeight required height
+   * @return index of level
+   */
+  int findLevel(final int targetWidth, final int targetHeight) {
+    int level = 0;
+    int levelWidth = this.width;
+    int levelHeight = this.height;
+    while (level < this.levels.length
+        && levelWidth / 2 >= targetWidth && levelHeight / 2 >= targetHeight) {
+      levelWidth /= 2;
+      levelHeight /= 2;
+      level++;
+    }
+    return level;
+  }
+
+  private synchronized Image getCached(final double scale) {
+    final int targetWidth = getWidth(scale);
+    final int targetHeight = getHeight(scale);
+    if (targetWidth <= 0 || targetHeight <= 0) {
+      return null;
+    }
+    if (targetWidth == this.width && targetHeight == this.height) {
+      return this.baseImage;
+    }
+
+    BufferedImage result = null;
+    if (targetWidth == this.cachedWidth && targetHeight == this.cachedHeight) {
+      result = this.cachedImage;
+    }
+    if (result == null) {
+      final BufferedImage level = this.getLevel(this.findLevel(targetWidth, targetHeight));
+      final boolean levelFits =
+          level.getWidth() == targetWidth && level.getHeight() == targetHeight;
+      result = levelFits ? level : resample(level, targetWidth, targetHeight);
+      // a level is already counted
+      final long resultBytes = levelFits ? 0L : findBytes(result);
+      this.changeDerivedBytes(resultBytes - this.cachedImageBytes);
+      this.cachedImage = result;
+      this.cachedImageBytes = resultBytes;
+      this.cachedWidth = targetWidth;
+      this.cachedHeight = targetHeight;
+    }
     return result;
   }
 
@@ -88,7 +211,9 @@ final class ScalableRenderableImage implements Renderable {
   public void renderAt(final MMGraphics gfx, final MindMapPanelConfig config, final int x,
                        final int y) {
     final Image image = getCached(config.getScale());
-    gfx.drawImage(image, x, y);
+    if (image != null) {
+      gfx.drawImage(image, x, y);
+    }
   }
 
 }
@@ -16,6 +16,7 @@
 
 package com.igormaznitsa.mindmap.plugins.exporters;
 
+import com.igormaznitsa.mindmap.model.MindMap;
 import com.igormaznitsa.mindmap.model.Topic;
 import com.igormaznitsa.mindmap.model.logger.Logger;
 import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
@@ -37,9 +38,7 @@ import com.igormaznitsa.mindmap.swing.services.ImageIconServiceProvider;
 import java.awt.Toolkit;
 import java.awt.datatransfer.Clipboard;
 import java.awt.image.BufferedImage;
-import java.awt.image.RenderedImage;
 import java.io.BufferedOutputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.FileOutputStream;
@@ -48,7 +47,6 @@ import java.io.OutputStream;
 import java.util.HashSet;
 import java.util.Locale;
 import java.util.Set;
-import javax.imageio.ImageIO;
 import javax.swing.Icon;
 import javax.swing.SwingUtilities;
 import org.apache.commons.io.IOUtils;
@@ -122,14 +120,17 @@ public final class PNGImageExporter extends AbstractExporter {
     }};
   }
 
-  private BufferedImage makeImage(final PluginContext context,
-                                  final Set<AbstractParameter<?>> options) throws IOException {
-    final boolean flagExpandAllNodes = options.stream()
+  private static boolean isExpandAllNodes(final Set<AbstractParameter<?>> options) {
+    return options.stream()
         .filter(x -> KEY_PARAMETER_UNFOLD_ALL.equals(x.getId()))
         .findFirst()
         .map(x -> ((BooleanParameter) x).getValue())
         .orElse(true);
+  }
 
+  private MindMapPanelConfig makeConfig(final PluginContext context,
+                                        final Set<AbstractParameter<?>> options)
+      throws IOException {
     final boolean flagDrawBackground = options.stream()
         .filter(x -> KEY_PARAMETER_DRAW_BACKGROUND.equals(x.getId()))
         .findFirst()
@@ -153,9 +154,16 @@ public final class PNGImageExporter extends AbstractExporter {
 
     panelConfig.setDrawBackground(flagDrawBackground);
     panelConfig.setScale(1.0f);
+    panelConfig.setLevelOfDetailEnabled(false);
+    panelConfig.setDisplayListCache(false);
+    panelConfig.setAsyncImageLoading(false);
+    return panelConfig;
+  }
 
-    return MindMapPanel.renderMindMapAsImage(context.getPanel().getModel(), panelConfig,
-        flagExpandAllNodes, RenderQuality.QUALITY);
+  private BufferedImage makeImage(final PluginContext context,
+                                  final Set<AbstractParameter<?>> options) throws IOException {
+    return MindMapPanel.renderMindMapAsImage(context.getPanel().getModel(),
+        this.makeConfig(context, options), isExpandAllNodes(options), RenderQuality.QUALITY);
   }
 
   @Override
@@ -176,9 +184,11 @@ public final class PNGImageExporter extends AbstractExporter {
   @Override
   public void doExport(final PluginContext context, final Set<AbstractParameter<?>> options,
                        final OutputStream out) throws IOException {
-    final RenderedImage image = makeImage(context, options);
+    final MindMap model = context.getPanel().getModel();
+    final MindMapPanelConfig panelConfig = this.makeConfig(context, options);
+    final boolean flagExpandAllNodes = isExpandAllNodes(options);
 
-    if (image == null) {
+    if (model.getRoot() == null) {
       if (out == null) {
         LOGGER.error("Can't render map as image");
         context.getDialogProvider()
@@ -190,11 +200,6 @@ public final class PNGImageExporter extends AbstractExporter {
       }
     }
 
-    final ByteArrayOutputStream buff = new ByteArrayOutputStream(128000);
-    ImageIO.write(image, "png", buff);
-
-    final byte[] imageData = buff.toByteArray();
-
     File fileToSaveMap = null;
     OutputStream theOut = out;
     if (theOut == null) {
@@ -214,7 +219,10 @@ public final class PNGImageExporter extends AbstractExporter {
     }
     if (theOut != null) {
       try {
-        IOUtils.write(imageData, theOut);
+        if (!MindMapPanel.writeMindMapAsPng(model, panelConfig, flagExpandAllNodes,
+            RenderQuality.QUALITY, theOut, Runtime.getRuntime().availableProcessors())) {
+          throw new IOException("Can't render image");
+        }
       } finally {
         if (fileToSaveMap != null) {
           IOUtils.closeQuietly(theOut);
@@ -39,7 +39,6 @@ import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics;
 import com.igormaznitsa.mindmap.swing.panel.ui.gfx.StrokeType;
 import com.igormaznitsa.mindmap.swing.panel.utils.MindMapUtils;
 import com.igormaznitsa.mindmap.swing.panel.utils.RenderQuality;
-import com.igormaznitsa.mindmap.swing.panel.utils.Utils;
 import com.igormaznitsa.mindmap.swing.services.IconID;
 import com.igormaznitsa.mindmap.swing.services.ImageIconServiceProvider;
 import java.awt.BasicStroke;
@@ -65,17 +64,21 @@ import java.awt.geom.RoundRectangle2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.RenderedImage;
 import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Locale;
@@ -153,20 +156,55 @@ public class SVGImageExporter extends AbstractExporter {
     return fontFamilyStr;
   }
 
-  private static String font2style(final Font font) {
-    final StringBuilder result = new StringBuilder();
-
+  private static void writeFontStyle(final PrintWriter writer, final Font font) {
     final String fontFamily = fontFamilyToSVG(font);
-    result.append("font-family: '").append(fontFamily).append("';").append(NEXT_LINE);
+    writer.append("font-family: '").append(fontFamily).append("';").append(NEXT_LINE);
 
     findEmbeddedFont(font).ifPresent(
-        fontData -> result.append("src:url(data:").append(fontData.mimeType)
-            .append(";charset=utf-8;base64,")
-            .append(Utils.base64encode(fontData.data)).append(") format(\"")
-            .append(fontData.asFormat()).append("\");")
-            .append(NEXT_LINE));
+        fontData -> {
+          writer.append("src:url(data:").append(fontData.mimeType)
+              .append(";charset=utf-8;base64,");
+          try (final OutputStream base64 = makeBase64Stream(writer)) {
+            base64.write(fontData.data);
+          } catch (IOException ex) {
+            LOGGER.error("Can't write font data", ex);
+          }
+          writer.append(") format(\"").append(fontData.asFormat()).append("\");")
+              .append(NEXT_LINE);
+        });
+  }
+
+  /**
+   * Make stream which encodes written bytes into base64 and writes them into writer by chunks.
+   * Closing of the stream doesn't close the writer.
+   *
+   * @param writer target writer, must not be null
+   * @return stream to write binary data
+   */
+  private static OutputStream makeBase64Stream(final Writer writer) {
+    return Base64.getEncoder().wrap(new OutputStream() {
+      private final char[] chunk = new char[4096];
+      private int size;
+
+      @Override
+      public void write(final int b) throws IOException {
+        if (this.size == this.chunk.length) {
+          this.flush();
+        }
+        this.chunk[this.size++] = (char) (b & 0xFF);
+      }
+
+      @Override
+      public void flush() throws IOException {
+        writer.write(this.chunk, 0, this.size);
+        this.size = 0;
+      }
 
-    return result.toString();
+      @Override
+      public void close() throws IOException {
+        this.flush();
+      }
+    });
   }
 
   @Override
@@ -228,26 +266,15 @@ public class SVGImageExporter extends AbstractExporter {
     }};
   }
 
-  private String makeContent(final PluginContext context, final Set<AbstractParameter<?>> options) throws IOException {
-    final boolean flagExpandAllNodes = options.stream()
-        .filter(x -> KEY_PARAMETER_UNFOLD_ALL.equals(x.getId()))
-        .findFirst()
-        .map(x -> ((BooleanParameter) x).getValue())
-        .orElse(true);
-
+  private MindMapPanelConfig makeConfig(final PluginContext context,
+                                        final Set<AbstractParameter<?>> options)
+      throws IOException {
     final boolean flagDrawBackground = options.stream()
         .filter(x -> KEY_PARAMETER_DRAW_BACKGROUND.equals(x.getId()))
         .findFirst()
         .map(x -> ((BooleanParameter) x).getValue())
         .orElse(true);
 
-    final MindMap workMap = context.getPanel().getModel().makeCopy();
-    workMap.clearAllPayloads();
-
-    if (flagExpandAllNodes) {
-      MindMapUtils.removeCollapseAttr(workMap);
-    }
-
     final File customPreferencesFile = options.stream()
         .filter(x -> KEY_PARAMETER_CUSTOM_CONFIG_FILE.equals(x.getId()))
         .findFirst()
@@ -263,6 +290,75 @@ public class SVGImageExporter extends AbstractExporter {
       drawConfig = this.loadPreferencesFile(customPreferencesFile);
     }
 
+    drawConfig.setDrawBackground(flagDrawBackground);
+    return drawConfig;
+  }
+
+  private static boolean isExpandAllNodes(final Set<AbstractParameter<?>> options) {
+    return options.stream()
+        .filter(x -> KEY_PARAMETER_UNFOLD_ALL.equals(x.getId()))
+        .findFirst()
+        .map(x -> ((BooleanParameter) x).getValue())
+        .orElse(true);
+  }
+
+  private String makeContent(final PluginContext context,
+                             final Set<AbstractParameter<?>> options) throws IOException {
+    return makeSvg(context.getPanel().getModel(), this.makeConfig(context, options),
+        isExpandAllNodes(options));
+  }
+
+  private void writeContent(final PluginContext context, final Set<AbstractParameter<?>> options,
+                            final Writer writer) throws IOException {
+    writeSvg(context.getPanel().getModel(), this.makeConfig(context, options),
+        isExpandAllNodes(options), writer);
+  }
+
+  /**
+   * Render mind map as SVG document. Doesn't need any plugin context so can be used in headless
+   * mode.
+   *
+   * @param model      mind map to be rendered, must not be null, it is not changed
+   * @param drawConfig configuration to render map, must not be null, it will be changed for
+   *                   export (scale and font)
+   * @param expandAll  true if all collapsed topics should be expanded
+   * @return SVG document as text
+   * @see #writeSvg(MindMap, MindMapPanelConfig, boolean, Writer)
+   * @since 1.6.6
+   */
+  public static String makeSvg(final MindMap model, final MindMapPanelConfig drawConfig,
+                               final boolean expandAll) {
+    final StringWriter buffer = new StringWriter(16384);
+    try {
+      writeSvg(model, drawConfig, expandAll, buffer);
+    } catch (IOException ex) {
+      throw new IllegalStateException("Unexpected IO error", ex);
+    }
+    return buffer.toString();
+  }
+
+  /**
+   * Render mind map as SVG document and write elements directly into writer during painting, so
+   * that the whole document is never kept in memory. Images are placed into definitions at the
+   * end of document and encoded into base64 by chunks.
+   *
+   * @param model      mind map to be rendered, must not be null, it is not changed
+   * @param drawConfig configuration to render map, must not be null, it will be changed for
+   *                   export (scale and font)
+   * @param expandAll  true if all collapsed topics should be expanded
+   * @param out        target writer, must not be null, it is flushed but not closed
+   * @throws IOException if any IO error
+   * @since 1.6.6
+   */
+  public static void writeSvg(final MindMap model, final MindMapPanelConfig drawConfig,
+                              final boolean expandAll, final Writer out) throws IOException {
+    final MindMap workMap = model.makeCopy();
+    workMap.clearAllPayloads();
+
+    if (expandAll) {
+      MindMapUtils.removeCollapseAttr(workMap);
+    }
+
     final String[] mappedFont =
         LOCAL_FONT_MAP.get(drawConfig.getFont().getFamily().toLowerCase(Locale.ENGLISH));
     if (mappedFont != null) {
@@ -271,40 +367,46 @@ public class SVGImageExporter extends AbstractExporter {
       drawConfig.setFont(adaptedFont);
     }
 
-    drawConfig.setDrawBackground(flagDrawBackground);
     drawConfig.setScale(1.0f);
+    drawConfig.setLevelOfDetailEnabled(false);
+    drawConfig.setDisplayListCache(false);
+    drawConfig.setAsyncImageLoading(false);
+
+    final PrintWriter writer = new PrintWriter(out);
 
     final Dimension2D blockSize =
-        calculateSizeOfMapInPixels(workMap, null, drawConfig, flagExpandAllNodes,
+        calculateSizeOfMapInPixels(workMap, null, drawConfig, expandAll,
             RenderQuality.DEFAULT);
     if (blockSize == null) {
-      return SVG_HEADER + "</svg>";
+      writer.append(SVG_HEADER).append("</svg>");
+    } else {
+      writer.append(String.format(SVG_HEADER, 100, 100, dbl2str(blockSize.getWidth()),
+          dbl2str(blockSize.getHeight()))).append(NEXT_LINE);
+      writer.append("<defs>").append(NEXT_LINE);
+      writeStylePart(writer, drawConfig);
+      writer.append(NEXT_LINE).append("</defs>").append(NEXT_LINE);
+
+      final ImageCache imageCache = new ImageCache();
+      final BufferedImage image = new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB);
+      final Graphics2D g = image.createGraphics();
+      final MMGraphics gfx = new SVGMMGraphics(writer, g, imageCache);
+      gfx.setClip(0, 0, (int) Math.round(blockSize.getWidth()),
+          (int) Math.round(blockSize.getHeight()));
+      try {
+        layoutFullDiagramWithCenteringToPaper(gfx, workMap, drawConfig, blockSize);
+        drawOnGraphicsForConfiguration(gfx, drawConfig, workMap, false, null);
+        imageCache.write(writer);
+      } finally {
+        gfx.dispose();
+        imageCache.reset();
+      }
+      writer.append("</svg>");
     }
 
-    final StringBuilder buffer = new StringBuilder(16384);
-
-    final ImageCache imageCache = new ImageCache();
-    final BufferedImage image = new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB);
-    final Graphics2D g = image.createGraphics();
-    final MMGraphics gfx = new SVGMMGraphics(buffer, g, imageCache);
-    gfx.setClip(0, 0, (int) Math.round(blockSize.getWidth()),
-        (int) Math.round(blockSize.getHeight()));
-    try {
-      layoutFullDiagramWithCenteringToPaper(gfx, workMap, drawConfig, blockSize);
-      drawOnGraphicsForConfiguration(gfx, drawConfig, workMap, false, null);
-      buffer.insert(0, imageCache.asString(prepareStylePart(drawConfig)));
-    } finally {
-      gfx.dispose();
-      imageCache.reset();
+    writer.flush();
+    if (writer.checkError()) {
+      throw new IOException("Error during SVG writing");
     }
-
-    buffer.insert(0, NEXT_LINE);
-    buffer.insert(0, String.format(SVG_HEADER, 100, 100, dbl2str(blockSize.getWidth()),
-        dbl2str(blockSize.getHeight())));
-
-    buffer.append("</svg>");
-
-    return buffer.toString();
   }
 
   @Override
@@ -323,8 +425,6 @@ public class SVGImageExporter extends AbstractExporter {
   @Override
   public void doExport(final PluginContext context, final Set<AbstractParameter<?>> options,
                        final OutputStream out) throws IOException {
-    final String text = makeContent(context, options);
-
     File fileToSaveMap = null;
     OutputStream theOut = out;
     if (theOut == null) {
@@ -342,7 +442,10 @@ public class SVGImageExporter extends AbstractExporter {
     }
     if (theOut != null) {
       try {
-        IOUtils.write(text, theOut, "UTF-8");
+        final Writer writer =
+            new BufferedWriter(new OutputStreamWriter(theOut, StandardCharsets.UTF_8));
+        writeContent(context, options, writer);
+        writer.flush();
       } finally {
         if (fileToSaveMap != null) {
           IOUtils.closeQuietly(theOut);
@@ -351,10 +454,12 @@ public class SVGImageExporter extends AbstractExporter {
     }
   }
 
-  private String prepareStylePart(final MindMapPanelConfig config) {
-    return "<style type=\"text/css\">" + NEXT_LINE
-        + "  @font-face { " + NEXT_LINE + font2style(config.getFont()) + "}" + NEXT_LINE
-        + "</style>";
+  private static void writeStylePart(final PrintWriter writer,
+                                     final MindMapPanelConfig config) {
+    writer.append("<style type=\"text/css\">").append(NEXT_LINE)
+        .append("  @font-face { ").append(NEXT_LINE);
+    writeFontStyle(writer, config.getFont());
+    writer.append("}").append(NEXT_LINE).append("</style>");
   }
 
   @Override
@@ -416,40 +521,31 @@ public class SVGImageExporter extends AbstractExporter {
       }
     }
 
-    public String asString(final String css) {
-      final StringWriter writer = new StringWriter(4096);
-      writer.write("<defs>");
-      writer.write(NEXT_LINE);
-
-      writer.write(css);
-      writer.write(NEXT_LINE);
+    void write(final PrintWriter writer) {
+      if (this.map.isEmpty()) {
+        return;
+      }
+      writer.append("<defs>").append(NEXT_LINE);
 
       this.map.entrySet().stream()
           .sorted(Map.Entry.comparingByValue())
           .forEach(e -> {
-            final ByteArrayOutputStream imageBuffer = new ByteArrayOutputStream(4096);
-            String pngBase64Encoded = "";
-            try {
-              if (ImageIO.write(e.getKey(), "png", imageBuffer)) {
-                pngBase64Encoded = Utils.base64encode(imageBuffer.toByteArray());
+            writer.append(String.format(
+                " <image id=\"%s\" width=\"%d\" height=\"%d\" xlink:href=\"data:image/png;charset=utf-8;base64,",
+                e.getValue(),
+                e.getKey().getWidth(),
+                e.getKey().getHeight()));
+            try (final OutputStream base64 = makeBase64Stream(writer)) {
+              if (!ImageIO.write(e.getKey(), "png", base64)) {
+                LOGGER.warn("Can't find PNG writer for image");
               }
             } catch (IOException ex) {
               LOGGER.error("Can't render PNG image for internal IO error", ex);
-              pngBase64Encoded = "http://cant_render_image_for_io_error.org";
             }
-            writer.write(
-                String.format(
-                    " <image id=\"%s\" width=\"%d\" height=\"%d\" xlink:href=\"data:image/png;charset=utf-8;base64,%s\"/>",
-                    e.getValue(),
-                    e.getKey().getWidth(),
-                    e.getKey().getHeight(),
-                    pngBase64Encoded));
-            writer.write(NEXT_LINE);
+            writer.append("\"/>").append(NEXT_LINE);
           });
 
-      writer.write("</defs>");
-      writer.write(NEXT_LINE);
-      return writer.toString();
+      writer.append("</defs>").append(NEXT_LINE);
     }
 
     void reset() {
@@ -506,7 +602,7 @@ public class SVGImageExporter extends AbstractExporter {
   private static final class SVGMMGraphics implements MMGraphics {
 
     private static final DecimalFormat ALPHA = new DecimalFormat("#.##");
-    private final StringBuilder buffer;
+    private final PrintWriter buffer;
     private final Graphics2D context;
     private final ImageCache imageCache;
     private double translateX;
@@ -515,7 +611,7 @@ public class SVGImageExporter extends AbstractExporter {
     private StrokeType strokeType = StrokeType.SOLID;
 
     private SVGMMGraphics(
-        final StringBuilder buffer,
+        final PrintWriter buffer,
         final Graphics2D context,
         final ImageCache imageCache
     ) {
@@ -792,7 +888,7 @@ public class SVGImageExporter extends AbstractExporter {
     public void drawCurve(final double startX, final double startY, final double endX,
                           final double endY, final Color color) {
       this.buffer.append("<path d=\"M").append(dbl2str(startX + this.translateX)).append(',')
-          .append(startY + this.translateY)
+          .append(String.valueOf(startY + this.translateY))
           .append(" C").append(dbl2str(startX))
           .append(',').append(dbl2str(endY))
           .append(' ').append(dbl2str(startX))
@@ -46,6 +46,9 @@ public class MMDPrint {
 
   private static final PrintPage[][] NO_PAGES = new PrintPage[0][0];
 
+  private static final double SCALE_STEP = 0.01d;
+  private static final int MAX_PROPORTIONAL_STEPS = 3;
+
   private final PrintPage[][] pages;
 
   public MMDPrint(final PrintableObject printableObject, final int paperWidthInPixels,
@@ -68,6 +71,9 @@ public class MMDPrint {
             false);
         cfg.setDrawBackground(false);
         cfg.setDropShadow(false);
+        cfg.setLevelOfDetailEnabled(false);
+        cfg.setDisplayListCache(false);
+        cfg.setAsyncImageLoading(false);
 
         cfg.setConnectorColor(Color.black);
         cfg.setRootBackgroundColor(Color.black);
@@ -96,8 +102,6 @@ public class MMDPrint {
 
       final Image imageToDraw;
 
-      final double SCALE_STEP = 0.01d;
-
       final Point offsetOfImage;
 
       switch (options.getScaleType()) {
@@ -107,20 +111,12 @@ public class MMDPrint {
                 calculateSizeOfMapInPixels(theModel, null, cfg, false, RenderQuality.QUALITY));
             scale = (double) (options.getPagesInColumn() * paperHeightInPixels) /
                 (int) Math.round(calculatedSize.getHeight());
-            cfg.setScale(scale);
-            calculatedSize = requireNonNull(
-                calculateSizeOfMapInPixels(theModel, null, cfg, false, RenderQuality.QUALITY));
+            calculatedSize = findFitScale(theModel, cfg, scale, Integer.MAX_VALUE,
+                maxSizeForPages(options.getPagesInColumn(), paperHeightInPixels));
+            scale = cfg.getScale();
             int pvert =
                 1 + (int) Math.round(calculatedSize.getHeight()) / (paperHeightInPixels + 1);
 
-            while (pvert > options.getPagesInColumn() && scale > SCALE_STEP) {
-              scale -= SCALE_STEP;
-              cfg.setScale(scale);
-              calculatedSize = requireNonNull(
-                  calculateSizeOfMapInPixels(theModel, null, cfg, false, RenderQuality.QUALITY));
-              pvert = 1 + (int) Math.round(calculatedSize.getHeight()) / (paperHeightInPixels + 1);
-            }
-
             if (drawAsImage) {
               imageToDraw = requireNonNull(
                   MindMapPanel.renderMindMapAsImage(theModel, cfg, false, RenderQuality.QUALITY),
@@ -155,19 +151,11 @@ public class MMDPrint {
                 calculateSizeOfMapInPixels(theModel, null, cfg, false, RenderQuality.QUALITY));
             scale = (double) (options.getPagesInRow() * paperWidthInPixels) /
                 (int) Math.round(calculatedSize.getWidth());
-            cfg.setScale(scale);
-            calculatedSize = requireNonNull(
-                calculateSizeOfMapInPixels(theModel, null, cfg, false, RenderQuality.QUALITY));
+            calculatedSize = findFitScale(theModel, cfg, scale,
+                maxSizeForPages(options.getPagesInRow(), paperWidthInPixels), Integer.MAX_VALUE);
+            scale = cfg.getScale();
             int phorz = 1 + (int) Math.round(calculatedSize.getWidth()) / (paperWidthInPixels + 1);
 
-            while (phorz > options.getPagesInRow() && scale > SCALE_STEP) {
-              scale -= SCALE_STEP;
-              cfg.setScale(scale);
-              calculatedSize = requireNonNull(
-                  calculateSizeOfMapInPixels(theModel, null, cfg, false, RenderQuality.QUALITY));
-              phorz = 1 + (int) Math.round(calculatedSize.getWidth()) / (paperWidthInPixels + 1);
-            }
-
             if (drawAsImage) {
               imageToDraw = requireNonNull(
                   MindMapPanel.renderMindMapAsImage(theModel, cfg, false, RenderQuality.QUALITY),
@@ -204,22 +192,14 @@ public class MMDPrint {
                 (int) Math.round(calculatedSize.getWidth());
             scale = Math.min(scale, (double) (options.getPagesInColumn() * paperHeightInPixels) /
                 (int) Math.round(calculatedSize.getHeight()));
-            cfg.setScale(scale);
-            calculatedSize = requireNonNull(
-                calculateSizeOfMapInPixels(theModel, null, cfg, false, RenderQuality.QUALITY));
-            int phorz = 1 + (int) Math.round(calculatedSize.getWidth()) / (paperWidthInPixels + 1);
-            int pvert =
+            calculatedSize = findFitScale(theModel, cfg, scale,
+                maxSizeForPages(1, paperWidthInPixels), maxSizeForPages(1, paperHeightInPixels));
+            scale = cfg.getScale();
+            final int phorz =
+                1 + (int) Math.round(calculatedSize.getWidth()) / (paperWidthInPixels + 1);
+            final int pvert =
                 1 + (int) Math.round(calculatedSize.getHeight()) / (paperHeightInPixels + 1);
 
-            while ((phorz > 1 || pvert > 1) && scale > SCALE_STEP) {
-              scale -= SCALE_STEP;
-              cfg.setScale(scale);
-              calculatedSize = requireNonNull(
-                  calculateSizeOfMapInPixels(theModel, null, cfg, false, RenderQuality.QUALITY));
-              phorz = 1 + (int) Math.round(calculatedSize.getWidth()) / (paperWidthInPixels + 1);
-              pvert = 1 + (int) Math.round(calculatedSize.getHeight()) / (paperHeightInPixels + 1);
-            }
-
             if (phorz > 1 || pvert > 1) {
               // we have to scale to fit only page
               final BufferedImage image =
@@ -361,19 +341,22 @@ public class MMDPrint {
                   return;
                 }
 
-                final Graphics2D gfx = (Graphics2D) g.create();
-                RenderQuality.QUALITY.prepare(gfx);
-
-                MindMapPanel.layoutFullDiagramWithCenteringToPaper(new MMGraphics2DWrapper(gfx),
-                    theModel, cfg, modelImageSize);
-
-                gfx.translate(offsetOfImage.x - pageX * paperWidthInPixels,
-                    offsetOfImage.y - pageY * paperHeightInPixels);
-                try {
-                  drawOnGraphicsForConfiguration(new MMGraphics2DWrapper(gfx), cfg, theModel, false,
-                      null);
-                } finally {
-                  gfx.dispose();
+                // pages share the model and can be printed by preview and printer job threads
+                synchronized (theModel) {
+                  final Graphics2D gfx = (Graphics2D) g.create();
+                  RenderQuality.QUALITY.prepare(gfx);
+
+                  MindMapPanel.layoutFullDiagramWithCenteringToPaper(new MMGraphics2DWrapper(gfx),
+                      theModel, cfg, modelImageSize);
+
+                  gfx.translate(offsetOfImage.x - pageX * paperWidthInPixels,
+                      offsetOfImage.y - pageY * paperHeightInPixels);
+                  try {
+                    drawOnGraphicsForConfiguration(new MMGraphics2DWrapper(gfx), cfg, theModel,
+                        false, null);
+                  } finally {
+                    gfx.dispose();
+                  }
                 }
               };
             }
@@ -384,6 +367,91 @@ public class MMDPrint {
     this.pages = pgs;
   }
 
+  /**
+   * Find max size of map in pixels which can be placed on pages.
+   *
+   * @param pages     number of pages
+   * @param paperSize size of page in pixels
+   * @return max size of map in pixels
+   */
+  private static int maxSizeForPages(final int pages, final int paperSize) {
+    return pages * (paperSize + 1) - 1;
+  }
+
+  private static boolean isFit(final Dimension2D size, final int maxWidth, final int maxHeight) {
+    return Math.round(size.getWidth()) <= maxWidth && Math.round(size.getHeight()) <= maxHeight;
+  }
+
+  private static Dimension2D measure(final MindMap model, final MindMapPanelConfig cfg,
+                                     final double scale) {
+    cfg.setScale(scale);
+    return requireNonNull(
+        calculateSizeOfMapInPixels(model, null, cfg, false, RenderQuality.QUALITY));
+  }
+
+  /**
+   * Find max scale (with precision of scale step) to fit map into provided size. Proportional
+   * estimation from the last measured size is used while the map doesn't fit, then the scale is
+   * refined by bisection, so that only a few layouts are needed.
+   *
+   * @param model      model to be measured, must not be null
+   * @param cfg        configuration, its scale will be set to the found one
+   * @param startScale the first scale to check, it is the max allowed scale
+   * @param maxWidth   max allowed width in pixels
+   * @param maxHeight  max allowed height in pixels
+   * @return size of map for found scale, the scale is in the configuration
+   */
+  private static Dimension2D findFitScale(final MindMap model, final MindMapPanelConfig cfg,
+                                          final double startScale, final int maxWidth,
+                                          final int maxHeight) {
+    double upper = Math.max(SCALE_STEP, startScale);
+    Dimension2D upperSize = measure(model, cfg, upper);
+    if (isFit(upperSize, maxWidth, maxHeight)) {
+      return upperSize;
+    }
+
+    double lower = SCALE_STEP;
+    Dimension2D lowerSize = null;
+
+    for (int i = 0; i < MAX_PROPORTIONAL_STEPS && lowerSize == null; i++) {
+      final double ratio = Math.min((double) maxWidth / Math.max(1.0d, upperSize.getWidth()),
+          (double) maxHeight / Math.max(1.0d, upperSize.getHeight()));
+      final double next = Math.min(upper - SCALE_STEP, upper * ratio * 0.98d);
+      if (next <= SCALE_STEP) {
+        break;
+      }
+      final Dimension2D nextSize = measure(model, cfg, next);
+      if (isFit(nextSize, maxWidth, maxHeight)) {
+        lower = next;
+        lowerSize = nextSize;
+      } else {
+        upper = next;
+        upperSize = nextSize;
+      }
+    }
+
+    if (lowerSize == null) {
+      lowerSize = measure(model, cfg, SCALE_STEP);
+      if (!isFit(lowerSize, maxWidth, maxHeight)) {
+        return lowerSize;
+      }
+    }
+
+    while (upper - lower > SCALE_STEP) {
+      final double middle = (upper + lower) / 2.0d;
+      final Dimension2D middleSize = measure(model, cfg, middle);
+      if (isFit(middleSize, maxWidth, maxHeight)) {
+        lower = middle;
+        lowerSize = middleSize;
+      } else {
+        upper = middle;
+      }
+    }
+
+    cfg.setScale(lower);
+    return lowerSize;
+  }
+
   private static Point calcOffsetImage(final int pagesHorz, final int pagesVert,
                                        final int paperWidthInPixels, final int paperHeighInPixels,
                                        final Dimension2D calculatedSize) {
@@ -16,15 +16,33 @@
 
 package com.igormaznitsa.mindmap.print;
 
+import com.igormaznitsa.mindmap.model.logger.Logger;
+import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.Stroke;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
 import java.awt.print.PageFormat;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 
+/**
+ * Preview of print pages. Pages are rendered lazily in a background thread into cached images
+ * only when they become visible, a placeholder is shown until the image is ready.
+ */
 class Pages extends JPanel {
 
   private static final long serialVersionUID = -6728277837828116266L;
@@ -32,8 +50,29 @@ class Pages extends JPanel {
   private static final int INTERVAL_Y = 25;
   private static final int SHADOW_X = 10;
   private static final int SHADOW_Y = 10;
+  private static final Color PLACEHOLDER_COLOR = new Color(0xF0F0F0);
+  private static final long MAX_CACHED_BYTES = 64L * 1024L * 1024L;
+  private static final Logger LOGGER = LoggerFactory.getLogger(Pages.class);
+  private static final ExecutorService RENDER_EXECUTOR =
+      Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "mmd-print-preview");
+        thread.setDaemon(true);
+        return thread;
+      });
+
   private final MMDPrintPanel parent;
 
+  /**
+   * Rendered images of pages in LRU order, the cache is reset if pages or scale changed.
+   */
+  private final Map<PrintPage, BufferedImage> pageImages = new LinkedHashMap<>(16, 0.75f, true);
+  private final Set<PrintPage> requestedPages = new HashSet<>();
+  private final Set<PrintPage> visiblePages = new HashSet<>();
+  private long cachedBytes;
+  private final AtomicLong cacheGeneration = new AtomicLong();
+  private PrintPage[][] cachedPages;
+  private double cachedScale;
+
   public Pages(final MMDPrintPanel parent) {
     this.parent = parent;
   }
@@ -70,6 +109,103 @@ class Pages extends JPanel {
     return this.getPreferredSize();
   }
 
+  private static double findDeviceScale(final Graphics2D gfx) {
+    final AffineTransform transform = gfx.getDeviceConfiguration() == null ? null
+        : gfx.getDeviceConfiguration().getDefaultTransform();
+    return transform == null ? 1.0d : Math.max(1.0d, transform.getScaleX());
+  }
+
+  private static long findImageBytes(final BufferedImage image) {
+    return (long) image.getWidth() * image.getHeight() * 4L;
+  }
+
+  /**
+   * Put rendered page image into cache and evict least recently used images while total size
+   * is over the limit, images of currently visible pages are not evicted to avoid repeated
+   * rendering of them.
+   *
+   * @param page  page, must not be null
+   * @param image rendered image of the page, must not be null
+   */
+  private void putPageImage(final PrintPage page, final BufferedImage image) {
+    final BufferedImage previous = this.pageImages.put(page, image);
+    if (previous != null) {
+      this.cachedBytes -= findImageBytes(previous);
+    }
+    this.cachedBytes += findImageBytes(image);
+
+    final Iterator<Map.Entry<PrintPage, BufferedImage>> iterator =
+        this.pageImages.entrySet().iterator();
+    while (this.cachedBytes > MAX_CACHED_BYTES && iterator.hasNext()) {
+      final Map.Entry<PrintPage, BufferedImage> entry = iterator.next();
+      if (entry.getKey() != page && !this.visiblePages.contains(entry.getKey())) {
+        this.cachedBytes -= findImageBytes(entry.getValue());
+        this.requestedPages.remove(entry.getKey());
+        iterator.remove();
+      }
+    }
+  }
+
+  private void resetCacheIfChanged(final PrintPage[][] pages, final double scale) {
+    if (this.cachedPages != pages || Double.compare(this.cachedScale, scale) != 0) {
+      this.cachedPages = pages;
+      this.cachedScale = scale;
+      this.pageImages.clear();
+      this.requestedPages.clear();
+      this.cachedBytes = 0L;
+      this.cacheGeneration.incrementAndGet();
+    }
+  }
+
+  private void requestPageImage(final PrintPage page, final PageFormat pageFormat,
+                                final double renderScale, final Rectangle repaintArea) {
+    if (!this.requestedPages.add(page)) {
+      return;
+    }
+    final long generation = this.cacheGeneration.get();
+    final int width = Math.max(1, (int) Math.ceil(pageFormat.getImageableWidth() * renderScale));
+    final int height =
+        Math.max(1, (int) Math.ceil(pageFormat.getImageableHeight() * renderScale));
+
+    RENDER_EXECUTOR.submit(() -> {
+      if (this.cacheGeneration.get() != generation) {
+        return;
+      }
+      BufferedImage image = null;
+      try {
+        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        final Graphics2D gfx = image.createGraphics();
+        try {
+          gfx.setColor(Color.WHITE);
+          gfx.fillRect(0, 0, width, height);
+          gfx.scale(renderScale, renderScale);
+          gfx.clip(new Rectangle2D.Double(0.0d, 0.0d, pageFormat.getImageableWidth(),
+              pageFormat.getImageableHeight()));
+          page.print(gfx);
+        } finally {
+          gfx.dispose();
+        }
+      } catch (Throwable ex) {
+        // errors like out of memory must not leave the page requested forever
+        LOGGER.error("Can't render preview of page", ex);
+        image = null;
+      }
+      final BufferedImage result = image;
+      SwingUtilities.invokeLater(() -> {
+        if (this.cacheGeneration.get() != generation) {
+          return;
+        }
+        if (result == null) {
+          // page will be requested again by next paint
+          this.requestedPages.remove(page);
+        } else {
+          this.putPageImage(page, result);
+          this.repaint(repaintArea);
+        }
+      });
+    });
+  }
+
   @Override
   public void paint(final Graphics g) {
     final Graphics2D gfx = (Graphics2D) g;
@@ -81,6 +217,12 @@ class Pages extends JPanel {
     final PageFormat thePageFormat = this.parent.getPageFormat();
 
     final PrintPage[][] allPages = this.parent.getPages();
+    this.resetCacheIfChanged(allPages, scale);
+    this.visiblePages.clear();
+
+    final double renderScale = scale * findDeviceScale(gfx);
+    final Rectangle visibleArea = gfx.getClipBounds() == null
+        ? new Rectangle(0, 0, size.width, size.height) : gfx.getClipBounds();
 
     final double PAGE_WIDTH = thePageFormat.getWidth();
     final double PAGE_HEIGHT = thePageFormat.getHeight();
@@ -104,33 +246,48 @@ class Pages extends JPanel {
     for (final PrintPage[] pages : allPages) {
       int x = INTERVAL_X;
       for (final PrintPage p : pages) {
-        gfx.translate(x, y);
-
-        gfx.setColor(SHADOW);
-        pageBack.setRect(SHADOW_X, SHADOW_Y, pageBack.getWidth(), pageBack.getHeight());
-        gfx.fill(pageBack);
-        gfx.setColor(Color.WHITE);
-        pageBack.setRect(0.0d, 0.0d, pageBack.getWidth(), pageBack.getHeight());
-        gfx.fill(pageBack);
-
-        gfx.translate(AREA_X, AREA_Y);
-
-        final Graphics2D gfxCopy = (Graphics2D) gfx.create();
-        gfxCopy.clip(pageArea);
-        p.print(gfxCopy);
-        gfxCopy.dispose();
-
-        if (drawBorder) {
-          final Stroke oldStroke = gfx.getStroke();
-          gfx.setColor(MMDPrintPanel.BORDER_COLOR);
-          gfx.setStroke(MMDPrintPanel.BORDER_STYLE);
-          gfx.draw(pageArea);
-          gfx.setStroke(oldStroke);
-        }
+        final Rectangle pageOnScreen = new Rectangle(
+            (int) Math.floor(x * scale), (int) Math.floor(y * scale),
+            (int) Math.ceil((PAGE_WIDTH + SHADOW_X) * scale) + 1,
+            (int) Math.ceil((PAGE_HEIGHT + SHADOW_Y) * scale) + 1);
+
+        if (pageOnScreen.intersects(visibleArea)) {
+          this.visiblePages.add(p);
+          gfx.translate(x, y);
+
+          gfx.setColor(SHADOW);
+          pageBack.setRect(SHADOW_X, SHADOW_Y, pageBack.getWidth(), pageBack.getHeight());
+          gfx.fill(pageBack);
+          gfx.setColor(Color.WHITE);
+          pageBack.setRect(0.0d, 0.0d, pageBack.getWidth(), pageBack.getHeight());
+          gfx.fill(pageBack);
 
-        gfx.translate(-AREA_X, -AREA_Y);
+          gfx.translate(AREA_X, AREA_Y);
 
-        gfx.translate(-x, -y);
+          final BufferedImage pageImage = this.pageImages.get(p);
+          if (pageImage == null) {
+            gfx.setColor(PLACEHOLDER_COLOR);
+            gfx.fill(pageArea);
+            this.requestPageImage(p, thePageFormat, renderScale, pageOnScreen);
+          } else {
+            final Graphics2D gfxCopy = (Graphics2D) gfx.create();
+            gfxCopy.scale(1.0d / renderScale, 1.0d / renderScale);
+            gfxCopy.drawImage(pageImage, 0, 0, null);
+            gfxCopy.dispose();
+          }
+
+          if (drawBorder) {
+            final Stroke oldStroke = gfx.getStroke();
+            gfx.setColor(MMDPrintPanel.BORDER_COLOR);
+            gfx.setStroke(MMDPrintPanel.BORDER_STYLE);
+            gfx.draw(pageArea);
+            gfx.setStroke(oldStroke);
+          }
+
+          gfx.translate(-AREA_X, -AREA_Y);
+
+          gfx.translate(-x, -y);
+        }
         x += INTERVAL_X + PAGE_WIDTH;
       }
       y += INTERVAL_Y + PAGE_HEIGHT;
@@ -0,0 +1,364 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.mindmap.swing.batch;
+
+import static java.util.Objects.requireNonNull;
+
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.logger.Logger;
+import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
+import com.igormaznitsa.mindmap.plugins.exporters.SVGImageExporter;
+import com.igormaznitsa.mindmap.swing.panel.MindMapPanel;
+import com.igormaznitsa.mindmap.swing.panel.MindMapPanelConfig;
+import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics;
+import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics2DWrapper;
+import com.igormaznitsa.mindmap.swing.panel.utils.MindMapUtils;
+import com.igormaznitsa.mindmap.swing.panel.utils.RenderQuality;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Engine to render mind maps into images without any UI, it doesn't need plugin context and
+ * can work in headless mode. Files are processed by pool of worker threads, every worker thread
+ * has one layout context (measuring graphics and configuration copy) reused for all its files,
+ * contexts are disposed when the pool is shut down. PNG images are written band by band, so that
+ * big maps don't need a buffered image of the whole map.
+ *
+ * @see BatchMindMapRendererCli
+ * @since 1.6.6
+ */
+public final class BatchMindMapRenderer {
+
+  public static final String MMD_EXTENSION = ".mmd";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BatchMindMapRenderer.class);
+
+  private final MindMapPanelConfig config;
+  private final Set<Format> formats;
+  private final boolean expandAll;
+  private final int threads;
+
+  /**
+   * Constructor.
+   *
+   * @param config    configuration to render maps, must not be null, it is copied
+   * @param threads   number of worker threads, must be 1 or greater
+   * @param expandAll true if all collapsed topics should be expanded
+   * @param formats   formats to be generated for every map, must not be empty
+   */
+  public BatchMindMapRenderer(final MindMapPanelConfig config, final int threads,
+                              final boolean expandAll, final Set<Format> formats) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Number of threads must be greater than zero");
+    }
+    if (formats.isEmpty()) {
+      throw new IllegalArgumentException("Formats must not be empty");
+    }
+    this.config = new MindMapPanelConfig(requireNonNull(config), false);
+    this.config.setScale(1.0d);
+    this.config.setLevelOfDetailEnabled(false);
+    this.config.setDisplayListCache(false);
+    this.config.setAsyncImageLoading(false);
+    this.threads = threads;
+    this.expandAll = expandAll;
+    this.formats = Collections.unmodifiableSet(EnumSet.copyOf(formats));
+  }
+
+  private static boolean isMindMapFile(final Path path) {
+    return Files.isRegularFile(path)
+        && path.getFileName().toString().toLowerCase(Locale.ENGLISH).endsWith(MMD_EXTENSION);
+  }
+
+  private static String makeBaseName(final Path file) {
+    final String name = file.getFileName().toString();
+    return name.substring(0, name.length() - MMD_EXTENSION.length());
+  }
+
+  public Set<Format> getFormats() {
+    return this.formats;
+  }
+
+  /**
+   * Find all mind map files in source folder and its sub-folders and render them into target
+   * folder keeping relative paths. Errors of single files don't stop processing.
+   *
+   * @param sourceRoot source folder, must not be null
+   * @param targetRoot target folder, must not be null, it is created if needed
+   * @return result of processing
+   * @throws IOException          if it is impossible to scan source folder
+   * @throws InterruptedException if the thread has been interrupted
+   */
+  public Result renderTree(final Path sourceRoot, final Path targetRoot)
+      throws IOException, InterruptedException {
+    final List<Path> files;
+    try (final Stream<Path> stream = Files.walk(sourceRoot)) {
+      files = stream.filter(BatchMindMapRenderer::isMindMapFile).sorted()
+          .collect(Collectors.toList());
+    }
+
+    final Map<Thread, LayoutContext> contexts = new ConcurrentHashMap<>();
+    final AtomicInteger threadCounter = new AtomicInteger();
+    final ExecutorService executor = Executors.newFixedThreadPool(this.threads, runnable -> {
+      final Thread thread =
+          new Thread(runnable, "mmd-batch-render-" + threadCounter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    final Map<Path, Future<?>> tasks = new LinkedHashMap<>();
+    final Map<Path, Exception> errors = new LinkedHashMap<>();
+    int rendered = 0;
+    try {
+      for (final Path file : files) {
+        final Path targetFolder = targetRoot.resolve(sourceRoot.relativize(file)).getParent();
+        tasks.put(file, executor.submit(() -> {
+          this.renderFile(file, targetFolder, contexts.computeIfAbsent(Thread.currentThread(),
+              thread -> new LayoutContext(this.config)));
+          return null;
+        }));
+      }
+
+      for (final Map.Entry<Path, Future<?>> e : tasks.entrySet()) {
+        try {
+          e.getValue().get();
+          rendered++;
+        } catch (ExecutionException ex) {
+          final Exception cause =
+              ex.getCause() instanceof Exception ? (Exception) ex.getCause() : ex;
+          LOGGER.error("Can't render " + e.getKey(), cause);
+          errors.put(e.getKey(), cause);
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+      try {
+        // contexts can't be disposed while workers use them
+        while (!executor.awaitTermination(1L, TimeUnit.SECONDS)) {
+          LOGGER.warn("Waiting for termination of render workers");
+        }
+      } finally {
+        contexts.values().forEach(LayoutContext::dispose);
+      }
+    }
+    return new Result(rendered, errors);
+  }
+
+  /**
+   * Render mind map file into target folder in all formats of the renderer. Names of generated
+   * files are made from source file name with replaced extension.
+   *
+   * @param source       source mind map file, must not be null
+   * @param targetFolder target folder, must not be null, it is created if needed
+   * @return list of generated files
+   * @throws IOException if any IO error
+   */
+  public List<Path> renderFile(final Path source, final Path targetFolder) throws IOException {
+    final LayoutContext context = new LayoutContext(this.config);
+    try {
+      return this.renderFile(source, targetFolder, context);
+    } finally {
+      context.dispose();
+    }
+  }
+
+  private List<Path> renderFile(final Path source, final Path targetFolder,
+                                final LayoutContext context) throws IOException {
+    final MindMap map;
+    try (final Reader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+      map = new MindMap(reader);
+    }
+
+    Files.createDirectories(targetFolder);
+    final String baseName = makeBaseName(source);
+    final List<Path> result = new ArrayList<>();
+    for (final Format format : this.formats) {
+      final Path target = targetFolder.resolve(baseName + '.' + format.getExtension());
+      switch (format) {
+        case PNG: {
+          final boolean written;
+          try (final OutputStream out = new BufferedOutputStream(Files.newOutputStream(target))) {
+            // workers of the batch already load all processors, so bands are rendered in place
+            written = MindMapPanel.writeMindMapAsPng(map, context.config, this.expandAll,
+                RenderQuality.QUALITY, out, 1);
+          }
+          if (!written) {
+            Files.deleteIfExists(target);
+            throw new IOException("Can't render image for " + source);
+          }
+        }
+        break;
+        case SVG: {
+          try (final Writer writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            SVGImageExporter.writeSvg(map, new MindMapPanelConfig(context.config, false),
+                this.expandAll, writer);
+          }
+        }
+        break;
+        default:
+          throw new Error("Unexpected format: " + format);
+      }
+      result.add(target);
+    }
+    return result;
+  }
+
+  /**
+   * Render mind map as image.
+   *
+   * @param model mind map to be rendered, must not be null, it is not changed
+   * @return rendered image or null if map is empty
+   */
+  public BufferedImage renderAsImage(final MindMap model) {
+    final LayoutContext context = new LayoutContext(this.config);
+    try {
+      return this.renderAsImage(model, context);
+    } finally {
+      context.dispose();
+    }
+  }
+
+  private BufferedImage renderAsImage(final MindMap model, final LayoutContext context) {
+    final MindMap workMap = model.makeCopy();
+    workMap.clearAllPayloads();
+    if (this.expandAll) {
+      MindMapUtils.removeCollapseAttr(workMap);
+    }
+
+    final MMGraphics measurer = context.gfx.copy();
+    final Dimension size;
+    try {
+      size = MindMapPanel.layoutFullDiagramWithCenteringToPaper(measurer, workMap,
+          context.config, new Dimension());
+    } finally {
+      measurer.dispose();
+    }
+    if (size == null || size.width <= 0 || size.height <= 0) {
+      return null;
+    }
+
+    final BufferedImage result =
+        new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_ARGB);
+    final Graphics2D g = result.createGraphics();
+    final MMGraphics gfx = new MMGraphics2DWrapper(g);
+    try {
+      RenderQuality.QUALITY.prepare(g);
+      gfx.setClip(0, 0, size.width, size.height);
+      MindMapPanel.drawOnGraphicsForConfiguration(gfx, context.config, workMap, false, null);
+    } finally {
+      gfx.dispose();
+    }
+    return result;
+  }
+
+  /**
+   * Supported output formats.
+   */
+  public enum Format {
+    PNG("png"),
+    SVG("svg");
+
+    private final String extension;
+
+    Format(final String extension) {
+      this.extension = extension;
+    }
+
+    public static Format findForName(final String name) {
+      for (final Format f : values()) {
+        if (f.name().equalsIgnoreCase(name.trim())) {
+          return f;
+        }
+      }
+      throw new IllegalArgumentException("Unsupported format: " + name);
+    }
+
+    public String getExtension() {
+      return this.extension;
+    }
+  }
+
+  /**
+   * Result of batch processing.
+   */
+  public static final class Result {
+    private final int rendered;
+    private final Map<Path, Exception> errors;
+
+    private Result(final int rendered, final Map<Path, Exception> errors) {
+      this.rendered = rendered;
+      this.errors = Collections.unmodifiableMap(errors);
+    }
+
+    public int getRendered() {
+      return this.rendered;
+    }
+
+    public Map<Path, Exception> getErrors() {
+      return this.errors;
+    }
+
+    public boolean isSuccessful() {
+      return this.errors.isEmpty();
+    }
+  }
+
+  /**
+   * Layout context of worker thread, it can be used by only one thread and must be disposed
+   * after use.
+   */
+  private static final class LayoutContext {
+    private final MindMapPanelConfig config;
+    private final MMGraphics gfx;
+
+    private LayoutContext(final MindMapPanelConfig config) {
+      this.config = new MindMapPanelConfig(config, false);
+      final Graphics2D graphics =
+          new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+      RenderQuality.QUALITY.prepare(graphics);
+      this.gfx = new MMGraphics2DWrapper(graphics);
+    }
+
+    private void dispose() {
+      this.gfx.dispose();
+    }
+  }
+}
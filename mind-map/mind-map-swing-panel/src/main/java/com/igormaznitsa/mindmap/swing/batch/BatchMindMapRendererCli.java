@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.mindmap.swing.batch;
+
+import com.igormaznitsa.mindmap.swing.panel.MindMapPanelConfig;
+import com.igormaznitsa.mindmap.swing.panel.utils.PropertiesPreferences;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command line entry point to render directory trees of mind maps into images.
+ * <pre>
+ * java -cp ... com.igormaznitsa.mindmap.swing.batch.BatchMindMapRendererCli
+ *    --in &lt;folder&gt; --out &lt;folder&gt; [--format png,svg] [--threads N]
+ *    [--config file.properties] [--keep-collapsed] [--no-background]
+ * </pre>
+ * The class works in headless mode.
+ *
+ * @since 1.6.6
+ */
+public final class BatchMindMapRendererCli {
+
+  private BatchMindMapRendererCli() {
+  }
+
+  public static void main(final String... args) {
+    System.setProperty("java.awt.headless", "true");
+    System.exit(execute(System.out, System.err, args));
+  }
+
+  private static void printUsage(final PrintStream out) {
+    out.println("Usage: --in <folder> --out <folder> [--format png,svg] [--threads N]"
+        + " [--config file.properties] [--keep-collapsed] [--no-background]");
+  }
+
+  /**
+   * Parse arguments and execute batch rendering.
+   *
+   * @param out  stream for messages, must not be null
+   * @param err  stream for errors, must not be null
+   * @param args command line arguments
+   * @return exit code, 0 if all maps are rendered successfully
+   */
+  static int execute(final PrintStream out, final PrintStream err, final String... args) {
+    Path in = null;
+    Path target = null;
+    Path configFile = null;
+    Set<BatchMindMapRenderer.Format> formats = EnumSet.of(BatchMindMapRenderer.Format.PNG);
+    int threads = Runtime.getRuntime().availableProcessors();
+    boolean expandAll = true;
+    boolean drawBackground = true;
+
+    try {
+      for (int i = 0; i < args.length; i++) {
+        final String arg = args[i];
+        switch (arg) {
+          case "--in":
+            in = Paths.get(args[++i]);
+            break;
+          case "--out":
+            target = Paths.get(args[++i]);
+            break;
+          case "--config":
+            configFile = Paths.get(args[++i]);
+            break;
+          case "--threads":
+            threads = Integer.parseInt(args[++i]);
+            break;
+          case "--format": {
+            formats = EnumSet.noneOf(BatchMindMapRenderer.Format.class);
+            for (final String f : args[++i].split(",")) {
+              formats.add(BatchMindMapRenderer.Format.findForName(f));
+            }
+          }
+          break;
+          case "--keep-collapsed":
+            expandAll = false;
+            break;
+          case "--no-background":
+            drawBackground = false;
+            break;
+          default:
+            throw new IllegalArgumentException("Unknown argument: " + arg);
+        }
+      }
+    } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException ex) {
+      err.println(ex instanceof ArrayIndexOutOfBoundsException ? "Missing argument value"
+          : ex.getMessage());
+      printUsage(err);
+      return 1;
+    }
+
+    if (in == null || target == null || !Files.isDirectory(in)) {
+      err.println("Source folder and target folder must be provided");
+      printUsage(err);
+      return 1;
+    }
+
+    try {
+      final MindMapPanelConfig config = new MindMapPanelConfig();
+      if (configFile != null) {
+        config.loadFrom(new PropertiesPreferences("SciaReto",
+            new String(Files.readAllBytes(configFile), StandardCharsets.UTF_8)));
+      }
+      config.setDrawBackground(drawBackground);
+
+      final long start = System.currentTimeMillis();
+      final BatchMindMapRenderer.Result result =
+          new BatchMindMapRenderer(config, threads, expandAll, formats).renderTree(in, target);
+      out.printf("Rendered %d map(s) in %d ms%n", result.getRendered(),
+          System.currentTimeMillis() - start);
+      for (final Map.Entry<Path, Exception> e : result.getErrors().entrySet()) {
+        err.printf("Error: %s : %s%n", e.getKey(), e.getValue().getMessage());
+      }
+      return result.isSuccessful() ? 0 : 2;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      err.println("Interrupted");
+      return 3;
+    } catch (Exception ex) {
+      err.println("Error: " + ex.getMessage());
+      return 3;
+    }
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.swing.panel;
+
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.logger.Logger;
+import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
+import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics2DWrapper;
+import com.igormaznitsa.mindmap.swing.panel.utils.MetricsRecorder;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.geom.Dimension2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import javax.swing.SwingUtilities;
+
+/**
+ * Processor makes measuring and layout of mind map elements in a worker thread.
+ * Every request gets new generation number and all previous requests become stale, only result of
+ * the last request is published in the Swing dispatch thread.
+ *
+ * @since 1.6.6
+ */
+final class BackgroundLayoutProcessor {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BackgroundLayoutProcessor.class);
+
+  private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+  private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+      Math.max(1, Runtime.getRuntime().availableProcessors() / 2), runnable -> {
+        final Thread thread =
+            new Thread(runnable, "mmd-layout-worker-" + THREAD_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+      });
+
+  private final AtomicLong generation = new AtomicLong();
+  private final AtomicReference<Future<?>> activeTask = new AtomicReference<>();
+
+  private static Graphics2D makeMeasuringGraphics(final MindMapPanelConfig config,
+                                                  final FontRenderContext fontRenderContext) {
+    final Graphics2D result =
+        new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+    config.getRenderQuality().prepare(result);
+    if (fontRenderContext != null) {
+      result.setTransform(fontRenderContext.getTransform());
+      result.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+          fontRenderContext.getAntiAliasingHint());
+      result.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS,
+          fontRenderContext.getFractionalMetricsHint());
+    }
+    return result;
+  }
+
+  /**
+   * Make all started and queued layouts stale.
+   *
+   * @return new generation number
+   */
+  long cancel() {
+    final long result = this.generation.incrementAndGet();
+    final Future<?> previous = this.activeTask.getAndSet(null);
+    if (previous != null) {
+      previous.cancel(true);
+    }
+    return result;
+  }
+
+  /**
+   * Check that there is a layout which is not published yet.
+   *
+   * @return true if there is a layout in progress, false otherwise
+   */
+  boolean isActive() {
+    return this.activeTask.get() != null;
+  }
+
+  /**
+   * Start layout of mind map snapshot. The snapshot must be made in the thread which changes the
+   * source mind map and must not be shared with any other component, so that the worker thread
+   * never touches the source. The publisher must check that the source was not changed since the
+   * request.
+   *
+   * @param snapshot          detached copy of mind map, must not be null
+   * @param config            detached copy of configuration, must not be null
+   * @param fontRenderContext font render context of target component, can be null
+   * @param pageSize          size of visible area to center diagram, must not be null
+   * @param collectMetrics    flag to collect layout metrics
+   * @param publisher         consumer to get laid out snapshot and its size, called in Swing
+   *                          dispatch thread only if there is no newer request
+   * @see #cancel()
+   */
+  void submit(final MindMap snapshot,
+              final MindMapPanelConfig config,
+              final FontRenderContext fontRenderContext,
+              final Dimension2D pageSize,
+              final boolean collectMetrics,
+              final LayoutPublisher publisher) {
+    final long taskGeneration = this.cancel();
+    final BooleanSupplier stale = () -> Thread.currentThread().isInterrupted()
+        || this.generation.get() != taskGeneration;
+
+    final Future<?> future = EXECUTOR.submit(() -> {
+      if (stale.getAsBoolean()) {
+        return;
+      }
+      final Graphics2D gfx = makeMeasuringGraphics(config, fontRenderContext);
+      MetricsRecorder recorder = collectMetrics
+          ? new MetricsRecorder(MindMapPanelMetrics.FrameType.LAYOUT).activate() : null;
+      try {
+        final Dimension size = MindMapPanel.layoutFullDiagramWithCenteringToPaper(
+            new MMGraphics2DWrapper(gfx), snapshot, config, pageSize, stale);
+        final MindMapPanelMetrics metrics = recorder == null ? null : recorder.finish();
+        recorder = null;
+        if (size != null && !stale.getAsBoolean()) {
+          SwingUtilities.invokeLater(() -> {
+            if (this.generation.get() == taskGeneration) {
+              this.activeTask.set(null);
+              publisher.publish(snapshot, size, metrics);
+            }
+          });
+        }
+      } catch (Exception ex) {
+        LOGGER.error("Error during background layout", ex);
+      } finally {
+        if (recorder != null) {
+          recorder.finish();
+        }
+        gfx.dispose();
+      }
+    });
+
+    this.activeTask.set(future);
+  }
+
+  /**
+   * Consumer of background layout result.
+   */
+  @FunctionalInterface
+  interface LayoutPublisher {
+    /**
+     * Called in Swing dispatch thread to publish result of layout.
+     *
+     * @param snapshot laid out snapshot of mind map, must not be null
+     * @param size     size of laid out diagram, must not be null
+     * @param metrics  collected layout metrics, can be null if not requested
+     */
+    void publish(MindMap snapshot, Dimension size, MindMapPanelMetrics metrics);
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.swing.panel;
+
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.Topic;
+import com.igormaznitsa.mindmap.model.logger.Logger;
+import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+
+/**
+ * Processor reads and prepares pasted topics in a worker thread. Prepared topics belong to the
+ * target map but are not attached to any parent, so that they don't change the model and only
+ * adding them to the tree must be made in the Swing dispatch thread. Every request makes all
+ * previous requests stale.
+ *
+ * @since 1.6.6
+ */
+final class BackgroundPasteProcessor {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BackgroundPasteProcessor.class);
+
+  private static final long PROGRESS_INTERVAL_MS = 100L;
+
+  private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+  private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+    final Thread thread =
+        new Thread(runnable, "mmd-paste-worker-" + THREAD_COUNTER.incrementAndGet());
+    thread.setDaemon(true);
+    thread.setPriority(Thread.NORM_PRIORITY - 1);
+    return thread;
+  });
+
+  private final AtomicLong generation = new AtomicLong();
+  private final AtomicReference<Future<?>> activeTask = new AtomicReference<>();
+
+  private static int countTopics(final Topic topic) {
+    int result = 1;
+    for (final Topic c : topic.getChildren()) {
+      result += countTopics(c);
+    }
+    return result;
+  }
+
+  /**
+   * Make all started and queued requests stale.
+   */
+  void cancel() {
+    this.generation.incrementAndGet();
+    final Future<?> previous = this.activeTask.getAndSet(null);
+    if (previous != null) {
+      previous.cancel(true);
+    }
+  }
+
+  /**
+   * Check that there is a request which is not published yet.
+   *
+   * @return true if there is a paste in progress, false otherwise
+   */
+  boolean isActive() {
+    return this.activeTask.get() != null;
+  }
+
+  /**
+   * Start preparation of pasted topics.
+   *
+   * @param reader    reader of pasted topics, called in worker thread, can return null if there
+   *                  is nothing to paste, must not be null
+   * @param target    map of prepared topics, must not be null
+   * @param copies    number of copies of pasted topics, one for every target parent
+   * @param progress  listener of progress, called in Swing dispatch thread, can be null
+   * @param publisher consumer of prepared topics grouped by copies, gets null if nothing to
+   *                  paste, called in Swing dispatch thread only if there is no newer request
+   */
+  void submit(final Callable<Topic[]> reader,
+              final MindMap target,
+              final int copies,
+              final ProgressListener progress,
+              final Consumer<Topic[][]> publisher) {
+    this.cancel();
+    final long taskGeneration = this.generation.get();
+    final BooleanSupplier stale = () -> Thread.currentThread().isInterrupted()
+        || this.generation.get() != taskGeneration;
+
+    final Future<?> future = EXECUTOR.submit(() -> {
+      if (stale.getAsBoolean()) {
+        return;
+      }
+      Topic[][] result = null;
+      try {
+        final Topic[] pasted = reader.call();
+        if (pasted != null && pasted.length > 0) {
+          final int[] sizes = new int[pasted.length];
+          int total = 0;
+          for (int i = 0; i < pasted.length; i++) {
+            sizes[i] = countTopics(pasted[i]);
+            total += sizes[i];
+          }
+          total *= copies;
+
+          result = new Topic[copies][pasted.length];
+          int prepared = 0;
+          long lastProgress = System.currentTimeMillis();
+          for (int c = 0; c < copies; c++) {
+            for (int i = 0; i < pasted.length; i++) {
+              if (stale.getAsBoolean()) {
+                return;
+              }
+              result[c][i] = new Topic(target, pasted[i], true);
+              prepared += sizes[i];
+              final long now = System.currentTimeMillis();
+              if (progress != null && now - lastProgress >= PROGRESS_INTERVAL_MS) {
+                lastProgress = now;
+                final int preparedTopics = prepared;
+                final int totalTopics = total;
+                SwingUtilities.invokeLater(() -> {
+                  if (this.generation.get() == taskGeneration) {
+                    progress.onProgress(preparedTopics, totalTopics);
+                  }
+                });
+              }
+            }
+          }
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (Exception ex) {
+        LOGGER.error("Can't prepare pasted topics", ex);
+        result = null;
+      }
+
+      if (!stale.getAsBoolean()) {
+        final Topic[][] prepared = result;
+        SwingUtilities.invokeLater(() -> {
+          if (this.generation.get() == taskGeneration) {
+            this.activeTask.set(null);
+            publisher.accept(prepared);
+          }
+        });
+      }
+    });
+
+    this.activeTask.set(future);
+  }
+
+  /**
+   * Listener of preparation progress.
+   */
+  @FunctionalInterface
+  interface ProgressListener {
+    /**
+     * Called in Swing dispatch thread to notify about prepared topics.
+     *
+     * @param preparedTopics number of prepared topics
+     * @param totalTopics    total number of topics to be prepared
+     */
+    void onProgress(int preparedTopics, int totalTopics);
+  }
+}
@@ -16,36 +16,49 @@
 
 package com.igormaznitsa.mindmap.swing.panel;
 
+import com.igormaznitsa.mindmap.model.MindMap;
 import com.igormaznitsa.mindmap.model.Topic;
 import com.igormaznitsa.mindmap.swing.panel.ui.AbstractElement;
+import com.igormaznitsa.mindmap.swing.panel.utils.LevelOfDetail;
+import com.igormaznitsa.mindmap.swing.panel.utils.MetricsRecorder;
+import java.awt.AlphaComposite;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
 import java.awt.event.MouseEvent;
+import java.awt.geom.Line2D;
 import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
 import java.util.function.Consumer;
 import javax.swing.JViewport;
 
 public class InMapBirdsEye implements BirdsEyeVisualizer {
-  private final Rectangle2D page;
-  private final Rectangle2D view;
-  private final double scale;
+  private final Rectangle2D page = new Rectangle2D.Double();
+  private final Rectangle2D view = new Rectangle2D.Double();
+  private double scale;
   private final MindMapPanel panel;
 
+  private BufferedImage thumbnail;
+  private Object[] thumbnailKey;
+
   public InMapBirdsEye(final MindMapPanel panel) {
     this.panel = panel;
+    this.updateGeometry();
+  }
 
+  private void updateGeometry() {
     final Rectangle viewRectangle;
 
-    if (panel.getParent() instanceof JViewport) {
-      viewRectangle = ((JViewport) panel.getParent()).getViewRect();
+    if (this.panel.getParent() instanceof JViewport) {
+      viewRectangle = ((JViewport) this.panel.getParent()).getViewRect();
     } else {
-      viewRectangle = new Rectangle(0, 0, panel.getWidth(), panel.getHeight());
+      viewRectangle = new Rectangle(0, 0, this.panel.getWidth(), this.panel.getHeight());
     }
 
-    final Dimension docSize = panel.getSize();
+    final Dimension docSize = this.panel.getSize();
 
     final Dimension eyeBirdAreaSize =
         new Dimension(viewRectangle.width / 3, viewRectangle.height / 3);
@@ -59,40 +72,78 @@ public class InMapBirdsEye implements BirdsEyeVisualizer {
     final int x = viewRectangle.x + (viewRectangle.width - docSize.width) / 2;
     final int y = viewRectangle.y + (viewRectangle.height - docSize.height) / 2;
 
-    this.page = new Rectangle2D.Double(x, y, docSize.width, docSize.height);
-    this.view =
-        new Rectangle2D.Double(x + viewRectangle.x * scale, y + viewRectangle.y * this.scale,
-            viewRectangle.width * this.scale, viewRectangle.height * this.scale);
+    this.page.setRect(x, y, docSize.width, docSize.height);
+    this.view.setRect(x + viewRectangle.x * scale, y + viewRectangle.y * this.scale,
+        viewRectangle.width * this.scale, viewRectangle.height * this.scale);
   }
 
   @Override
   public void draw(final MindMapPanel panel, final Graphics2D panelGraphics) {
-    panelGraphics.setColor(Color.WHITE);
+    this.updateGeometry();
 
-    final Color back = this.panel.getConfiguration().getBirdseyeBackground();
-
-    final Color front = this.panel.getConfiguration().getBirdseyeFront();
+    final MindMapPanelConfig config = this.panel.getConfiguration();
+    final Color back = config.getBirdseyeBackground();
+    final Color front = config.getBirdseyeFront();
 
     panelGraphics.setStroke(new BasicStroke(1.0f));
 
-    if (this.panel.getConfiguration().isDropShadow()) {
-      panelGraphics.setColor(this.panel.getConfiguration().getShadowColor());
+    if (config.isDropShadow()) {
+      panelGraphics.setColor(config.getShadowColor());
       panelGraphics.fill(
           new Rectangle2D.Double(this.page.getX() + 16, this.page.getY() + 16, this.page.getWidth(),
               this.page.getHeight()));
     }
 
-    panelGraphics.setColor(back);
-    panelGraphics.fill(page);
+    final double deviceScale = Math.max(1.0d, panelGraphics.getTransform().getScaleX());
+    final int thumbnailWidth = (int) Math.ceil(this.page.getWidth() * deviceScale);
+    final int thumbnailHeight = (int) Math.ceil(this.page.getHeight() * deviceScale);
 
-    panelGraphics.setColor(front);
+    if (thumbnailWidth > 0 && thumbnailHeight > 0) {
+      final Object[] key = new Object[] {this.panel.getModel(), this.panel.getLayoutVersion(),
+          thumbnailWidth, thumbnailHeight, back, front, config.getScale()};
 
-    this.drawTopicsTree(this.panel.getModel().getRoot(), panelGraphics);
+      final boolean cached = this.thumbnail != null && Arrays.equals(key, this.thumbnailKey);
+      MetricsRecorder.recordCacheAccess("birdseye", cached);
+      if (!cached) {
+        this.thumbnail = this.makeThumbnail(thumbnailWidth, thumbnailHeight,
+            thumbnailWidth / Math.max(1.0d, this.page.getWidth()), back, front, config);
+        this.thumbnailKey = key;
+      }
+      panelGraphics.drawImage(this.thumbnail, (int) Math.round(this.page.getX()),
+          (int) Math.round(this.page.getY()), (int) Math.round(this.page.getWidth()),
+          (int) Math.round(this.page.getHeight()), null);
+    }
 
     panelGraphics.setColor(back);
-    panelGraphics.fill(view);
+    panelGraphics.fill(this.view);
     panelGraphics.setColor(front);
-    panelGraphics.draw(view);
+    panelGraphics.draw(this.view);
+  }
+
+  private BufferedImage makeThumbnail(final int width, final int height,
+                                      final double imageScale, final Color back,
+                                      final Color front, final MindMapPanelConfig config) {
+    final BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    final Graphics2D gfx = result.createGraphics();
+    try {
+      config.getRenderQuality().prepare(gfx);
+      gfx.setComposite(AlphaComposite.Src);
+      gfx.setColor(back);
+      gfx.fillRect(0, 0, width, height);
+      gfx.setComposite(AlphaComposite.SrcOver);
+      gfx.scale(imageScale, imageScale);
+      gfx.setStroke(new BasicStroke(1.0f));
+      gfx.setColor(front);
+
+      final LevelOfDetail levelOfDetail = config.findLevelOfDetail(config.getScale() * this.scale);
+      final MindMap model = this.panel.getModel();
+      if (model != null) {
+        this.drawTopicsTree(model.getRoot(), gfx, levelOfDetail != LevelOfDetail.SKELETON);
+      }
+    } finally {
+      gfx.dispose();
+    }
+    return result;
   }
 
   private boolean isMouseOverPageThumbnail(final MouseEvent mouseEvent) {
@@ -102,6 +153,7 @@ public class InMapBirdsEye implements BirdsEyeVisualizer {
   @Override
   public void onPanelMouseDragging(final MindMapPanel panel, final MouseEvent mouseEvent,
                                    final Consumer<Rectangle2D> calculatedRectangleConsumer) {
+    this.updateGeometry();
     if (calculatedRectangleConsumer != null && this.isMouseOverPageThumbnail(mouseEvent)) {
       double dx = Math.max(0.0d, (mouseEvent.getX() - this.page.getX()) - this.view.getWidth() / 2);
       double dy =
@@ -121,27 +173,37 @@ public class InMapBirdsEye implements BirdsEyeVisualizer {
   }
 
 
-  private void drawTopicsTree(final Topic topic, final Graphics2D graphics2D) {
+  private void drawTopicsTree(final Topic topic, final Graphics2D graphics2D,
+                              final boolean drawConnectors) {
     if (topic != null) {
       final AbstractElement abstractElement = (AbstractElement) topic.getPayload();
-      final Rectangle2D rectangle = findScaledBoundsOnPage(abstractElement);
+      final Rectangle2D rectangle = findScaledBounds(abstractElement);
       if (rectangle != null) {
         graphics2D.fill(rectangle);
         if (abstractElement.isCollapsed()) {
           return;
         }
-        topic.getChildren().forEach(t -> this.drawTopicsTree(t, graphics2D));
+        for (final Topic child : topic.getChildren()) {
+          if (drawConnectors) {
+            final Rectangle2D childRectangle =
+                findScaledBounds((AbstractElement) child.getPayload());
+            if (childRectangle != null) {
+              graphics2D.draw(new Line2D.Double(rectangle.getCenterX(), rectangle.getCenterY(),
+                  childRectangle.getCenterX(), childRectangle.getCenterY()));
+            }
+          }
+          this.drawTopicsTree(child, graphics2D, drawConnectors);
+        }
       }
     }
   }
 
-  private Rectangle2D findScaledBoundsOnPage(final AbstractElement abstractElement) {
+  private Rectangle2D findScaledBounds(final AbstractElement abstractElement) {
     Rectangle2D result = null;
     if (abstractElement != null) {
       final Rectangle2D bounds = abstractElement.getBounds();
-      result = new Rectangle2D.Double(this.page.getX() + bounds.getX() * this.scale,
-          this.page.getY() + bounds.getY() * this.scale, bounds.getWidth() * this.scale,
-          bounds.getHeight() * this.scale);
+      result = new Rectangle2D.Double(bounds.getX() * this.scale, bounds.getY() * this.scale,
+          bounds.getWidth() * this.scale, bounds.getHeight() * this.scale);
     }
     return result;
   }
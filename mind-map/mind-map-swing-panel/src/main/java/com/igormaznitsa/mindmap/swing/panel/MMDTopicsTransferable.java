@@ -20,6 +20,7 @@ import com.igormaznitsa.mindmap.model.Extra;
 import com.igormaznitsa.mindmap.model.ExtraNote;
 import com.igormaznitsa.mindmap.model.ExtraTopic;
 import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.ModelUtils;
 import com.igormaznitsa.mindmap.model.StandardMmdAttributes;
 import com.igormaznitsa.mindmap.model.Topic;
 import com.igormaznitsa.mindmap.swing.ide.IDEBridgeFactory;
@@ -27,6 +28,9 @@ import java.awt.datatransfer.DataFlavor;
 import java.awt.datatransfer.Transferable;
 import java.awt.datatransfer.UnsupportedFlavorException;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -52,107 +56,175 @@ public class MMDTopicsTransferable implements Transferable {
       = new DataFlavor[] {DataFlavor.stringFlavor, MMD_DATA_FLAVOR};
   private static final String END_OF_LINE = System.getProperty("line.separator", "\n");
 
-  private final Topic[] topics;
+  private final TopicState[] states;
+  private Topic[] topics;
+  private String text;
 
+  /**
+   * Constructor. Only light snapshot of topics is made, data for flavors are
+   * generated only when requested.
+   *
+   * @param topics topics to be placed into transferable object
+   */
   public MMDTopicsTransferable(final Topic... topics) {
-    this.topics = new Topic[topics.length];
+    this(captureStates(new TopicStateCapture(null), topics));
+  }
 
-    final MindMap fakeMap = new MindMap(false);
-    fakeMap.putAttribute(StandardMmdAttributes.MMD_ATTRIBUTE_GENERATOR_ID, IDEBridgeFactory.findInstance()
-        .getIDEGeneratorId());
+  /**
+   * Constructor for already captured topic states, the states can be shared
+   * with other captures because they are immutable.
+   *
+   * @param states states of topics to be placed into transferable object
+   * @since 1.6.6
+   */
+  MMDTopicsTransferable(final TopicState[] states) {
+    this.states = states.clone();
+  }
 
+  /**
+   * Capture states of topics.
+   *
+   * @param capture capture to be used, must not be null
+   * @param topics  topics to be captured, must not be null
+   * @return captured states in the same order
+   * @since 1.6.6
+   */
+  static TopicState[] captureStates(final TopicStateCapture capture, final Topic... topics) {
+    final TopicState[] result = new TopicState[topics.length];
     for (int i = 0; i < topics.length; i++) {
-      this.topics[i] = new Topic(fakeMap, topics[i], true);
+      result[i] = capture.capture(topics[i]);
     }
+    return result;
   }
 
-  private static String oneLineTitle(final Topic topic) {
-    return topic.getText().replace("\n", " ").trim();
-  }
-
-  private static String convertTopicToText(final Topic topic, final int level) {
-    final StringBuilder result = new StringBuilder();
-
-    for (int i = 0; i < level; i++) {
-      if (i == level - 1) {
-        result.append("+");
-      } else {
-        result.append('|');
-      }
+  private static void fillUidIndex(final TopicState state,
+                                   final Map<String, TopicState> index) {
+    final String uid = state.attributes.get(ExtraTopic.TOPIC_UID_ATTR);
+    if (uid != null) {
+      index.putIfAbsent(uid, state);
     }
-    final String firstIndentString = result.toString();
-    result.setLength(0);
-
-    for (int i = 0; i < level; i++) {
-      result.append('|');
+    for (final TopicState c : state.children) {
+      fillUidIndex(c, index);
     }
-    final String otherIndentString = result.toString();
-    result.setLength(0);
+  }
 
-    result.append(firstIndentString)
-        .append('[').append(oneLineTitle(topic)).append(']')
-        .append(END_OF_LINE);
+  private static String oneLineTitle(final String text) {
+    return text.replace("\n", " ").trim();
+  }
+
+  private static void writeTopicAsText(
+      final Writer out,
+      final TopicState root,
+      final Map<String, TopicState> uidIndex,
+      final TopicState topic,
+      final int level
+  ) throws IOException {
+    ModelUtils.repeatChar(out, '|', level - 1);
+    out.append("+[").append(oneLineTitle(topic.text)).append(']').append(END_OF_LINE);
 
     boolean hasExtras = false;
-    Topic linkedTopic = null;
-    for (final Map.Entry<Extra.ExtraType, Extra<?>> e : topic.getExtras().entrySet()) {
+    TopicState linkedTopic = null;
+    for (final Map.Entry<Extra.ExtraType, Extra<?>> e : topic.extras.entrySet()) {
       if (e.getKey() == Extra.ExtraType.TOPIC) {
-        final ExtraTopic topicLink = ((ExtraTopic) e.getValue());
-        final Topic root = topic.findRoot();
-        linkedTopic =
-            root.findForAttribute(ExtraTopic.TOPIC_UID_ATTR, topicLink.getValue());
+        if (uidIndex.isEmpty()) {
+          fillUidIndex(root, uidIndex);
+        }
+        linkedTopic = uidIndex.get(((ExtraTopic) e.getValue()).getValue());
       } else {
         hasExtras = true;
       }
     }
 
     if (hasExtras || linkedTopic != null) {
-      result.append(otherIndentString).append("--------------------").append(END_OF_LINE);
+      writeIndent(out, level).append("--------------------").append(END_OF_LINE);
     }
 
-    if (!topic.getExtras().isEmpty()) {
-      for (final Map.Entry<Extra.ExtraType, Extra<?>> e : topic.getExtras().entrySet()) {
-        switch (e.getKey()) {
-          case NOTE: {
-            if (Boolean.parseBoolean(topic.getAttributes().get(ExtraNote.ATTR_ENCRYPTED))) {
-              result.append(otherIndentString).append("<ENCRYPTED NOTE>").append(END_OF_LINE);
-            } else {
-              for (final String s : e.getValue().getAsString().split("\\n")) {
-                result.append(otherIndentString).append(s.trim()).append(END_OF_LINE);
-              }
-            }
-          }
-          break;
-          case TOPIC: {
-            if (linkedTopic != null) {
-              result.append(otherIndentString).append("#(").append(oneLineTitle(linkedTopic))
-                  .append(')')
-                  .append(END_OF_LINE);
+    for (final Map.Entry<Extra.ExtraType, Extra<?>> e : topic.extras.entrySet()) {
+      switch (e.getKey()) {
+        case NOTE: {
+          if (Boolean.parseBoolean(topic.attributes.get(ExtraNote.ATTR_ENCRYPTED))) {
+            writeIndent(out, level).append("<ENCRYPTED NOTE>").append(END_OF_LINE);
+          } else {
+            for (final String s : e.getValue().getAsString().split("\\n")) {
+              writeIndent(out, level).append(s.trim()).append(END_OF_LINE);
             }
           }
-          break;
-          case FILE: {
-            result.append(otherIndentString).append("FILE=").append(e.getValue().getAsString())
-                .append(END_OF_LINE);
-          }
-          break;
-          case LINK: {
-            result.append(otherIndentString).append(e.getValue().getAsString())
+        }
+        break;
+        case TOPIC: {
+          if (linkedTopic != null) {
+            writeIndent(out, level).append("#(").append(oneLineTitle(linkedTopic.text))
+                .append(')')
                 .append(END_OF_LINE);
           }
-          break;
         }
+        break;
+        case FILE: {
+          writeIndent(out, level).append("FILE=").append(e.getValue().getAsString())
+              .append(END_OF_LINE);
+        }
+        break;
+        case LINK: {
+          writeIndent(out, level).append(e.getValue().getAsString())
+              .append(END_OF_LINE);
+        }
+        break;
       }
     }
     if (hasExtras) {
-      result.append(otherIndentString).append("--------------------").append(END_OF_LINE);
+      writeIndent(out, level).append("--------------------").append(END_OF_LINE);
+    }
+    writeIndent(out, level).append(END_OF_LINE);
+    for (final TopicState c : topic.children) {
+      writeTopicAsText(out, root, uidIndex, c, level + 1);
     }
-    result.append(otherIndentString).append(END_OF_LINE);
-    for (final Topic c : topic.getChildren()) {
-      result.append(convertTopicToText(c, level + 1));
+  }
+
+  private static Writer writeIndent(final Writer out, final int level) throws IOException {
+    ModelUtils.repeatChar(out, '|', level);
+    return out;
+  }
+
+  /**
+   * Write text representation of topics.
+   *
+   * @param out writer to get text, must not be null
+   * @throws IOException thrown if any error in writer
+   * @since 1.6.6
+   */
+  public void writeAsText(final Writer out) throws IOException {
+    boolean first = true;
+    for (final TopicState t : this.states) {
+      if (!first) {
+        out.append("...").append(END_OF_LINE);
+      }
+      first = false;
+      writeTopicAsText(out, t, new HashMap<>(), t, 1);
+    }
+  }
+
+  private synchronized String findText() throws IOException {
+    if (this.text == null) {
+      final StringWriter writer = new StringWriter();
+      this.writeAsText(writer);
+      this.text = writer.toString();
     }
+    return this.text;
+  }
+
+  private synchronized Topic[] findTopics() {
+    if (this.topics == null) {
+      final MindMap fakeMap = new MindMap(false);
+      fakeMap.putAttribute(StandardMmdAttributes.MMD_ATTRIBUTE_GENERATOR_ID,
+          IDEBridgeFactory.findInstance().getIDEGeneratorId());
 
-    return result.toString();
+      final Topic[] result = new Topic[this.states.length];
+      for (int i = 0; i < this.states.length; i++) {
+        result[i] = this.states[i].makeTopic(fakeMap, null);
+      }
+      this.topics = result;
+    }
+    return this.topics;
   }
 
   @Override
@@ -169,18 +241,9 @@ public class MMDTopicsTransferable implements Transferable {
   public Object getTransferData(final DataFlavor flavor)
       throws UnsupportedFlavorException, IOException {
     if (flavor.isFlavorTextType()) {
-      final StringBuilder result = new StringBuilder();
-
-      for (final Topic t : this.topics) {
-        if (result.length() > 0) {
-          result.append("...").append(END_OF_LINE);
-        }
-        result.append(convertTopicToText(t, 1));
-      }
-
-      return result.toString();
+      return this.findText();
     } else if (flavor.isMimeTypeEqual(MMD_DATA_FLAVOR)) {
-      return new NBMindMapTopicsContainer(this.topics);
+      return new NBMindMapTopicsContainer(this.findTopics());
     } else {
       throw new UnsupportedFlavorException(flavor);
     }
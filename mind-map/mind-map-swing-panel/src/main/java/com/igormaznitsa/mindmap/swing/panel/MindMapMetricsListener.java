@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.mindmap.swing.panel;
+
+/**
+ * Listener to get performance metrics of layout and paint frames of mind map panel.
+ *
+ * @see MindMapPanel#addMindMapMetricsListener(MindMapMetricsListener)
+ * @since 1.6.6
+ */
+public interface MindMapMetricsListener {
+  /**
+   * Called in Swing dispatch thread after layout or paint of the panel.
+   *
+   * @param source  source panel, must not be null
+   * @param metrics metrics of the frame, must not be null
+   */
+  void onFrameMetrics(MindMapPanel source, MindMapPanelMetrics metrics);
+}
@@ -43,6 +43,7 @@ import com.igormaznitsa.mindmap.swing.i18n.MmdI18n;
 import com.igormaznitsa.mindmap.swing.ide.IDEBridgeFactory;
 import com.igormaznitsa.mindmap.swing.panel.ui.AbstractCollapsableElement;
 import com.igormaznitsa.mindmap.swing.panel.ui.AbstractElement;
+import com.igormaznitsa.mindmap.swing.panel.ui.ElementGeometryIndex;
 import com.igormaznitsa.mindmap.swing.panel.ui.ElementLevelFirst;
 import com.igormaznitsa.mindmap.swing.panel.ui.ElementLevelOther;
 import com.igormaznitsa.mindmap.swing.panel.ui.ElementPart;
@@ -52,9 +53,13 @@ import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics;
 import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics2DWrapper;
 import com.igormaznitsa.mindmap.swing.panel.ui.gfx.StrokeType;
 import com.igormaznitsa.mindmap.swing.panel.utils.KeyEventType;
+import com.igormaznitsa.mindmap.swing.panel.utils.LevelOfDetail;
+import com.igormaznitsa.mindmap.swing.panel.utils.MetricsRecorder;
 import com.igormaznitsa.mindmap.swing.panel.utils.MindMapUtils;
 import com.igormaznitsa.mindmap.swing.panel.utils.Pair;
 import com.igormaznitsa.mindmap.swing.panel.utils.RenderQuality;
+import com.igormaznitsa.mindmap.swing.panel.utils.RenderResources;
+import com.igormaznitsa.mindmap.swing.panel.utils.ScaledResourceCache;
 import com.igormaznitsa.mindmap.swing.panel.utils.Utils;
 import com.igormaznitsa.mindmap.swing.services.UIComponentFactory;
 import com.igormaznitsa.mindmap.swing.services.UIComponentFactoryProvider;
@@ -87,11 +92,15 @@ import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
+import java.awt.font.FontRenderContext;
 import java.awt.geom.Dimension2D;
 import java.awt.geom.GeneralPath;
+import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -100,9 +109,12 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.ResourceBundle;
 import java.util.UUID;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
 import java.util.function.Predicate;
 import javax.swing.BorderFactory;
 import javax.swing.JComponent;
@@ -111,6 +123,7 @@ import javax.swing.JPopupMenu;
 import javax.swing.JTextArea;
 import javax.swing.JViewport;
 import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import javax.swing.event.PopupMenuEvent;
@@ -145,6 +158,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
   private final AtomicBoolean disposed = new AtomicBoolean();
   private final Map<String, Object> sessionObjects = new ConcurrentHashMap<>();
   private final List<MindMapListener> mindMapListeners = new CopyOnWriteArrayList<>();
+  private final List<MindMapMetricsListener> metricsListeners = new CopyOnWriteArrayList<>();
   private final JTextArea textEditor = UI_COMPO_FACTORY.makeTextArea();
   private final JPanel textEditorPanel = UI_COMPO_FACTORY.makePanel();
   private boolean birdsEyeMode;
@@ -152,6 +166,10 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
   private final MindMapPanelConfig config;
   private final AtomicBoolean popupMenuActive = new AtomicBoolean();
   private final AtomicBoolean removeEditedTopicForRollback = new AtomicBoolean();
+  private final BackgroundLayoutProcessor backgroundLayoutProcessor =
+      new BackgroundLayoutProcessor();
+  private final BackgroundPasteProcessor backgroundPasteProcessor =
+      new BackgroundPasteProcessor();
   private final UUID uuid = UUID.randomUUID();
   private final transient ResourceBundle bundle = MmdI18n.getInstance().findBundle();
   private Dimension mindMapImageSize = new Dimension();
@@ -163,6 +181,24 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
   private transient DraggedElement draggedElement = null;
   private transient AbstractElement destinationElement = null;
   private Point lastMousePressed = null;
+  private final Timer wheelZoomRelayoutTimer;
+  private final AtomicLong layoutVersion = new AtomicLong();
+  private transient BirdsEyeVisualizer birdsEyeVisualizer = null;
+  private volatile boolean metricsOverlayVisible;
+  private transient volatile MindMapPanelMetrics lastLayoutMetrics = null;
+  private transient volatile MindMapPanelMetrics lastPaintMetrics = null;
+  private transient MindMapPanelConfig wheelZoomPreviewConfig = null;
+  private transient Point wheelZoomPreviewAnchor = null;
+  private transient Dimension wheelZoomPreviewBaseSize = null;
+  private final Timer renderQualityRestoreTimer;
+  private transient boolean userInteractionActive = false;
+  private transient Point lastPaintedViewPosition = null;
+  private transient ElementGeometryIndex geometryIndex = null;
+  private transient double scaledResourceScale = Double.NaN;
+  private transient boolean sizeOnlyInvalidation = false;
+  private transient Map<Topic, TopicState> clipboardStateIndex = null;
+  private transient long clipboardStateStamp = 0L;
+  private transient PasteListener activePasteListener = null;
 
   /**
    * COnstructor.
@@ -180,6 +216,17 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
 
     this.config = new MindMapPanelConfig(panelConfig, false);
 
+    this.wheelZoomRelayoutTimer = new Timer(this.config.getWheelZoomRelayoutDelay(),
+        e -> this.completeWheelZoomPreview(true));
+    this.wheelZoomRelayoutTimer.setRepeats(false);
+
+    this.renderQualityRestoreTimer = new Timer(this.config.getAdaptiveRenderQualityDelay(),
+        e -> {
+          this.userInteractionActive = false;
+          this.repaint();
+        });
+    this.renderQualityRestoreTimer.setRepeats(false);
+
     this.textEditor.setMargin(new Insets(5, 5, 5, 5));
     this.textEditor.setBorder(BorderFactory.createEtchedBorder());
     this.textEditor.setTabSize(4);
@@ -331,6 +378,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
         if (isDisposed()) {
           return;
         }
+        completeWheelZoomPreview(false);
         if (!e.isConsumed()) {
           fireNotificationNonConsumedKeyEvent(e, KeyEventType.PRESSED);
         }
@@ -533,6 +581,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
         if (isDisposed()) {
           return;
         }
+        completeWheelZoomPreview(false);
         if (!e.isConsumed()) {
           lastMousePressed = e.getPoint();
           if (!controller.isMouseClickProcessingAllowed(MindMapPanel.this)) {
@@ -653,6 +702,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
           if (!controller.isMouseMoveProcessingAllowed(MindMapPanel.this)) {
             return;
           }
+          markUserInteraction();
           scrollRectToVisible(new Rectangle(e.getX(), e.getY(), 1, 1));
 
           if (birdsEyeMode) {
@@ -682,7 +732,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
                           e.getPoint().getY() - elementUnderMouse.getBounds().getY()));
                   draggedElement = new DraggedElement(elementUnderMouse, config, mouseOffset,
                       e.isControlDown() || e.isMetaDown() ? DraggedElement.Modifier.MAKE_JUMP :
-                          DraggedElement.Modifier.NONE, getConfiguration().getRenderQuality());
+                          DraggedElement.Modifier.NONE, findPaintRenderQuality());
                   draggedElement.updatePosition(e.getPoint());
                   findDestinationElementForDragged();
                 } else {
@@ -719,6 +769,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
           if (controller.isMouseWheelProcessingAllowed(MindMapPanel.this)) {
             mouseDragSelection = null;
             draggedElement = null;
+            markUserInteraction();
 
             final MindMapPanelConfig finalConfig = config;
 
@@ -736,14 +787,27 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
                   10.0d;
               final double newScale = Math.max(SCALE_MINIMUM, Math.min(curScale, SCALE_MAXIMUM));
 
-              setScale(newScale, false);
-              MindMapPanel.this.doLayout();
-              MindMapPanel.this.revalidate();
-              MindMapPanel.this.repaint();
+              if (finalConfig.isWheelZoomPreview() && isValid()) {
+                if (wheelZoomPreviewConfig == null) {
+                  wheelZoomPreviewConfig = new MindMapPanelConfig(finalConfig, false);
+                  wheelZoomPreviewAnchor = e.getPoint();
+                  wheelZoomPreviewBaseSize = oldSize;
+                }
+                setScale(newScale, false);
+                wheelZoomRelayoutTimer.setInitialDelay(
+                    Math.max(0, finalConfig.getWheelZoomRelayoutDelay()));
+                wheelZoomRelayoutTimer.restart();
+                MindMapPanel.this.repaint();
+              } else {
+                setScale(newScale, false);
+                MindMapPanel.this.doLayout();
+                MindMapPanel.this.revalidate();
+                MindMapPanel.this.repaint();
 
-              final Dimension newSize = MindMapPanel.this.mindMapImageSize;
+                final Dimension newSize = MindMapPanel.this.mindMapImageSize;
 
-              fireNotificationScaledByMouse(e.getPoint(), oldScale, newScale, oldSize, newSize);
+                fireNotificationScaledByMouse(e.getPoint(), oldScale, newScale, oldSize, newSize);
+              }
             } else {
               if (!e.isConsumed()) {
                 sendToParent(e);
@@ -859,8 +923,12 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
       addComponentListener(new ComponentAdapter() {
         @Override
         public void componentResized(final ComponentEvent e) {
-          doLayout();
-          updateEditorAfterResizing();
+          if (hasActiveEditor()) {
+            doLayout();
+            updateEditorAfterResizing();
+          } else {
+            doLayoutInBackground();
+          }
         }
       });
 
@@ -971,6 +1039,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
 
       final Topic root = map.getRoot();
       if (root != null) {
+        drawConnectors(g, root, cfg);
         drawTopicTree(g, root, cfg);
       }
     }
@@ -996,6 +1065,9 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
 
     final float arrowSize = cfg.safeScaleFloatValue(10.0f * cfg.getConnectorWidth(), 0.2f);
 
+    final GeneralPath arrows = new GeneralPath();
+    final Path2D lines = new Path2D.Double();
+
     for (Topic src : allTopicsWithJumps) {
       final ExtraTopic extra =
           (ExtraTopic) requireNonNull(requireNonNull(src).getExtras()).get(Extra.ExtraType.TOPIC);
@@ -1019,30 +1091,34 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
                   requireNonNull((AbstractElement) requireNonNull(src).getPayload());
               final Rectangle2D srcRect = srcElement.getBounds();
               final Rectangle2D dstRect = dstElement.getBounds();
-              drawArrowToDestination(
-                  gfx,
+              appendArrowToDestination(
+                  arrows,
+                  lines,
                   srcRect,
                   dstRect,
-                  lineWidth,
-                  connectorLineWidth,
-                  arrowSize,
-                  jumpLinkColor
+                  arrowSize
               );
             }
           }
         }
       }
     }
+
+    // all jumps have the same style so draw them in two calls instead of two calls per jump
+    if (arrows.getCurrentPoint() != null) {
+      gfx.setStroke(connectorLineWidth, StrokeType.SOLID);
+      gfx.draw(arrows, null, jumpLinkColor);
+      gfx.setStroke(lineWidth, StrokeType.DOTS);
+      gfx.draw(lines, jumpLinkColor, null);
+    }
   }
 
-  private static void drawArrowToDestination(
-      final MMGraphics gfx,
+  private static void appendArrowToDestination(
+      final GeneralPath arrows,
+      final Path2D lines,
       final Rectangle2D start,
       final Rectangle2D destination,
-      final float lineWidth,
-      final float connectorLineWidth,
-      final float arrowSize,
-      final Color color
+      final float arrowSize
   ) {
 
     final double startX = start.getCenterX();
@@ -1051,8 +1127,6 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     final Point2D arrowPoint = Utils.findRectEdgeIntersection(destination, startX, startY);
 
     if (arrowPoint != null) {
-      gfx.setStroke(connectorLineWidth, StrokeType.SOLID);
-
       double angle = findLineAngle(arrowPoint.getX(), arrowPoint.getY(), startX, startY);
 
       final double arrowAngle = Math.PI / 12.0d;
@@ -1065,16 +1139,39 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
       final double cx = (arrowSize / 2.0f) * Math.cos(angle);
       final double cy = (arrowSize / 2.0f) * Math.sin(angle);
 
-      final GeneralPath polygon = new GeneralPath();
-      polygon.moveTo(arrowPoint.getX(), arrowPoint.getY());
-      polygon.lineTo(arrowPoint.getX() + x1, arrowPoint.getY() + y1);
-      polygon.lineTo(arrowPoint.getX() + x2, arrowPoint.getY() + y2);
-      polygon.closePath();
-      gfx.draw(polygon, null, color);
+      arrows.moveTo(arrowPoint.getX(), arrowPoint.getY());
+      arrows.lineTo(arrowPoint.getX() + x1, arrowPoint.getY() + y1);
+      arrows.lineTo(arrowPoint.getX() + x2, arrowPoint.getY() + y2);
+      arrows.closePath();
 
-      gfx.setStroke(lineWidth, StrokeType.DOTS);
-      gfx.drawLine((int) startX, (int) startY, (int) (arrowPoint.getX() + cx),
-          (int) (arrowPoint.getY() + cy), color);
+      lines.moveTo((int) startX, (int) startY);
+      lines.lineTo((int) (arrowPoint.getX() + cx), (int) (arrowPoint.getY() + cy));
+    }
+  }
+
+  private static void drawConnectors(final MMGraphics gfx, final Topic root,
+                                     final MindMapPanelConfig cfg) {
+    // all connectors share stroke and color, so they are collected into one path and drawn
+    // once instead of changing graphics state for every edge
+    final Path2D path = new Path2D.Double();
+    collectConnectors(path, root, cfg.findLevelOfDetail(cfg.getScale()) == LevelOfDetail.SKELETON,
+        cfg, gfx.getClipBounds());
+    AbstractElement.drawConnectorPath(gfx, path, cfg);
+  }
+
+  private static void collectConnectors(final Path2D path, final Topic topic,
+                                        final boolean skeleton, final MindMapPanelConfig cfg,
+                                        final Rectangle clip) {
+    final AbstractElement element = (AbstractElement) topic.getPayload();
+    if (element != null && element.hasChildren() && !element.isCollapsed()) {
+      if (skeleton) {
+        element.appendSkeletonConnectors(path, cfg, clip);
+      } else {
+        element.appendConnectors(path, element.isLeftDirection(), cfg, clip);
+      }
+      for (final Topic t : topic.getChildren()) {
+        collectConnectors(path, t, skeleton, cfg, clip);
+      }
     }
   }
 
@@ -1096,13 +1193,19 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
                                  final MindMapPanelConfig cfg) {
     final AbstractElement element = (AbstractElement) topic.getPayload();
     if (element != null) {
-      element.doPaint(gfx, cfg, true);
+      element.doPaint(gfx, cfg, true, false);
     }
   }
 
-  private static void setElementSizesForElementAndChildren(final MMGraphics gfx,
-                                                           final MindMapPanelConfig cfg,
-                                                           final Topic topic, final int level) {
+  private static boolean setElementSizesForElementAndChildren(final MMGraphics gfx,
+                                                              final MindMapPanelConfig cfg,
+                                                              final Topic topic, final int level,
+                                                              final BooleanSupplier cancelled,
+                                                              final MetricsRecorder recorder) {
+    if (cancelled.getAsBoolean()) {
+      return false;
+    }
+    final long creationStart = recorder == null ? 0L : System.nanoTime();
     AbstractElement widget = (AbstractElement) topic.getPayload();
     if (widget == null) {
       switch (level) {
@@ -1119,22 +1222,41 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
       topic.setPayload(widget);
     }
 
-    widget.updateElementBounds(gfx, cfg);
-    for (final Topic t : topic.getChildren()) {
-      setElementSizesForElementAndChildren(gfx, cfg, t, level + 1);
+    if (recorder == null) {
+      widget.updateElementBounds(gfx, cfg);
+    } else {
+      final long measurementStart = System.nanoTime();
+      recorder.addElementCreation(measurementStart - creationStart);
+      widget.updateElementBounds(gfx, cfg);
+      recorder.addTextMeasurement(System.nanoTime() - measurementStart);
+    }
+    if (!widget.isCollapsed()) {
+      // elements of hidden subtrees are created only when they are expanded
+      for (final Topic t : topic.getChildren()) {
+        if (!setElementSizesForElementAndChildren(gfx, cfg, t, level + 1, cancelled, recorder)) {
+          return false;
+        }
+      }
     }
     widget.updateBlockSize(cfg);
+    return true;
   }
 
   public static boolean calculateElementSizes(final MMGraphics gfx, final MindMap model,
                                               final MindMapPanelConfig cfg) {
+    return calculateElementSizes(gfx, model, cfg, () -> false);
+  }
+
+  static boolean calculateElementSizes(final MMGraphics gfx, final MindMap model,
+                                       final MindMapPanelConfig cfg,
+                                       final BooleanSupplier cancelled) {
     boolean result = false;
 
     final Topic root = model == null ? null : model.getRoot();
     if (root != null) {
       model.clearAllPayloads();
-      setElementSizesForElementAndChildren(gfx, cfg, root, 0);
-      result = true;
+      result = setElementSizesForElementAndChildren(gfx, cfg, root, 0, cancelled,
+          MetricsRecorder.current());
     }
     return result;
   }
@@ -1146,7 +1268,12 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
       if (rootTopic != null) {
         final AbstractElement root = (AbstractElement) rootTopic.getPayload();
         if (root != null) {
+          final MetricsRecorder recorder = MetricsRecorder.current();
+          final long start = recorder == null ? 0L : System.nanoTime();
           root.alignElementAndChildren(cfg, true, 0, 0);
+          if (recorder != null) {
+            recorder.addAlignment(System.nanoTime() - start);
+          }
           result = root.getBlockSize();
         }
       }
@@ -1170,30 +1297,46 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
                                                                 final MindMap map,
                                                                 final MindMapPanelConfig cfg,
                                                                 final Dimension2D paperSize) {
+    return layoutFullDiagramWithCenteringToPaper(gfx, map, cfg, paperSize, () -> false);
+  }
+
+  static Dimension layoutFullDiagramWithCenteringToPaper(final MMGraphics gfx,
+                                                         final MindMap map,
+                                                         final MindMapPanelConfig cfg,
+                                                         final Dimension2D paperSize,
+                                                         final BooleanSupplier cancelled) {
     Dimension resultSize = null;
-    if (calculateElementSizes(gfx, map, cfg)) {
-      Dimension2D rootBlockSize = layoutModelElements(map, cfg);
-      final double paperMargin = cfg.getPaperMargins() * cfg.getScale();
+    if (calculateElementSizes(gfx, map, cfg, cancelled)) {
+      resultSize = alignDiagramWithCenteringToPaper(map, cfg, paperSize);
+    }
+    return resultSize;
+  }
 
-      if (rootBlockSize != null) {
-        final ElementRoot rootElement =
-            requireNonNull((ElementRoot) requireNonNull(map.getRoot()).getPayload());
+  private static Dimension alignDiagramWithCenteringToPaper(final MindMap map,
+                                                            final MindMapPanelConfig cfg,
+                                                            final Dimension2D paperSize) {
+    Dimension resultSize = null;
+    final Dimension2D rootBlockSize = layoutModelElements(map, cfg);
+    final double paperMargin = cfg.getPaperMargins() * cfg.getScale();
 
-        double rootOffsetXInBlock = rootElement.getLeftBlockSize().getWidth();
-        double rootOffsetYInBlock =
-            (rootBlockSize.getHeight() - rootElement.getBounds().getHeight()) / 2;
+    if (rootBlockSize != null) {
+      final ElementRoot rootElement =
+          requireNonNull((ElementRoot) requireNonNull(map.getRoot()).getPayload());
 
-        rootOffsetXInBlock +=
-            (paperSize.getWidth() - rootBlockSize.getWidth()) <= paperMargin ? paperMargin :
-                (paperSize.getWidth() - rootBlockSize.getWidth()) / 2;
-        rootOffsetYInBlock +=
-            (paperSize.getHeight() - rootBlockSize.getHeight()) <= paperMargin ? paperMargin :
-                (paperSize.getHeight() - rootBlockSize.getHeight()) / 2;
+      double rootOffsetXInBlock = rootElement.getLeftBlockSize().getWidth();
+      double rootOffsetYInBlock =
+          (rootBlockSize.getHeight() - rootElement.getBounds().getHeight()) / 2;
 
-        moveDiagram(map, rootOffsetXInBlock, rootOffsetYInBlock);
-        resultSize = new Dimension((int) Math.round(rootBlockSize.getWidth() + paperMargin * 2),
-            (int) Math.round(rootBlockSize.getHeight() + paperMargin * 2));
-      }
+      rootOffsetXInBlock +=
+          (paperSize.getWidth() - rootBlockSize.getWidth()) <= paperMargin ? paperMargin :
+              (paperSize.getWidth() - rootBlockSize.getWidth()) / 2;
+      rootOffsetYInBlock +=
+          (paperSize.getHeight() - rootBlockSize.getHeight()) <= paperMargin ? paperMargin :
+              (paperSize.getHeight() - rootBlockSize.getHeight()) / 2;
+
+      moveDiagram(map, rootOffsetXInBlock, rootOffsetYInBlock);
+      resultSize = new Dimension((int) Math.round(rootBlockSize.getWidth() + paperMargin * 2),
+          (int) Math.round(rootBlockSize.getHeight() + paperMargin * 2));
     }
 
     return resultSize;
@@ -1288,6 +1431,45 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     return img;
   }
 
+  /**
+   * Render mind map as PNG image and write it into stream. The image is rendered by horizontal
+   * bands in parallel and written through row-based encoder, so it can be used for maps which
+   * are too big to be placed into single buffered image.
+   *
+   * @param model     mind map to be rendered, must not be null, it is not changed
+   * @param cfg       configuration for rendering, must not be null
+   * @param expandAll true if all collapsed topics should be expanded
+   * @param quality   render quality, must not be null
+   * @param out       target stream, must not be null, it is not closed
+   * @param threads   number of threads to render bands
+   * @return false if map doesn't contain anything to render, true otherwise
+   * @throws IOException if any IO error
+   * @since 1.6.6
+   */
+  public static boolean writeMindMapAsPng(final MindMap model,
+                                          final MindMapPanelConfig cfg,
+                                          final boolean expandAll,
+                                          final RenderQuality quality,
+                                          final OutputStream out,
+                                          final int threads) throws IOException {
+    final MindMap workMap = model.makeCopy();
+    workMap.clearAllPayloads();
+
+    if (expandAll) {
+      MindMapUtils.removeCollapseAttr(workMap);
+    }
+
+    final Dimension2D blockSize =
+        calculateSizeOfMapInPixels(workMap, null, cfg, expandAll, quality);
+    if (blockSize == null || (int) blockSize.getWidth() <= 0
+        || (int) blockSize.getHeight() <= 0) {
+      return false;
+    }
+
+    new TiledPngRenderer(workMap, cfg, quality, blockSize).write(out, threads);
+    return true;
+  }
+
   private static Topic[] ensureNoRootInArray(final Topic... topics) {
     final List<Topic> buffer = new ArrayList<>(topics.length);
     for (final Topic t : topics) {
@@ -1485,13 +1667,71 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     assertNotDisposed();
     final MindMapPanel theInstance = this;
     final double scale = this.config.getScale();
+    final MindMapPanelConfig previous = new MindMapPanelConfig(this.config, false);
     this.config.makeAtomicChange(() -> {
       config.makeFullCopyOf(controller.provideConfigForMindMapPanel(theInstance), false,
           false);
       config.setScale(scale);
     });
-    invalidate();
-    repaint();
+
+    // make only needed work, changes of colors must not cause measuring of all topics
+    final Topic root = this.model == null ? null : this.model.getRoot();
+    final MindMapPanelConfig.ChangeImpact impact =
+        root == null || root.getPayload() == null ? MindMapPanelConfig.ChangeImpact.REMEASURE
+            : this.config.findChangeImpact(previous);
+    switch (impact) {
+      case NONE:
+        break;
+      case REPAINT: {
+        invalidateDisplayLists(root);
+        repaint();
+      }
+      break;
+      case REALIGN: {
+        this.realignElements(root);
+        repaint();
+      }
+      break;
+      default: {
+        invalidate();
+        repaint();
+      }
+      break;
+    }
+  }
+
+  private static void invalidateDisplayLists(final Topic topic) {
+    final AbstractElement element = (AbstractElement) topic.getPayload();
+    if (element != null) {
+      element.invalidateDisplayList();
+      for (final Topic t : topic.getChildren()) {
+        invalidateDisplayLists(t);
+      }
+    }
+  }
+
+  private static void updateBlockSizes(final Topic topic, final MindMapPanelConfig cfg) {
+    final AbstractElement element = requireNonNull((AbstractElement) topic.getPayload());
+    if (!element.isCollapsed()) {
+      for (final Topic t : topic.getChildren()) {
+        updateBlockSizes(t, cfg);
+      }
+    }
+    element.updateBlockSize(cfg);
+  }
+
+  private void realignElements(final Topic root) {
+    this.backgroundLayoutProcessor.cancel();
+    this.resetWheelZoomPreview();
+    this.layoutVersion.incrementAndGet();
+    // measured sizes of elements are kept, only blocks are recalculated and elements moved
+    updateBlockSizes(root, this.config);
+    this.changeSizeOfComponent(
+        alignDiagramWithCenteringToPaper(this.model, this.config, this.findPageSize()), true);
+    final Container parent = this.getParent();
+    if (parent != null) {
+      parent.revalidate();
+    }
   }
 
   private int calcDropPosition(final AbstractElement destination, final Point dropPoint) {
@@ -1602,6 +1842,33 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     }
   }
 
+  private ElementGeometryIndex findGeometryIndex() {
+    final long version = this.layoutVersion.get();
+    if (this.geometryIndex == null || this.geometryIndex.getLayoutVersion() != version) {
+      final Topic root = this.model == null ? null : this.model.getRoot();
+      this.geometryIndex = root == null || root.getPayload() == null ? null
+          : new ElementGeometryIndex(root, version);
+    }
+    return this.geometryIndex;
+  }
+
+  private AbstractElement findNearestElement(final AbstractElement source,
+                                             final ElementGeometryIndex.Direction direction,
+                                             final Predicate<AbstractElement> filter) {
+    final ElementGeometryIndex index = this.findGeometryIndex();
+    return index == null ? null : index.findNearest(source, direction, filter);
+  }
+
+  private AbstractElement findNearestChild(final AbstractElement parent,
+                                           final boolean leftDirection) {
+    final Topic parentModel = parent.getModel();
+    return this.findNearestElement(parent,
+        leftDirection ? ElementGeometryIndex.Direction.LEFT :
+            ElementGeometryIndex.Direction.RIGHT,
+        e -> e.getModel().getParent() == parentModel
+            && e.isLeftDirection() == leftDirection);
+  }
+
   private void processMoveFocusByKey(final KeyEvent key) {
     final AbstractElement lastSelectedTopic = this.selectedTopics.isEmpty() ? null :
         (AbstractElement) this.selectedTopics.get(this.selectedTopics.size() - 1).getPayload();
@@ -1613,18 +1880,28 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
 
     boolean modelChanged = false;
 
+    final boolean pressedButtonMoveLeft =
+        config.isKeyEventDetected(key, MindMapPanelConfig.KEY_FOCUS_MOVE_LEFT,
+            MindMapPanelConfig.KEY_FOCUS_MOVE_LEFT_ADD_FOCUSED);
+    final boolean pressedButtonMoveRight = !pressedButtonMoveLeft
+        && config.isKeyEventDetected(key, MindMapPanelConfig.KEY_FOCUS_MOVE_RIGHT,
+        MindMapPanelConfig.KEY_FOCUS_MOVE_RIGHT_ADD_FOCUSED);
+    final boolean pressedButtonMoveUp =
+        config.isKeyEventDetected(key, MindMapPanelConfig.KEY_FOCUS_MOVE_UP,
+            MindMapPanelConfig.KEY_FOCUS_MOVE_UP_ADD_FOCUSED);
+    final ElementGeometryIndex.Direction verticalDirection = pressedButtonMoveUp
+        ? ElementGeometryIndex.Direction.UP : ElementGeometryIndex.Direction.DOWN;
+
     if (lastSelectedTopic.isMoveable()) {
       boolean processFirstChild = false;
-      if (config.isKeyEventDetected(key, MindMapPanelConfig.KEY_FOCUS_MOVE_LEFT,
-          MindMapPanelConfig.KEY_FOCUS_MOVE_LEFT_ADD_FOCUSED)) {
+      if (pressedButtonMoveLeft) {
         if (lastSelectedTopic.isLeftDirection()) {
           processFirstChild = true;
         } else {
           nextFocused = (AbstractElement) requireNonNull(
               lastSelectedTopic.getModel().getParent()).getPayload();
         }
-      } else if (config.isKeyEventDetected(key, MindMapPanelConfig.KEY_FOCUS_MOVE_RIGHT,
-          MindMapPanelConfig.KEY_FOCUS_MOVE_RIGHT_ADD_FOCUSED)) {
+      } else if (pressedButtonMoveRight) {
         if (lastSelectedTopic.isLeftDirection()) {
           nextFocused = (AbstractElement) requireNonNull(
               lastSelectedTopic.getModel().getParent()).getPayload();
@@ -1632,9 +1909,6 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
           processFirstChild = true;
         }
       } else {
-        final boolean pressedButtonMoveUp =
-            config.isKeyEventDetected(key, MindMapPanelConfig.KEY_FOCUS_MOVE_UP,
-                MindMapPanelConfig.KEY_FOCUS_MOVE_UP_ADD_FOCUSED);
         final boolean firstLevel = lastSelectedTopic.getClass() == ElementLevelFirst.class;
         final boolean currentLeft =
             AbstractCollapsableElement.isLeftSidedTopic(lastSelectedTopic.getModel());
@@ -1651,6 +1925,13 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
         final Topic topic = pressedButtonMoveUp ? lastSelectedTopic.getModel().findPrev(checker) :
             lastSelectedTopic.getModel().findNext(checker);
         nextFocused = topic == null ? null : (AbstractElement) topic.getPayload();
+
+        if (nextFocused == null) {
+          // no more siblings, move to the nearest visible topic on the same side
+          final boolean leftDirection = lastSelectedTopic.isLeftDirection();
+          nextFocused = this.findNearestElement(lastSelectedTopic, verticalDirection,
+              e -> e.isMoveable() && e.isLeftDirection() == leftDirection);
+        }
       }
 
       if (processFirstChild) {
@@ -1658,30 +1939,28 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
           if (lastSelectedTopic.isCollapsed()) {
             ((AbstractCollapsableElement) lastSelectedTopic).setCollapse(false);
             modelChanged = true;
+            doLayout();
           }
 
-          nextFocused =
-              (AbstractElement) (lastSelectedTopic.getModel().getChildren().get(0)).getPayload();
-        }
-      }
-    } else if (config.isKeyEventDetected(key, MindMapPanelConfig.KEY_FOCUS_MOVE_LEFT,
-        MindMapPanelConfig.KEY_FOCUS_MOVE_LEFT_ADD_FOCUSED)) {
-      for (final Topic t : lastSelectedTopic.getModel().getChildren()) {
-        final AbstractElement e = (AbstractElement) t.getPayload();
-        if (e != null && e.isLeftDirection()) {
-          nextFocused = e;
-          break;
-        }
-      }
-    } else if (config.isKeyEventDetected(key, MindMapPanelConfig.KEY_FOCUS_MOVE_RIGHT,
-        MindMapPanelConfig.KEY_FOCUS_MOVE_RIGHT_ADD_FOCUSED)) {
-      for (final Topic t : lastSelectedTopic.getModel().getChildren()) {
-        final AbstractElement e = (AbstractElement) t.getPayload();
-        if (e != null && !e.isLeftDirection()) {
-          nextFocused = e;
-          break;
+          final AbstractElement currentElement =
+              (AbstractElement) lastSelectedTopic.getModel().getPayload();
+          nextFocused = currentElement == null ? null
+              : this.findNearestChild(currentElement, currentElement.isLeftDirection());
+          if (nextFocused == null) {
+            nextFocused =
+                (AbstractElement) (lastSelectedTopic.getModel().getChildren().get(0))
+                    .getPayload();
+          }
         }
       }
+    } else if (pressedButtonMoveLeft) {
+      nextFocused = this.findNearestChild(lastSelectedTopic, true);
+    } else if (pressedButtonMoveRight) {
+      nextFocused = this.findNearestChild(lastSelectedTopic, false);
+    } else if (pressedButtonMoveUp || config.isKeyEventDetected(key,
+        MindMapPanelConfig.KEY_FOCUS_MOVE_DOWN,
+        MindMapPanelConfig.KEY_FOCUS_MOVE_DOWN_ADD_FOCUSED)) {
+      nextFocused = this.findNearestElement(lastSelectedTopic, verticalDirection, null);
     }
 
     if (nextFocused != null) {
@@ -2186,6 +2465,99 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     this.mindMapListeners.remove(requireNonNull(l));
   }
 
+  /**
+   * Add listener to get performance metrics of layout and paint frames. Metrics are collected
+   * only if there is a listener or the metrics overlay is visible.
+   *
+   * @param l listener, must not be null
+   * @since 1.6.6
+   */
+  public void addMindMapMetricsListener(final MindMapMetricsListener l) {
+    assertNotDisposed();
+    this.metricsListeners.add(requireNonNull(l));
+  }
+
+  /**
+   * Remove performance metrics listener.
+   *
+   * @param l listener, must not be null
+   * @since 1.6.6
+   */
+  public void removeMindMapMetricsListener(final MindMapMetricsListener l) {
+    assertNotDisposed();
+    this.metricsListeners.remove(requireNonNull(l));
+  }
+
+  /**
+   * Check that overlay with last layout and paint metrics is shown over the panel.
+   *
+   * @return true if overlay is visible
+   * @since 1.6.6
+   */
+  public boolean isMetricsOverlayVisible() {
+    return this.metricsOverlayVisible;
+  }
+
+  /**
+   * Show or hide debug overlay with last layout and paint metrics.
+   *
+   * @param visible true to show overlay, false to hide
+   * @since 1.6.6
+   */
+  public void setMetricsOverlayVisible(final boolean visible) {
+    assertNotDisposed();
+    this.metricsOverlayVisible = visible;
+    this.repaint();
+  }
+
+  private boolean isMetricsCollected() {
+    return this.metricsOverlayVisible || !this.metricsListeners.isEmpty();
+  }
+
+  private void fireFrameMetrics(final MindMapPanelMetrics metrics) {
+    if (metrics.getFrameType() == MindMapPanelMetrics.FrameType.LAYOUT) {
+      this.lastLayoutMetrics = metrics;
+    } else {
+      this.lastPaintMetrics = metrics;
+    }
+    for (final MindMapMetricsListener l : this.metricsListeners) {
+      l.onFrameMetrics(this, metrics);
+    }
+  }
+
+  private void drawMetricsOverlay(final Graphics2D g) {
+    final List<String> lines = new ArrayList<>();
+    final MindMapPanelMetrics layoutMetrics = this.lastLayoutMetrics;
+    final MindMapPanelMetrics paintMetrics = this.lastPaintMetrics;
+    if (layoutMetrics != null) {
+      lines.add(layoutMetrics.toString());
+    }
+    if (paintMetrics != null) {
+      lines.add(paintMetrics.toString());
+    }
+    if (lines.isEmpty()) {
+      return;
+    }
+
+    final Rectangle visible = this.getVisibleRect();
+    g.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 11));
+    final FontMetrics fontMetrics = g.getFontMetrics();
+    final int lineHeight = fontMetrics.getHeight();
+    int maxWidth = 0;
+    for (final String s : lines) {
+      maxWidth = Math.max(maxWidth, fontMetrics.stringWidth(s));
+    }
+
+    g.setColor(new Color(0xC0000000, true));
+    g.fillRect(visible.x, visible.y, maxWidth + 8, lineHeight * lines.size() + 8);
+    g.setColor(Color.GREEN);
+    int y = visible.y + 4 + fontMetrics.getAscent();
+    for (final String s : lines) {
+      g.drawString(s, visible.x + 4, y);
+      y += lineHeight;
+    }
+  }
+
   /**
    * Set model for the panel, allows to notify listeners optionally.
    *
@@ -2210,6 +2582,8 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
 
       final MindMap oldModel = this.model;
       this.model = requireNonNull(model, "Model must not be null");
+      this.cancelPasteInBackground();
+      this.clipboardStateIndex = null;
 
       for (final PanelAwarePlugin p : MindMapPluginRegistry.getInstance()
           .findFor(PanelAwarePlugin.class)) {
@@ -2377,31 +2751,231 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     }
   }
 
+  /**
+   * Make layout of mind map elements in a background thread, the current layout is kept and
+   * painted until the new one is ready. The method can be called from any thread and it doesn't
+   * wait for result, if a newer layout request (or synchronous layout) comes then the started
+   * one is dropped.
+   *
+   * @see #doLayout()
+   * @since 1.6.6
+   */
+  public void doLayoutInBackground() {
+    assertNotDisposed();
+    this.startBackgroundLayout(null);
+  }
+
+  private void startBackgroundLayout(final Runnable afterLayout) {
+    Utils.safeSwingCall(() -> {
+      if (this.isDisposed()) {
+        return;
+      }
+      final MindMap currentModel = this.model;
+      if (currentModel == null || currentModel.getRoot() == null) {
+        return;
+      }
+      final Graphics2D graphics = (Graphics2D) this.getGraphics();
+      if (graphics == null || currentModel.getRoot().getPayload() == null) {
+        if (graphics != null) {
+          graphics.dispose();
+        }
+        this.doLayout();
+        if (afterLayout != null) {
+          afterLayout.run();
+        }
+        return;
+      }
+      final FontRenderContext fontRenderContext;
+      try {
+        fontRenderContext = graphics.getFontRenderContext();
+      } finally {
+        graphics.dispose();
+      }
+
+      // copy is made here because the model can be changed only in the dispatch thread
+      final long modificationStamp = currentModel.getModificationStamp();
+      this.backgroundLayoutProcessor.submit(
+          currentModel.makeCopy(),
+          new MindMapPanelConfig(this.config, false),
+          fontRenderContext,
+          this.findPageSize(),
+          this.isMetricsCollected(),
+          (snapshot, size, metrics) -> {
+            if (!this.publishBackgroundLayout(currentModel, modificationStamp, snapshot, size)) {
+              // model has been changed after request, make layout of its new state
+              this.startBackgroundLayout(afterLayout);
+              return;
+            }
+            if (metrics != null) {
+              this.fireFrameMetrics(metrics);
+            }
+            if (afterLayout != null) {
+              afterLayout.run();
+            }
+          });
+    });
+  }
+
+  private boolean isWheelZoomPreviewActive() {
+    return this.wheelZoomPreviewConfig != null;
+  }
+
+  private void completeWheelZoomPreview(final boolean inBackground) {
+    if (!this.isWheelZoomPreviewActive() || this.isDisposed()) {
+      return;
+    }
+    this.wheelZoomRelayoutTimer.stop();
+
+    final double oldScale = this.wheelZoomPreviewConfig.getScale();
+    final Point anchor = this.wheelZoomPreviewAnchor;
+    final Dimension oldSize = this.wheelZoomPreviewBaseSize;
+
+    final Runnable notification = () -> {
+      this.resetWheelZoomPreview();
+      final Container parent = this.getParent();
+      if (parent != null) {
+        parent.revalidate();
+      }
+      this.repaint();
+      this.fireNotificationScaledByMouse(anchor, oldScale, this.getScale(), oldSize,
+          this.mindMapImageSize);
+    };
+
+    if (inBackground) {
+      this.startBackgroundLayout(notification);
+    } else {
+      this.doLayout();
+      notification.run();
+    }
+  }
+
+  private void markUserInteraction() {
+    if (this.config.isAdaptiveRenderQuality()) {
+      this.userInteractionActive = true;
+      this.renderQualityRestoreTimer.setInitialDelay(
+          Math.max(0, this.config.getAdaptiveRenderQualityDelay()));
+      this.renderQualityRestoreTimer.restart();
+    }
+  }
+
+  private void holdScaledResources(final double scale) {
+    if (Double.compare(this.scaledResourceScale, scale) != 0) {
+      ScaledResourceCache.acquire(scale);
+      if (!Double.isNaN(this.scaledResourceScale)) {
+        ScaledResourceCache.release(this.scaledResourceScale);
+      }
+      this.scaledResourceScale = scale;
+    }
+  }
+
+  private RenderQuality findPaintRenderQuality() {
+    return this.userInteractionActive && this.config.isAdaptiveRenderQuality()
+        ? RenderQuality.SPEED : this.config.getRenderQuality();
+  }
+
+  private void resetWheelZoomPreview() {
+    this.wheelZoomPreviewConfig = null;
+    this.wheelZoomPreviewAnchor = null;
+    this.wheelZoomPreviewBaseSize = null;
+  }
+
+  private static boolean collectLaidOutElements(final Topic target, final Topic laidOut,
+                                                final List<Pair<Topic, AbstractElement>> buffer) {
+    final AbstractElement element = (AbstractElement) laidOut.getPayload();
+    if (element == null
+        || !target.getText().equals(laidOut.getText())
+        || target.getChildren().size() != laidOut.getChildren().size()) {
+      return false;
+    }
+    buffer.add(new Pair<>(target, element));
+    if (element.isCollapsed()) {
+      return true;
+    }
+    for (int i = 0; i < target.getChildren().size(); i++) {
+      if (!collectLaidOutElements(target.getChildren().get(i), laidOut.getChildren().get(i),
+          buffer)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean publishBackgroundLayout(final MindMap sourceModel,
+                                          final long modificationStamp,
+                                          final MindMap laidOut,
+                                          final Dimension size) {
+    if (this.isDisposed() || this.model != sourceModel) {
+      return true;
+    }
+    if (laidOut == null || sourceModel.getModificationStamp() != modificationStamp) {
+      return false;
+    }
+    final Topic root = sourceModel.getRoot();
+    final Topic laidOutRoot = laidOut.getRoot();
+    final List<Pair<Topic, AbstractElement>> elements = new ArrayList<>();
+    if (root == null || laidOutRoot == null
+        || !collectLaidOutElements(root, laidOutRoot, elements)) {
+      // model has been changed directly without change of modification stamp
+      return false;
+    }
+    final List<AbstractElement> copies = new ArrayList<>(elements.size());
+    for (final Pair<Topic, AbstractElement> p : elements) {
+      final AbstractElement copy = p.getRight().makeCopy(p.getLeft());
+      if (copy.getModel() != p.getLeft()) {
+        // custom element can't be bound to another topic, only synchronous layout is possible
+        this.doLayout();
+        return true;
+      }
+      copies.add(copy);
+    }
+    for (int i = 0; i < copies.size(); i++) {
+      elements.get(i).getLeft().setPayload(copies.get(i));
+    }
+    this.layoutVersion.incrementAndGet();
+    this.holdScaledResources(this.config.getScale());
+    changeSizeOfComponent(size, true);
+    updateEditorAfterResizing();
+    repaint();
+    return true;
+  }
+
+  private Dimension findPageSize() {
+    Dimension pageSize = getSize();
+    final Container parent = this.getParent();
+    if (parent instanceof JViewport) {
+      pageSize = ((JViewport) parent).getExtentSize();
+    }
+    return pageSize;
+  }
+
   public boolean updateElementsAndSizeForGraphics(final Graphics2D graph, final boolean forceLayout,
                                                   final boolean doListenerNotification) {
     assertNotDisposed();
     boolean result = false;
     if (forceLayout || !isValid()) {
       if (graph != null) {
-        final MMGraphics gfx = new MMGraphics2DWrapper(graph);
-        if (calculateElementSizes(gfx, this.model, this.config)) {
-
-          Dimension pageSize = getSize();
-
-          final Container parent = this.getParent();
-          if (parent != null) {
-            if (parent instanceof JViewport) {
-              pageSize = ((JViewport) parent).getExtentSize();
+        final MetricsRecorder recorder = this.isMetricsCollected()
+            ? new MetricsRecorder(MindMapPanelMetrics.FrameType.LAYOUT).activate() : null;
+        try {
+          final MMGraphics gfx = new MMGraphics2DWrapper(graph);
+          this.backgroundLayoutProcessor.cancel();
+          this.resetWheelZoomPreview();
+          this.layoutVersion.incrementAndGet();
+          this.holdScaledResources(this.config.getScale());
+          if (calculateElementSizes(gfx, this.model, this.config)) {
+            changeSizeOfComponent(
+                layoutFullDiagramWithCenteringToPaper(gfx, this.model, this.config,
+                    this.findPageSize()),
+                doListenerNotification);
+            result = true;
+
+            if (doListenerNotification) {
+              fireNotificationComponentElementsLayouted(graph);
             }
           }
-
-          changeSizeOfComponent(
-              layoutFullDiagramWithCenteringToPaper(gfx, this.model, this.config, pageSize),
-              doListenerNotification);
-          result = true;
-
-          if (doListenerNotification) {
-            fireNotificationComponentElementsLayouted(graph);
+        } finally {
+          if (recorder != null) {
+            this.fireFrameMetrics(recorder.finish());
           }
         }
       }
@@ -2459,26 +3033,71 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     return true;
   }
 
+  @Override
+  public void setBounds(final int x, final int y, final int width, final int height) {
+    this.sizeOnlyInvalidation = true;
+    try {
+      super.setBounds(x, y, width, height);
+    } finally {
+      this.sizeOnlyInvalidation = false;
+    }
+  }
+
   @Override
   public void invalidate() {
     super.invalidate();
+    if (this.sizeOnlyInvalidation) {
+      // current elements are painted until background layout for new size is published
+      return;
+    }
+    if (this.backgroundLayoutProcessor != null) {
+      // called in parent constructor before field init
+      this.backgroundLayoutProcessor.cancel();
+    }
     if (!this.isDisposed() && this.model != null && this.model.getRoot() != null) {
       this.model.clearAllPayloads();
+      this.layoutVersion.incrementAndGet();
     }
   }
 
   protected BirdsEyeVisualizer findBirdEyeVisualizer() {
-    return new InMapBirdsEye(this);
+    if (this.birdsEyeVisualizer == null) {
+      this.birdsEyeVisualizer = new InMapBirdsEye(this);
+    }
+    return this.birdsEyeVisualizer;
+  }
+
+  /**
+   * Get version of current layout of elements, it is changed every time when elements are
+   * recreated or laid out, so it can be used as key for cached renderings.
+   *
+   * @return layout version number
+   * @since 1.6.6
+   */
+  public long getLayoutVersion() {
+    return this.layoutVersion.get();
   }
 
   @Override
   public void paintComponent(final Graphics g) {
     assertNotDisposed();
+    final MetricsRecorder recorder = this.isMetricsCollected()
+        ? new MetricsRecorder(MindMapPanelMetrics.FrameType.PAINT).activate() : null;
+    final RenderResources.PaintPass paintPass = RenderResources.beginPaint(this);
     final Graphics2D gfx = (Graphics2D) g.create();
     try {
       final String error = this.errorText;
 
-      this.getConfiguration().getRenderQuality().prepare(gfx);
+      // scrolling of parent viewport doesn't produce any event for the panel,
+      // so detect it through change of visible area position
+      final Point viewPosition = this.getVisibleRect().getLocation();
+      if (this.lastPaintedViewPosition != null
+          && !this.lastPaintedViewPosition.equals(viewPosition)) {
+        this.markUserInteraction();
+      }
+      this.lastPaintedViewPosition = viewPosition;
+
+      this.findPaintRenderQuality().prepare(gfx);
 
       if (error != null) {
         drawErrorText(gfx, this.getSize(), error);
@@ -2486,9 +3105,28 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
         if (this.model.getRoot().getPayload() == null) {
           updateElementsAndSizeForGraphics(gfx, true, false);
         }
-        drawOnGraphicsForConfiguration(new MMGraphics2DWrapper(gfx), this.config, this.model,
-            true, this.selectedTopics);
-        drawDestinationElement(gfx, this.config);
+        final MindMapPanelConfig previewConfig = this.wheelZoomPreviewConfig;
+        if (previewConfig == null) {
+          drawOnGraphicsForConfiguration(new MMGraphics2DWrapper(gfx), this.config, this.model,
+              true, this.selectedTopics);
+          drawDestinationElement(gfx, this.config);
+        } else {
+          // elements are still laid out for the previous scale, so scale the graphics around
+          // the mouse point until exact layout is ready
+          final Graphics2D previewGfx = (Graphics2D) gfx.create();
+          try {
+            final double factor = this.getScale() / previewConfig.getScale();
+            previewGfx.translate(this.wheelZoomPreviewAnchor.getX(),
+                this.wheelZoomPreviewAnchor.getY());
+            previewGfx.scale(factor, factor);
+            previewGfx.translate(-this.wheelZoomPreviewAnchor.getX(),
+                -this.wheelZoomPreviewAnchor.getY());
+            drawOnGraphicsForConfiguration(new MMGraphics2DWrapper(previewGfx), previewConfig,
+                this.model, true, this.selectedTopics);
+          } finally {
+            previewGfx.dispose();
+          }
+        }
       }
 
       paintChildren(g);
@@ -2504,7 +3142,14 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
         this.findBirdEyeVisualizer().draw(this, gfx);
       }
     } finally {
+      if (recorder != null) {
+        this.fireFrameMetrics(recorder.finish());
+        if (this.metricsOverlayVisible) {
+          this.drawMetricsOverlay(gfx);
+        }
+      }
       gfx.dispose();
+      paintPass.close();
     }
   }
 
@@ -2555,15 +3200,11 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
   public void focusTo(final Topic theTopic) {
     assertNotDisposed();
     if (theTopic != null) {
-      final AbstractElement element = (AbstractElement) theTopic.getPayload();
-      if (element instanceof AbstractCollapsableElement) {
-        final AbstractCollapsableElement cel = (AbstractCollapsableElement) element;
-        if (MindMapUtils.ensureVisibility(cel.getModel())) {
-          doLayout();
-          revalidate();
-          repaint();
-          fireNotificationMindMapChanged(false);
-        }
+      if (MindMapUtils.ensureVisibility(theTopic)) {
+        doLayout();
+        revalidate();
+        repaint();
+        fireNotificationMindMapChanged(false);
       }
 
       removeAllSelection();
@@ -2639,7 +3280,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     this.endEdit(true);
     if (topics.length > 0) {
       final Clipboard clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
-      clipboard.setContents(new MMDTopicsTransferable(topics), this);
+      clipboard.setContents(new MMDTopicsTransferable(this.captureClipboardStates(topics)), this);
 
       if (cut) {
         deleteTopics(true, ensureNoRootInArray(topics));
@@ -2651,6 +3292,153 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     return result;
   }
 
+  /**
+   * Capture states of copied topics. States of the previous copy are reused for not changed
+   * subtrees, so that repeated copy of the same topics doesn't copy anything.
+   *
+   * @param topics topics to be captured, must not be null
+   * @return captured states, must not be null
+   */
+  private TopicState[] captureClipboardStates(final Topic[] topics) {
+    final long stamp = this.model.getModificationStamp();
+    final Map<Topic, TopicState> index = this.clipboardStateIndex;
+    if (index != null && stamp == this.clipboardStateStamp) {
+      final TopicState[] result = new TopicState[topics.length];
+      boolean allFound = true;
+      for (int i = 0; allFound && i < topics.length; i++) {
+        result[i] = index.get(topics[i]);
+        allFound = result[i] != null;
+      }
+      if (allFound) {
+        return result;
+      }
+    }
+    final TopicStateCapture capture = new TopicStateCapture(index);
+    final TopicState[] result = MMDTopicsTransferable.captureStates(capture, topics);
+    this.clipboardStateIndex = capture.getIndex();
+    this.clipboardStateStamp = stamp;
+    return result;
+  }
+
+  private boolean isAttachedToModel(final Topic topic) {
+    Topic root = topic;
+    while (root.getParent() != null) {
+      root = root.getParent();
+    }
+    return root == this.model.getRoot();
+  }
+
+  /**
+   * Paste topics from clipboard to currently selected ones in background. Reading of clipboard,
+   * parsing of text and making of topic copies for every selected topic are made in a worker
+   * thread, only adding of prepared topics to the model is made in the Swing dispatch thread.
+   * If a topic is under edit then text is inserted into editor immediately. A new paste, change
+   * of model or disposal of the panel cancels started paste without changes of the model.
+   *
+   * @param listener listener to get progress and result, can be null
+   * @return true if paste has been started or completed, false if there is nothing to paste
+   * @see #cancelPasteInBackground()
+   * @since 1.6.6
+   */
+  public boolean pasteTopicsFromClipboardInBackground(final PasteListener listener) {
+    assertNotDisposed();
+    assertSwingDispatchThread();
+
+    final Clipboard clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
+    final Callable<Topic[]> reader;
+    if (Utils.isDataFlavorAvailable(clipboard, MMDTopicsTransferable.MMD_DATA_FLAVOR)) {
+      reader = () -> {
+        final NBMindMapTopicsContainer container =
+            (NBMindMapTopicsContainer) clipboard.getData(MMDTopicsTransferable.MMD_DATA_FLAVOR);
+        return container == null ? null : container.getTopics();
+      };
+    } else if (this.elementUnderEdit == null
+        && this.getConfiguration().isSmartTextPaste()
+        && Utils.isDataFlavorAvailable(clipboard, DataFlavor.stringFlavor)) {
+      reader = () -> {
+        final String text = (String) clipboard.getData(DataFlavor.stringFlavor);
+        if (text == null) {
+          return null;
+        }
+        final Topic holder = new Topic(new MindMap(false), null, "");
+        MindMapUtils.makeSubTreeFromText(holder, text);
+        return holder.getChildren().toArray(new Topic[0]);
+      };
+    } else {
+      final boolean result = this.pasteTopicsFromClipboard();
+      if (listener != null) {
+        listener.onPasteCompleted(this, result);
+      }
+      return result;
+    }
+
+    final Topic[] targets = this.getSelectedTopics();
+    if (targets.length == 0) {
+      return false;
+    }
+    this.endEdit(true);
+    this.cancelPasteInBackground();
+    this.activePasteListener = listener;
+
+    final MindMap targetModel = this.model;
+    this.backgroundPasteProcessor.submit(reader, targetModel, targets.length,
+        listener == null ? null
+            : (prepared, total) -> listener.onPasteProgress(this, prepared, total),
+        prepared -> {
+          this.activePasteListener = null;
+          boolean pasted = false;
+          if (prepared != null && !this.isDisposed() && this.model == targetModel) {
+            for (int i = 0; i < targets.length; i++) {
+              if (!this.isAttachedToModel(targets[i])) {
+                continue;
+              }
+              for (final Topic t : prepared[i]) {
+                t.removeExtra(Extra.ExtraType.TOPIC);
+                t.moveToNewParent(targets[i]);
+                MindMapUtils.ensureVisibility(t);
+                pasted = true;
+              }
+            }
+            if (pasted) {
+              doLayout();
+              revalidate();
+              repaint();
+              fireNotificationMindMapChanged(true);
+            }
+          }
+          if (listener != null) {
+            listener.onPasteCompleted(this, pasted);
+          }
+        });
+    return true;
+  }
+
+  /**
+   * Cancel paste started in background, the model is not changed by cancelled paste and
+   * listener of the paste gets notification that nothing pasted.
+   *
+   * @see #pasteTopicsFromClipboardInBackground(PasteListener)
+   * @since 1.6.6
+   */
+  public void cancelPasteInBackground() {
+    this.backgroundPasteProcessor.cancel();
+    final PasteListener listener = this.activePasteListener;
+    this.activePasteListener = null;
+    if (listener != null) {
+      listener.onPasteCompleted(this, false);
+    }
+  }
+
+  /**
+   * Check that there is a paste in background which is not completed yet.
+   *
+   * @return true if paste is in progress
+   * @since 1.6.6
+   */
+  public boolean isPasteInBackgroundActive() {
+    return this.backgroundPasteProcessor.isActive();
+  }
+
   /**
    * Paste topics from clipboard to currently selected ones.
    *
@@ -2671,9 +3459,10 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
           this.endEdit(true);
 
           final Topic[] selected = this.getSelectedTopics();
+          final Topic[] pasted = container.getTopics();
 
           for (final Topic s : selected) {
-            for (final Topic t : container.getTopics()) {
+            for (final Topic t : pasted) {
               final Topic newTopic = new Topic(this.model, t, true);
               newTopic.removeExtra(Extra.ExtraType.TOPIC);
               newTopic.moveToNewParent(s);
@@ -2753,8 +3542,20 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
 
   public void dispose() {
     if (this.disposed.compareAndSet(false, true)) {
+      this.metricsListeners.clear();
+      this.wheelZoomRelayoutTimer.stop();
+      this.renderQualityRestoreTimer.stop();
+      this.resetWheelZoomPreview();
+      this.backgroundLayoutProcessor.cancel();
+      this.cancelPasteInBackground();
+      this.clipboardStateIndex = null;
       this.selectedTopics.clear();
       this.mindMapListeners.clear();
+      this.geometryIndex = null;
+      if (!Double.isNaN(this.scaledResourceScale)) {
+        ScaledResourceCache.release(this.scaledResourceScale);
+        this.scaledResourceScale = Double.NaN;
+      }
 
       for (final PanelAwarePlugin p : MindMapPluginRegistry.getInstance()
           .findFor(PanelAwarePlugin.class)) {
@@ -2768,6 +3569,32 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     this.fireNotificationMindMapChanged(addToHistory);
   }
 
+  /**
+   * Listener of paste made in background.
+   *
+   * @see MindMapPanel#pasteTopicsFromClipboardInBackground(PasteListener)
+   * @since 1.6.6
+   */
+  public interface PasteListener {
+
+    /**
+     * Called in Swing dispatch thread to notify about prepared pasted topics.
+     *
+     * @param source         source panel
+     * @param preparedTopics number of prepared topics
+     * @param totalTopics    total number of topics to be pasted
+     */
+    void onPasteProgress(MindMapPanel source, int preparedTopics, int totalTopics);
+
+    /**
+     * Called in Swing dispatch thread when paste is completed or cancelled.
+     *
+     * @param source source panel
+     * @param pasted true if topics have been added to the model
+     */
+    void onPasteCompleted(MindMapPanel source, boolean pasted);
+  }
+
   /**
    * Some Job over mind map model.
    *
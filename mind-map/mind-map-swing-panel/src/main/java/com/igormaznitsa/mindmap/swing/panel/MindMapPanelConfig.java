@@ -20,6 +20,7 @@ import static java.util.Objects.requireNonNull;
 
 import com.igormaznitsa.mindmap.model.MiscUtils;
 import com.igormaznitsa.mindmap.swing.panel.utils.KeyShortcut;
+import com.igormaznitsa.mindmap.swing.panel.utils.LevelOfDetail;
 import com.igormaznitsa.mindmap.swing.panel.utils.MouseButton;
 import com.igormaznitsa.mindmap.swing.panel.utils.RenderQuality;
 import com.igormaznitsa.mindmap.swing.panel.utils.Utils;
@@ -36,8 +37,6 @@ import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.lang.ref.Reference;
 import java.lang.ref.WeakReference;
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
 import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
@@ -45,6 +44,8 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.prefs.BackingStoreException;
 import java.util.prefs.Preferences;
 import java.util.stream.Stream;
@@ -79,6 +80,120 @@ public final class MindMapPanelConfig implements Serializable {
   public static final String PREFIX_OPTIONAL_PROPERTY = "optionalProperty.";
   public static final String PREFIX_SHORTCUT = "mapShortCut.";
   private static final long serialVersionUID = -4263687011484460064L;
+  private static final ChangeImpact MAP_SHORTCUT_CHANGE_IMPACT = ChangeImpact.NONE;
+  private static final ChangeImpact OPTIONAL_PROPERTIES_CHANGE_IMPACT = ChangeImpact.REMEASURE;
+
+  /**
+   * Table of accessors for all stored properties except maps, it allows to copy, compare and
+   * persist configuration without reflection.
+   */
+  private static final ConfigProperty[] PROPERTIES = new ConfigProperty[] {
+      new ConfigProperty("collapsatorSize", int.class, ChangeImpact.REMEASURE,
+          c -> c.collapsatorSize, (c, v) -> c.collapsatorSize = (Integer) v),
+      new ConfigProperty("textMargins", int.class, ChangeImpact.REMEASURE,
+          c -> c.textMargins, (c, v) -> c.textMargins = (Integer) v),
+      new ConfigProperty("otherLevelVerticalInset", int.class, ChangeImpact.REALIGN,
+          c -> c.otherLevelVerticalInset, (c, v) -> c.otherLevelVerticalInset = (Integer) v),
+      new ConfigProperty("otherLevelHorizontalInset", int.class, ChangeImpact.REALIGN,
+          c -> c.otherLevelHorizontalInset, (c, v) -> c.otherLevelHorizontalInset = (Integer) v),
+      new ConfigProperty("firstLevelVerticalInset", int.class, ChangeImpact.REALIGN,
+          c -> c.firstLevelVerticalInset, (c, v) -> c.firstLevelVerticalInset = (Integer) v),
+      new ConfigProperty("firstLevelHorizontalInset", int.class, ChangeImpact.REALIGN,
+          c -> c.firstLevelHorizontalInset, (c, v) -> c.firstLevelHorizontalInset = (Integer) v),
+      new ConfigProperty("paperMargins", int.class, ChangeImpact.REALIGN,
+          c -> c.paperMargins, (c, v) -> c.paperMargins = (Integer) v),
+      new ConfigProperty("selectLineGap", int.class, ChangeImpact.REPAINT,
+          c -> c.selectLineGap, (c, v) -> c.selectLineGap = (Integer) v),
+      new ConfigProperty("horizontalBlockGap", int.class, ChangeImpact.REMEASURE,
+          c -> c.horizontalBlockGap, (c, v) -> c.horizontalBlockGap = (Integer) v),
+      new ConfigProperty("scaleModifiers", int.class, ChangeImpact.NONE,
+          c -> c.scaleModifiers, (c, v) -> c.scaleModifiers = (Integer) v),
+      new ConfigProperty("drawBackground", boolean.class, ChangeImpact.REPAINT,
+          c -> c.drawBackground, (c, v) -> c.drawBackground = (Boolean) v),
+      new ConfigProperty("paperColor", Color.class, ChangeImpact.REPAINT,
+          c -> c.paperColor, (c, v) -> c.paperColor = (Color) v),
+      new ConfigProperty("gridColor", Color.class, ChangeImpact.REPAINT,
+          c -> c.gridColor, (c, v) -> c.gridColor = (Color) v),
+      new ConfigProperty("showGrid", boolean.class, ChangeImpact.REPAINT,
+          c -> c.showGrid, (c, v) -> c.showGrid = (Boolean) v),
+      new ConfigProperty("gridStep", int.class, ChangeImpact.REPAINT,
+          c -> c.gridStep, (c, v) -> c.gridStep = (Integer) v),
+      new ConfigProperty("rootBackgroundColor", Color.class, ChangeImpact.REPAINT,
+          c -> c.rootBackgroundColor, (c, v) -> c.rootBackgroundColor = (Color) v),
+      new ConfigProperty("firstLevelBackgroundColor", Color.class, ChangeImpact.REPAINT,
+          c -> c.firstLevelBackgroundColor, (c, v) -> c.firstLevelBackgroundColor = (Color) v),
+      new ConfigProperty("otherLevelBackgroundColor", Color.class, ChangeImpact.REPAINT,
+          c -> c.otherLevelBackgroundColor, (c, v) -> c.otherLevelBackgroundColor = (Color) v),
+      new ConfigProperty("rootTextColor", Color.class, ChangeImpact.REPAINT,
+          c -> c.rootTextColor, (c, v) -> c.rootTextColor = (Color) v),
+      new ConfigProperty("firstLevelTextColor", Color.class, ChangeImpact.REPAINT,
+          c -> c.firstLevelTextColor, (c, v) -> c.firstLevelTextColor = (Color) v),
+      new ConfigProperty("otherLevelTextColor", Color.class, ChangeImpact.REPAINT,
+          c -> c.otherLevelTextColor, (c, v) -> c.otherLevelTextColor = (Color) v),
+      new ConfigProperty("elementBorderColor", Color.class, ChangeImpact.REPAINT,
+          c -> c.elementBorderColor, (c, v) -> c.elementBorderColor = (Color) v),
+      new ConfigProperty("connectorColor", Color.class, ChangeImpact.REPAINT,
+          c -> c.connectorColor, (c, v) -> c.connectorColor = (Color) v),
+      new ConfigProperty("shadowColor", Color.class, ChangeImpact.REPAINT,
+          c -> c.shadowColor, (c, v) -> c.shadowColor = (Color) v),
+      new ConfigProperty("collapsatorBorderColor", Color.class, ChangeImpact.REPAINT,
+          c -> c.collapsatorBorderColor, (c, v) -> c.collapsatorBorderColor = (Color) v),
+      new ConfigProperty("collapsatorBackgroundColor", Color.class, ChangeImpact.REPAINT,
+          c -> c.collapsatorBackgroundColor, (c, v) -> c.collapsatorBackgroundColor = (Color) v),
+      new ConfigProperty("selectLineColor", Color.class, ChangeImpact.REPAINT,
+          c -> c.selectLineColor, (c, v) -> c.selectLineColor = (Color) v),
+      new ConfigProperty("jumpLinkColor", Color.class, ChangeImpact.REPAINT,
+          c -> c.jumpLinkColor, (c, v) -> c.jumpLinkColor = (Color) v),
+      new ConfigProperty("birdseyeBackground", Color.class, ChangeImpact.REPAINT,
+          c -> c.birdseyeBackground, (c, v) -> c.birdseyeBackground = (Color) v),
+      new ConfigProperty("birdseyeFront", Color.class, ChangeImpact.REPAINT,
+          c -> c.birdseyeFront, (c, v) -> c.birdseyeFront = (Color) v),
+      new ConfigProperty("shadowOffset", float.class, ChangeImpact.REPAINT,
+          c -> c.shadowOffset, (c, v) -> c.shadowOffset = (Float) v),
+      new ConfigProperty("elementBorderWidth", float.class, ChangeImpact.REMEASURE,
+          c -> c.elementBorderWidth, (c, v) -> c.elementBorderWidth = (Float) v),
+      new ConfigProperty("collapsatorBorderWidth", float.class, ChangeImpact.REPAINT,
+          c -> c.collapsatorBorderWidth, (c, v) -> c.collapsatorBorderWidth = (Float) v),
+      new ConfigProperty("connectorWidth", float.class, ChangeImpact.REPAINT,
+          c -> c.connectorWidth, (c, v) -> c.connectorWidth = (Float) v),
+      new ConfigProperty("selectLineWidth", float.class, ChangeImpact.REPAINT,
+          c -> c.selectLineWidth, (c, v) -> c.selectLineWidth = (Float) v),
+      new ConfigProperty("jumpLinkWidth", float.class, ChangeImpact.REPAINT,
+          c -> c.jumpLinkWidth, (c, v) -> c.jumpLinkWidth = (Float) v),
+      new ConfigProperty("smartTextPaste", boolean.class, ChangeImpact.NONE,
+          c -> c.smartTextPaste, (c, v) -> c.smartTextPaste = (Boolean) v),
+      new ConfigProperty("font", Font.class, ChangeImpact.REMEASURE,
+          c -> c.font, (c, v) -> c.font = (Font) v),
+      new ConfigProperty("scale", double.class, ChangeImpact.REMEASURE,
+          c -> c.scale, (c, v) -> c.scale = (Double) v),
+      new ConfigProperty("dropShadow", boolean.class, ChangeImpact.REPAINT,
+          c -> c.dropShadow, (c, v) -> c.dropShadow = (Boolean) v),
+      new ConfigProperty("renderQuality", RenderQuality.class, ChangeImpact.REPAINT,
+          c -> c.renderQuality, (c, v) -> c.renderQuality = (RenderQuality) v),
+      new ConfigProperty("birdseyeMouseButton", MouseButton.class, ChangeImpact.NONE,
+          c -> c.birdseyeMouseButton, (c, v) -> c.birdseyeMouseButton = (MouseButton) v),
+      new ConfigProperty("levelOfDetailEnabled", boolean.class, ChangeImpact.REPAINT,
+          c -> c.levelOfDetailEnabled, (c, v) -> c.levelOfDetailEnabled = (Boolean) v),
+      new ConfigProperty("levelOfDetailSimplifiedScale", double.class, ChangeImpact.REPAINT,
+          c -> c.levelOfDetailSimplifiedScale,
+          (c, v) -> c.levelOfDetailSimplifiedScale = (Double) v),
+      new ConfigProperty("levelOfDetailSkeletonScale", double.class, ChangeImpact.REPAINT,
+          c -> c.levelOfDetailSkeletonScale, (c, v) -> c.levelOfDetailSkeletonScale = (Double) v),
+      new ConfigProperty("wheelZoomPreview", boolean.class, ChangeImpact.NONE,
+          c -> c.wheelZoomPreview, (c, v) -> c.wheelZoomPreview = (Boolean) v),
+      new ConfigProperty("wheelZoomRelayoutDelay", int.class, ChangeImpact.NONE,
+          c -> c.wheelZoomRelayoutDelay, (c, v) -> c.wheelZoomRelayoutDelay = (Integer) v),
+      new ConfigProperty("displayListCache", boolean.class, ChangeImpact.REPAINT,
+          c -> c.displayListCache, (c, v) -> c.displayListCache = (Boolean) v),
+      new ConfigProperty("asyncImageLoading", boolean.class, ChangeImpact.REPAINT,
+          c -> c.asyncImageLoading, (c, v) -> c.asyncImageLoading = (Boolean) v),
+      new ConfigProperty("adaptiveRenderQuality", boolean.class, ChangeImpact.NONE,
+          c -> c.adaptiveRenderQuality, (c, v) -> c.adaptiveRenderQuality = (Boolean) v),
+      new ConfigProperty("adaptiveRenderQualityDelay", int.class, ChangeImpact.NONE,
+          c -> c.adaptiveRenderQualityDelay, (c, v) -> c.adaptiveRenderQualityDelay = (Integer) v)
+  };
+
+
   private transient final List<WeakReference<MindMapConfigListener>> listeners =
       new CopyOnWriteArrayList<>();
   private final Serializable NULL_OPTIONAL_OBJECT = "some_null_object";
@@ -126,7 +241,17 @@ public final class MindMapPanelConfig implements Serializable {
   private boolean dropShadow = true;
   private RenderQuality renderQuality = Utils.getDefaultRenderQialityForOs();
   private MouseButton birdseyeMouseButton = MouseButton.BUTTON_3;
+  private boolean levelOfDetailEnabled = true;
+  private double levelOfDetailSimplifiedScale = 0.45d;
+  private double levelOfDetailSkeletonScale = 0.2d;
+  private boolean wheelZoomPreview = true;
+  private int wheelZoomRelayoutDelay = 250;
+  private boolean displayListCache = true;
+  private boolean asyncImageLoading = true;
+  private boolean adaptiveRenderQuality = true;
+  private int adaptiveRenderQualityDelay = 300;
   private transient volatile boolean notificationEnabled = true;
+  private transient volatile long modificationCounter;
 
 
   public MindMapPanelConfig(final MindMapPanelConfig cfg, final boolean copyListeners) {
@@ -315,6 +440,7 @@ public final class MindMapPanelConfig implements Serializable {
     synchronized (this.optionalProperties) {
       this.optionalProperties.put(id, value == null ? NULL_OPTIONAL_OBJECT : value);
     }
+    this.modificationCounter++;
   }
 
   public KeyShortcut getKeyShortCut(final String id) {
@@ -336,6 +462,7 @@ public final class MindMapPanelConfig implements Serializable {
       this.optionalProperties.clear();
       this.optionalProperties.putAll(properties);
     }
+    this.modificationCounter++;
   }
 
   @SettingsAccessor(name = "mapShortCut")
@@ -350,25 +477,9 @@ public final class MindMapPanelConfig implements Serializable {
   }
 
   public boolean hasDifferenceInParameters(final MindMapPanelConfig etalon) {
-    for (final Field f : MindMapPanelConfig.class.getDeclaredFields()) {
-      if ((f.getModifiers() & (Modifier.STATIC | Modifier.TRANSIENT | Modifier.FINAL)) != 0) {
-        continue;
-      }
-      try {
-        final Object thisValue = f.get(this);
-        final Object thatValue = f.get(etalon);
-
-        if (thisValue == null && thatValue == null) {
-          continue;
-        }
-        if (thisValue == null || !thisValue.equals(thatValue)) {
-          return true;
-        }
-
-      } catch (IllegalAccessException ex) {
-        throw new Error("IllegalAccessException [" + f.getName() + ']', ex);
-      } catch (IllegalArgumentException ex) {
-        throw new Error("IllegalArgumentException [" + f.getName() + ']', ex);
+    for (final ConfigProperty p : PROPERTIES) {
+      if (!Objects.equals(p.getter.apply(this), p.getter.apply(etalon))) {
+        return true;
       }
     }
 
@@ -376,77 +487,92 @@ public final class MindMapPanelConfig implements Serializable {
         || !this.optionalProperties.equals(etalon.optionalProperties);
   }
 
+  /**
+   * Find minimal work needed to show map drawn for etalon configuration with this configuration.
+   *
+   * @param etalon configuration used to draw map, must not be null
+   * @return impact of difference between configurations, NONE if there is no visible difference
+   * @since 1.6.6
+   */
+  public ChangeImpact findChangeImpact(final MindMapPanelConfig etalon) {
+    ChangeImpact result = ChangeImpact.NONE;
+    for (final ConfigProperty p : PROPERTIES) {
+      if (p.impact.compareTo(result) > 0
+          && !Objects.equals(p.getter.apply(this), p.getter.apply(etalon))) {
+        result = p.impact;
+      }
+    }
+    if (OPTIONAL_PROPERTIES_CHANGE_IMPACT.compareTo(result) > 0
+        && !this.optionalProperties.equals(etalon.optionalProperties)) {
+      result = OPTIONAL_PROPERTIES_CHANGE_IMPACT;
+    }
+    if (MAP_SHORTCUT_CHANGE_IMPACT.compareTo(result) > 0
+        && !this.mapShortCut.equals(etalon.mapShortCut)) {
+      result = MAP_SHORTCUT_CHANGE_IMPACT;
+    }
+    return result;
+  }
+
   public Preferences saveTo(final Preferences prefs) {
     if (prefs != null) {
       final String prefix = MindMapPanelConfig.class.getSimpleName();
 
-      for (final Field f : MindMapPanelConfig.class.getDeclaredFields()) {
-        if ((f.getModifiers() & (Modifier.STATIC | Modifier.TRANSIENT | Modifier.FINAL)) != 0) {
-          continue;
+      for (final ConfigProperty p : PROPERTIES) {
+        final Class<?> fieldClass = p.type;
+        final String fieldName = prefix + '.' + p.name;
+        final Object value = p.getter.apply(this);
+
+        if (fieldClass == boolean.class) {
+          prefs.putBoolean(fieldName, (Boolean) value);
+        } else if (fieldClass == int.class) {
+          prefs.putInt(fieldName, (Integer) value);
+        } else if (fieldClass == float.class) {
+          prefs.putFloat(fieldName, (Float) value);
+        } else if (fieldClass == double.class) {
+          prefs.putDouble(fieldName, (Double) value);
+        } else if (fieldClass == Font.class) {
+          final Font theFont = (Font) value;
+          prefs.put(fieldName + ".name", theFont.getName());
+          prefs.putInt(fieldName + ".size", theFont.getSize());
+          prefs.putInt(fieldName + ".style", theFont.getStyle());
+        } else if (fieldClass == Color.class) {
+          prefs.putInt(fieldName, ((Color) value).getRGB());
+        } else if (fieldClass == String.class) {
+          prefs.put(fieldName, (String) value);
+        } else if (fieldClass == RenderQuality.class) {
+          prefs.put(fieldName, ((RenderQuality) value).name());
+        } else if (fieldClass == MouseButton.class) {
+          prefs.put(fieldName, ((MouseButton) value).name());
+        } else {
+          throw new Error("Unexpected field type " + fieldClass.getName());
         }
+      }
 
-        final Class<?> fieldClass = f.getType();
-        final String fieldName = prefix + '.' + f.getName();
-
-        try {
-          if (fieldClass == boolean.class) {
-            prefs.putBoolean(fieldName, f.getBoolean(this));
-          } else if (fieldClass == int.class) {
-            prefs.putInt(fieldName, f.getInt(this));
-          } else if (fieldClass == float.class) {
-            prefs.putFloat(fieldName, f.getFloat(this));
-          } else if (fieldClass == double.class) {
-            prefs.putDouble(fieldName, f.getDouble(this));
-          } else if (fieldClass == Font.class) {
-            final Font theFont = (Font) f.get(this);
-            prefs.put(fieldName + ".name", theFont.getName());
-            prefs.putInt(fieldName + ".size", theFont.getSize());
-            prefs.putInt(fieldName + ".style", theFont.getStyle());
-          } else if (fieldClass == Color.class) {
-            prefs.putInt(fieldName, ((Color) f.get(this)).getRGB());
-          } else if (fieldClass == String.class) {
-            prefs.put(fieldName, (String) f.get(this));
-          } else if (fieldClass == RenderQuality.class) {
-            prefs.put(fieldName, ((RenderQuality) f.get(this)).name());
-          } else if (fieldClass == MouseButton.class) {
-            prefs.put(fieldName, ((MouseButton) f.get(this)).name());
-          } else if (fieldClass == Map.class) {
-            if (f.getName().equals("mapShortCut")) {
-              for (final Map.Entry<String, KeyShortcut> e : this.mapShortCut.entrySet()) {
-                prefs.put(PREFIX_SHORTCUT + e.getValue().getID(), e.getValue().packToString());
-              }
-            } else {
-              synchronized (this.optionalProperties) {
-                for (final Map.Entry<String, Serializable> e : this.optionalProperties.entrySet()) {
-                  final String key = PREFIX_OPTIONAL_PROPERTY + e.getKey();
-                  if (e.getValue() == NULL_OPTIONAL_OBJECT) {
-                    prefs.remove(key);
-                  } else {
-                    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-                    try {
-                      final ObjectOutputStream objectOutputStream =
-                          new ObjectOutputStream(outputStream);
-                      objectOutputStream.writeObject(e.getValue());
-                      objectOutputStream.close();
-                      final String encodedValue =
-                          Base64.getEncoder().encodeToString(outputStream.toByteArray());
-                      prefs.put(key, encodedValue);
-                    } catch (final IOException ex) {
-                      throw new RuntimeException("Error during write optional property: " + e, ex);
-                    }
-                  }
-                }
-                this.optionalProperties.values().removeIf(x -> x == NULL_OPTIONAL_OBJECT);
-              }
-            }
+      for (final Map.Entry<String, KeyShortcut> e : this.mapShortCut.entrySet()) {
+        prefs.put(PREFIX_SHORTCUT + e.getValue().getID(), e.getValue().packToString());
+      }
+
+      synchronized (this.optionalProperties) {
+        for (final Map.Entry<String, Serializable> e : this.optionalProperties.entrySet()) {
+          final String key = PREFIX_OPTIONAL_PROPERTY + e.getKey();
+          if (e.getValue() == NULL_OPTIONAL_OBJECT) {
+            prefs.remove(key);
           } else {
-            throw new Error("Unexpected field type " + fieldClass.getName());
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            try {
+              final ObjectOutputStream objectOutputStream =
+                  new ObjectOutputStream(outputStream);
+              objectOutputStream.writeObject(e.getValue());
+              objectOutputStream.close();
+              final String encodedValue =
+                  Base64.getEncoder().encodeToString(outputStream.toByteArray());
+              prefs.put(key, encodedValue);
+            } catch (final IOException ex) {
+              throw new RuntimeException("Error during write optional property: " + e, ex);
+            }
           }
-        } catch (IllegalAccessException ex) {
-          throw new Error("IllegalAccessException [" + fieldClass.getName() + ']', ex);
-        } catch (IllegalArgumentException ex) {
-          throw new Error("IllegalArgumentException [" + fieldClass.getName() + ']', ex);
         }
+        this.optionalProperties.values().removeIf(x -> x == NULL_OPTIONAL_OBJECT);
       }
     }
     return prefs;
@@ -458,98 +584,83 @@ public final class MindMapPanelConfig implements Serializable {
 
       final MindMapPanelConfig etalon = new MindMapPanelConfig();
 
-      for (final Field f : MindMapPanelConfig.class.getDeclaredFields()) {
-        if ((f.getModifiers() & (Modifier.STATIC | Modifier.TRANSIENT | Modifier.FINAL)) != 0) {
-          continue;
+      for (final ConfigProperty p : PROPERTIES) {
+        final Class<?> fieldClass = p.type;
+        final String fieldName = prefix + '.' + p.name;
+        final Object etalonValue = p.getter.apply(etalon);
+
+        if (fieldClass == boolean.class) {
+          p.setter.accept(this, prefs.getBoolean(fieldName, (Boolean) etalonValue));
+        } else if (fieldClass == int.class) {
+          p.setter.accept(this, prefs.getInt(fieldName, (Integer) etalonValue));
+        } else if (fieldClass == float.class) {
+          p.setter.accept(this, prefs.getFloat(fieldName, (Float) etalonValue));
+        } else if (fieldClass == double.class) {
+          p.setter.accept(this, prefs.getDouble(fieldName, (Double) etalonValue));
+        } else if (fieldClass == Font.class) {
+          final Font etalonFont = (Font) etalonValue;
+
+          final String fontName = prefs.get(fieldName + ".name", etalonFont.getName());
+          final int fontSize = prefs.getInt(fieldName + ".size", etalonFont.getSize());
+          final int fontStyle = prefs.getInt(fieldName + ".style", etalonFont.getStyle());
+
+          p.setter.accept(this, new Font(fontName, fontStyle, fontSize));
+        } else if (fieldClass == Color.class) {
+          final int argb = prefs.getInt(fieldName, ((Color) etalonValue).getRGB());
+          p.setter.accept(this, new Color(argb, true));
+        } else if (fieldClass == String.class) {
+          p.setter.accept(this, prefs.get(fieldName, (String) etalonValue));
+        } else if (fieldClass == RenderQuality.class) {
+          final String name = prefs.get(fieldName, ((RenderQuality) etalonValue).name());
+          p.setter.accept(this, RenderQuality.valueOf(name));
+        } else if (fieldClass == MouseButton.class) {
+          final String name = prefs.get(fieldName, ((MouseButton) etalonValue).name());
+          p.setter.accept(this, MouseButton.valueOf(name));
+        } else {
+          throw new Error("Unexpected field type " + fieldClass.getName());
         }
+      }
 
-        final Class<?> fieldClass = f.getType();
-        final String fieldName = prefix + '.' + f.getName();
-
-        try {
-          if (fieldClass == boolean.class) {
-            f.setBoolean(this, prefs.getBoolean(fieldName, f.getBoolean(etalon)));
-          } else if (fieldClass == int.class) {
-            f.setInt(this, prefs.getInt(fieldName, f.getInt(etalon)));
-          } else if (fieldClass == float.class) {
-            f.setFloat(this, prefs.getFloat(fieldName, f.getFloat(etalon)));
-          } else if (fieldClass == double.class) {
-            f.setDouble(this, prefs.getDouble(fieldName, f.getDouble(etalon)));
-          } else if (fieldClass == Font.class) {
-            final Font etalonFont = etalon.getFont();
-
-            final String fontName = prefs.get(fieldName + ".name", etalonFont.getName());
-            final int fontSize = prefs.getInt(fieldName + ".size", etalonFont.getSize());
-            final int fontStyle = prefs.getInt(fieldName + ".style", etalonFont.getStyle());
-
-            f.set(this, new Font(fontName, fontStyle, fontSize));
-          } else if (fieldClass == Color.class) {
-            final int argb = prefs.getInt(fieldName, ((Color) f.get(etalon)).getRGB());
-            f.set(this, new Color(argb, true));
-          } else if (fieldClass == String.class) {
-            f.set(this, prefs.get(fieldName, (String) f.get(etalon)));
-          } else if (fieldClass == RenderQuality.class) {
-            final String name = prefs.get(fieldName, ((RenderQuality) f.get(etalon)).name());
-            f.set(this, RenderQuality.valueOf(name));
-          } else if (fieldClass == MouseButton.class) {
-            final String name = prefs.get(fieldName, ((MouseButton) f.get(etalon)).name());
-            f.set(this, MouseButton.valueOf(name));
-          } else if (fieldClass == Map.class) {
-            if (f.getName().equals("mapShortCut")) {
-              this.mapShortCut.clear();
-              this.mapShortCut.putAll(etalon.mapShortCut);
-              try {
-                for (final String k : prefs.keys()) {
-                  if (k.startsWith(PREFIX_SHORTCUT)) {
-//            final int dotIndex = k.indexOf('.');
-//            final String id = k.substring(dotIndex + 1);
-                    final String packedValue = prefs.get(k, "");
-                    if (packedValue.isEmpty()) {
-                      throw new Error("Unexpected situation, short cut value is empty [" + k + ']');
-                    }
-                    final KeyShortcut unpacked = new KeyShortcut(packedValue);
-                    this.mapShortCut.put(unpacked.getID(), unpacked);
-                  }
-                }
-              } catch (BackingStoreException ex) {
-                throw new Error("Can't get list of keys from storage", ex);
-              }
-            } else {
-              this.optionalProperties.clear();
-              this.optionalProperties.putAll(etalon.optionalProperties);
-
-              try {
-                for (final String k : prefs.keys()) {
-                  if (k.startsWith(PREFIX_OPTIONAL_PROPERTY)) {
-                    final String propertyName = k.substring(k.indexOf('.') + 1);
-                    final String value = prefs.get(k, null);
-                    if (value == null) {
-                      throw new Error("Unexpected situation, property value is null [" + k + ']');
-                    }
-                    try {
-                      final Serializable readValue =
-                          (Serializable) new ObjectInputStream(
-                              new ByteArrayInputStream(
-                                  Base64.getDecoder().decode(value))).readObject();
-                      if (readValue != null) {
-                        this.optionalProperties.put(propertyName, readValue);
-                      }
-                    } catch (ClassNotFoundException | IOException ex) {
-                      // ignore error to save possibility to load config
-                    }
-                  }
-                }
-              } catch (BackingStoreException ex) {
-                throw new Error("Can't get list of keys from storage", ex);
-              }
+      final String[] keys;
+      try {
+        keys = prefs.keys();
+      } catch (BackingStoreException ex) {
+        throw new Error("Can't get list of keys from storage", ex);
+      }
+
+      this.mapShortCut.clear();
+      this.mapShortCut.putAll(etalon.mapShortCut);
+      for (final String k : keys) {
+        if (k.startsWith(PREFIX_SHORTCUT)) {
+          final String packedValue = prefs.get(k, "");
+          if (packedValue.isEmpty()) {
+            throw new Error("Unexpected situation, short cut value is empty [" + k + ']');
+          }
+          final KeyShortcut unpacked = new KeyShortcut(packedValue);
+          this.mapShortCut.put(unpacked.getID(), unpacked);
+        }
+      }
+
+      this.optionalProperties.clear();
+      this.optionalProperties.putAll(etalon.optionalProperties);
+      for (final String k : keys) {
+        if (k.startsWith(PREFIX_OPTIONAL_PROPERTY)) {
+          final String propertyName = k.substring(k.indexOf('.') + 1);
+          final String value = prefs.get(k, null);
+          if (value == null) {
+            throw new Error("Unexpected situation, property value is null [" + k + ']');
+          }
+          try {
+            final Serializable readValue =
+                (Serializable) new ObjectInputStream(
+                    new ByteArrayInputStream(
+                        Base64.getDecoder().decode(value))).readObject();
+            if (readValue != null) {
+              this.optionalProperties.put(propertyName, readValue);
             }
-          } else {
-            throw new Error("Unexpected field type " + fieldClass.getName());
+          } catch (ClassNotFoundException | IOException ex) {
+            // ignore error to save possibility to load config
           }
-        } catch (IllegalAccessException ex) {
-          throw new Error("IllegalAccessException [" + fieldClass.getName() + ']', ex);
-        } catch (IllegalArgumentException ex) {
-          throw new Error("IllegalArgumentException [" + fieldClass.getName() + ']', ex);
         }
       }
     }
@@ -594,25 +705,18 @@ public final class MindMapPanelConfig implements Serializable {
   public void makeFullCopyOf(final MindMapPanelConfig src, final boolean copyListeners,
                              final boolean makeNotification) {
     if (src != null) {
-      for (final Field f : MindMapPanelConfig.class.getDeclaredFields()) {
-        if (f.getName().equals("listeners")) {
-          if (copyListeners) {
-            this.listeners.clear();
-            this.listeners.addAll(src.listeners);
-          }
-        } else if ((f.getModifiers() & (Modifier.STATIC | Modifier.FINAL)) == 0 &&
-            f.getType() != Map.class) {
-          try {
-            Object value = f.get(src);
-            if (value instanceof Font) {
-              final Font font = (Font)value;
-              value = cloneFont(font); // prevent possible bugs in deserialization of font object in IDE like IDEA
-            }
-            f.set(this, value);
-          } catch (Exception ex) {
-            throw new Error("Unexpected state during cloning field " + f, ex);
-          }
+      if (copyListeners) {
+        this.listeners.clear();
+        this.listeners.addAll(src.listeners);
+      }
+
+      for (final ConfigProperty p : PROPERTIES) {
+        Object value = p.getter.apply(src);
+        if (value instanceof Font) {
+          final Font font = (Font) value;
+          value = cloneFont(font); // prevent possible bugs in deserialization of font object in IDE like IDEA
         }
+        p.setter.accept(this, value);
       }
 
       this.mapShortCut.clear();
@@ -651,7 +755,20 @@ public final class MindMapPanelConfig implements Serializable {
     return result;
   }
 
+  /**
+   * Get counter of changes of the configuration, it is changed by every setter of parameters
+   * which can affect rendering, so that the counter together with the configuration instance
+   * can be used as key for cached renderings.
+   *
+   * @return modification counter
+   * @since 1.6.6
+   */
+  public long getModificationCounter() {
+    return this.modificationCounter;
+  }
+
   private void notifyCfgListenersAboutChange() {
+    this.modificationCounter++;
     if (this.notificationEnabled) {
       this.listeners.stream().map(Reference::get)
           .filter(Objects::nonNull)
@@ -1051,6 +1168,7 @@ public final class MindMapPanelConfig implements Serializable {
   @SettingsAccessor(name = "shadowOffset")
   public void setShadowOffset(final float value) {
     this.shadowOffset = value;
+    this.modificationCounter++;
   }
 
   @SettingsAccessor(name = "connectorWidth")
@@ -1088,6 +1206,7 @@ public final class MindMapPanelConfig implements Serializable {
 
   public void setScaleWithoutListenerNotification(final double value) {
     this.scale = Math.max(0.01d, value);
+    this.modificationCounter++;
   }
 
   @SettingsAccessor(name = "dropShadow")
@@ -1123,6 +1242,145 @@ public final class MindMapPanelConfig implements Serializable {
     notifyCfgListenersAboutChange();
   }
 
+  @SettingsAccessor(name = "levelOfDetailEnabled")
+  public boolean isLevelOfDetailEnabled() {
+    return this.levelOfDetailEnabled;
+  }
+
+  @SettingsAccessor(name = "levelOfDetailEnabled")
+  public void setLevelOfDetailEnabled(final boolean value) {
+    this.levelOfDetailEnabled = value;
+    notifyCfgListenersAboutChange();
+  }
+
+  @SettingsAccessor(name = "levelOfDetailSimplifiedScale")
+  public double getLevelOfDetailSimplifiedScale() {
+    return this.levelOfDetailSimplifiedScale;
+  }
+
+  @SettingsAccessor(name = "levelOfDetailSimplifiedScale")
+  public void setLevelOfDetailSimplifiedScale(final double value) {
+    this.levelOfDetailSimplifiedScale = value;
+    notifyCfgListenersAboutChange();
+  }
+
+  @SettingsAccessor(name = "levelOfDetailSkeletonScale")
+  public double getLevelOfDetailSkeletonScale() {
+    return this.levelOfDetailSkeletonScale;
+  }
+
+  @SettingsAccessor(name = "levelOfDetailSkeletonScale")
+  public void setLevelOfDetailSkeletonScale(final double value) {
+    this.levelOfDetailSkeletonScale = value;
+    notifyCfgListenersAboutChange();
+  }
+
+  @SettingsAccessor(name = "wheelZoomPreview")
+  public boolean isWheelZoomPreview() {
+    return this.wheelZoomPreview;
+  }
+
+  @SettingsAccessor(name = "wheelZoomPreview")
+  public void setWheelZoomPreview(final boolean value) {
+    this.wheelZoomPreview = value;
+    notifyCfgListenersAboutChange();
+  }
+
+  @SettingsAccessor(name = "wheelZoomRelayoutDelay")
+  public int getWheelZoomRelayoutDelay() {
+    return this.wheelZoomRelayoutDelay;
+  }
+
+  @SettingsAccessor(name = "wheelZoomRelayoutDelay")
+  public void setWheelZoomRelayoutDelay(final int value) {
+    this.wheelZoomRelayoutDelay = value;
+    notifyCfgListenersAboutChange();
+  }
+
+  @SettingsAccessor(name = "displayListCache")
+  public boolean isDisplayListCache() {
+    return this.displayListCache;
+  }
+
+  @SettingsAccessor(name = "displayListCache")
+  public void setDisplayListCache(final boolean value) {
+    this.displayListCache = value;
+    notifyCfgListenersAboutChange();
+  }
+
+  @SettingsAccessor(name = "asyncImageLoading")
+  public boolean isAsyncImageLoading() {
+    return this.asyncImageLoading;
+  }
+
+  /**
+   * Allow to decode topic images in background and show placeholder until they are ready.
+   * Must be turned off for one-pass rendering (export, print) where all images must be drawn.
+   *
+   * @param value true if images can be decoded asynchronously, false otherwise
+   * @since 1.6.6
+   */
+  @SettingsAccessor(name = "asyncImageLoading")
+  public void setAsyncImageLoading(final boolean value) {
+    this.asyncImageLoading = value;
+    notifyCfgListenersAboutChange();
+  }
+
+  @SettingsAccessor(name = "adaptiveRenderQuality")
+  public boolean isAdaptiveRenderQuality() {
+    return this.adaptiveRenderQuality;
+  }
+
+  /**
+   * Allow panel to paint with speed rendering hints while user drags, scrolls or zooms
+   * and repaint with configured render quality when interaction is over.
+   *
+   * @param value true if render quality should be lowered during interaction, false otherwise
+   * @see #setAdaptiveRenderQualityDelay(int)
+   * @since 1.6.6
+   */
+  @SettingsAccessor(name = "adaptiveRenderQuality")
+  public void setAdaptiveRenderQuality(final boolean value) {
+    this.adaptiveRenderQuality = value;
+    notifyCfgListenersAboutChange();
+  }
+
+  @SettingsAccessor(name = "adaptiveRenderQualityDelay")
+  public int getAdaptiveRenderQualityDelay() {
+    return this.adaptiveRenderQualityDelay;
+  }
+
+  /**
+   * Set idle time after last user interaction before panel is repainted with full quality.
+   *
+   * @param value delay in milliseconds
+   * @since 1.6.6
+   */
+  @SettingsAccessor(name = "adaptiveRenderQualityDelay")
+  public void setAdaptiveRenderQualityDelay(final int value) {
+    this.adaptiveRenderQualityDelay = value;
+    notifyCfgListenersAboutChange();
+  }
+
+  /**
+   * Find level of details to render elements for scale.
+   *
+   * @param scale scale of rendering
+   * @return level of details, FULL if level of details is disabled
+   * @since 1.6.6
+   */
+  public LevelOfDetail findLevelOfDetail(final double scale) {
+    final LevelOfDetail result;
+    if (!this.levelOfDetailEnabled || scale >= this.levelOfDetailSimplifiedScale) {
+      result = LevelOfDetail.FULL;
+    } else if (scale >= this.levelOfDetailSkeletonScale) {
+      result = LevelOfDetail.SIMPLIFIED;
+    } else {
+      result = LevelOfDetail.SKELETON;
+    }
+    return result;
+  }
+
   @SettingsAccessor(name = "collapsatorSize")
   public int getCollapsatorSize() {
     return this.collapsatorSize;
@@ -1156,4 +1414,46 @@ public final class MindMapPanelConfig implements Serializable {
     notifyCfgListenersAboutChange();
   }
 
+  private static final class ConfigProperty {
+    private final String name;
+    private final Class<?> type;
+    private final ChangeImpact impact;
+    private final Function<MindMapPanelConfig, Object> getter;
+    private final BiConsumer<MindMapPanelConfig, Object> setter;
+
+    private ConfigProperty(final String name, final Class<?> type, final ChangeImpact impact,
+                           final Function<MindMapPanelConfig, Object> getter,
+                           final BiConsumer<MindMapPanelConfig, Object> setter) {
+      this.name = name;
+      this.type = type;
+      this.impact = impact;
+      this.getter = getter;
+      this.setter = setter;
+    }
+  }
+
+  /**
+   * Impact of configuration change on shown map, values are ordered by amount of needed work.
+   *
+   * @see #findChangeImpact(MindMapPanelConfig)
+   * @since 1.6.6
+   */
+  public enum ChangeImpact {
+    /**
+     * Change doesn't affect view of map.
+     */
+    NONE,
+    /**
+     * Only repaint is needed, sizes and positions of elements are not changed.
+     */
+    REPAINT,
+    /**
+     * Elements keep their sizes but must be moved.
+     */
+    REALIGN,
+    /**
+     * Elements must be measured and laid out again.
+     */
+    REMEASURE
+  }
 }
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.mindmap.swing.panel;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable snapshot of performance metrics collected during one layout or paint frame of mind
+ * map panel. All times are in nanoseconds.
+ *
+ * @see MindMapMetricsListener
+ * @see com.igormaznitsa.mindmap.swing.panel.utils.MetricsRecorder
+ * @since 1.6.6
+ */
+public final class MindMapPanelMetrics {
+
+  private final FrameType frameType;
+  private final long elementCreationNanos;
+  private final long textMeasurementNanos;
+  private final long alignmentNanos;
+  private final long paintNanos;
+  private final int topicsProcessed;
+  private final int topicsDrawn;
+  private final int topicsCulled;
+  private final Map<String, Long> cacheHits;
+  private final Map<String, Long> cacheMisses;
+
+  public MindMapPanelMetrics(
+      final FrameType frameType,
+      final long elementCreationNanos,
+      final long textMeasurementNanos,
+      final long alignmentNanos,
+      final long paintNanos,
+      final int topicsProcessed,
+      final int topicsDrawn,
+      final int topicsCulled,
+      final Map<String, Long> cacheHits,
+      final Map<String, Long> cacheMisses) {
+    this.frameType = frameType;
+    this.elementCreationNanos = elementCreationNanos;
+    this.textMeasurementNanos = textMeasurementNanos;
+    this.alignmentNanos = alignmentNanos;
+    this.paintNanos = paintNanos;
+    this.topicsProcessed = topicsProcessed;
+    this.topicsDrawn = topicsDrawn;
+    this.topicsCulled = topicsCulled;
+    this.cacheHits = Collections.unmodifiableMap(new TreeMap<>(cacheHits));
+    this.cacheMisses = Collections.unmodifiableMap(new TreeMap<>(cacheMisses));
+  }
+
+  public FrameType getFrameType() {
+    return this.frameType;
+  }
+
+  public long getElementCreationNanos() {
+    return this.elementCreationNanos;
+  }
+
+  public long getTextMeasurementNanos() {
+    return this.textMeasurementNanos;
+  }
+
+  public long getAlignmentNanos() {
+    return this.alignmentNanos;
+  }
+
+  public long getPaintNanos() {
+    return this.paintNanos;
+  }
+
+  /**
+   * Get number of topics processed by layout.
+   *
+   * @return number of laid out topics
+   */
+  public int getTopicsProcessed() {
+    return this.topicsProcessed;
+  }
+
+  public int getTopicsDrawn() {
+    return this.topicsDrawn;
+  }
+
+  public int getTopicsCulled() {
+    return this.topicsCulled;
+  }
+
+  public Map<String, Long> getCacheHits() {
+    return this.cacheHits;
+  }
+
+  public Map<String, Long> getCacheMisses() {
+    return this.cacheMisses;
+  }
+
+  /**
+   * Get hit rate of named cache during the frame.
+   *
+   * @param cacheName name of cache, must not be null
+   * @return hit rate in range 0.0 .. 1.0 or -1.0 if the cache was not accessed during the frame
+   */
+  public double getCacheHitRate(final String cacheName) {
+    final long hits = this.cacheHits.getOrDefault(cacheName, 0L);
+    final long total = hits + this.cacheMisses.getOrDefault(cacheName, 0L);
+    return total == 0L ? -1.0d : (double) hits / (double) total;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder result = new StringBuilder();
+    if (this.frameType == FrameType.LAYOUT) {
+      result.append(String.format(Locale.ROOT,
+          "layout: topics=%d, creation=%.2fms, measurement=%.2fms, alignment=%.2fms",
+          this.topicsProcessed, this.elementCreationNanos / 1.0e6d,
+          this.textMeasurementNanos / 1.0e6d, this.alignmentNanos / 1.0e6d));
+    } else {
+      result.append(String.format(Locale.ROOT, "paint: %.2fms, drawn=%d, culled=%d",
+          this.paintNanos / 1.0e6d, this.topicsDrawn, this.topicsCulled));
+    }
+    for (final String cacheName : this.cacheHits.keySet()) {
+      result.append(String.format(Locale.ROOT, ", %s=%.0f%%", cacheName,
+          Math.max(0.0d, this.getCacheHitRate(cacheName)) * 100.0d));
+    }
+    for (final String cacheName : this.cacheMisses.keySet()) {
+      if (!this.cacheHits.containsKey(cacheName)) {
+        result.append(String.format(Locale.ROOT, ", %s=0%%", cacheName));
+      }
+    }
+    return result.toString();
+  }
+
+  public enum FrameType {
+    LAYOUT,
+    PAINT
+  }
+}
@@ -0,0 +1,348 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.mindmap.swing.panel;
+
+import static java.util.Objects.requireNonNull;
+
+import com.igormaznitsa.mindmap.model.Extra;
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.Topic;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Undo and redo journal for mind map model. Every recorded state is an immutable tree of topic
+ * states where unchanged subtrees are shared with the previous state, so a step costs only the
+ * changed topics and their ancestors. Undo and redo are applied to the same model in place, only
+ * changed topics are touched and nothing is parsed. Depth of history is limited only by memory
+ * budget, the oldest steps are dropped when it is exceeded.
+ * <p>
+ * The journal is not thread safe and must be used from the same thread which changes the model
+ * (usually the event dispatch thread).
+ *
+ * @since 1.6.6
+ */
+public final class MindMapUndoJournal {
+
+  /**
+   * Default memory budget for history in bytes.
+   */
+  public static final long DEFAULT_MEMORY_BUDGET = 32L * 1024L * 1024L;
+
+  private final MindMap model;
+  private final long memoryBudget;
+  private final Deque<Step> undoSteps = new ArrayDeque<>();
+  private final Deque<Step> redoSteps = new ArrayDeque<>();
+  private MapState current;
+  private Map<Topic, TopicState> currentIndex;
+  private long usedMemory;
+  private boolean someStatesLost;
+  private Topic detachedHolder;
+
+  public MindMapUndoJournal(final MindMap model) {
+    this(model, DEFAULT_MEMORY_BUDGET);
+  }
+
+  /**
+   * Constructor, the current state of the model becomes the initial state of the journal.
+   *
+   * @param model        model to be tracked, must not be null
+   * @param memoryBudget approximate memory budget for history in bytes
+   */
+  public MindMapUndoJournal(final MindMap model, final long memoryBudget) {
+    this.model = requireNonNull(model);
+    this.memoryBudget = Math.max(0L, memoryBudget);
+    this.sync();
+  }
+
+  private static MapState captureMap(final TopicStateCapture capture, final MindMap map,
+                                     final MapState previousState) {
+    final Topic rootTopic = map.getRoot();
+    final TopicState root = rootTopic == null ? null : capture.capture(rootTopic);
+
+    final Map<String, String> actualAttributes = new TreeMap<>();
+    for (final String name : map.getAttributeNames()) {
+      actualAttributes.put(name, map.findAttribute(name));
+    }
+    final Map<String, String> attributes;
+    if (previousState != null && previousState.attributes.equals(actualAttributes)) {
+      attributes = previousState.attributes;
+    } else {
+      attributes = Collections.unmodifiableMap(actualAttributes);
+      capture.addBytes(TopicStateCapture.estimateStrings(attributes));
+    }
+
+    if (previousState != null && previousState.root == root
+        && previousState.attributes == attributes) {
+      return previousState;
+    }
+    return new MapState(root, attributes);
+  }
+
+  public MindMap getModel() {
+    return this.model;
+  }
+
+  public long getMemoryBudget() {
+    return this.memoryBudget;
+  }
+
+  /**
+   * Get approximate memory occupied by undo and redo steps.
+   *
+   * @return memory in bytes
+   */
+  public long getUsedMemory() {
+    return this.usedMemory;
+  }
+
+  public boolean hasUndo() {
+    return !this.undoSteps.isEmpty();
+  }
+
+  public boolean hasRedo() {
+    return !this.redoSteps.isEmpty();
+  }
+
+  public int getUndoDepth() {
+    return this.undoSteps.size();
+  }
+
+  public int getRedoDepth() {
+    return this.redoSteps.size();
+  }
+
+  /**
+   * Check that some states were lost, because of memory budget or explicitly.
+   *
+   * @return true if the first undo state is not the initial state of the model
+   */
+  public boolean hasLostStates() {
+    return this.someStatesLost;
+  }
+
+  public void setFlagThatSomeStateLost() {
+    this.someStatesLost = true;
+  }
+
+  /**
+   * Forget whole history, the current model state becomes the initial one.
+   */
+  public void clear() {
+    this.undoSteps.clear();
+    this.redoSteps.clear();
+    this.usedMemory = 0L;
+    this.someStatesLost = false;
+    this.sync();
+  }
+
+  /**
+   * Accept current state of the model without undo step, for changes which should not be in
+   * history.
+   */
+  public void sync() {
+    final TopicStateCapture capture = new TopicStateCapture(this.currentIndex);
+    this.current = captureMap(capture, this.model, this.current);
+    this.currentIndex = capture.getIndex();
+  }
+
+  /**
+   * Record changes of the model made since the last recorded state as an undo step. Redo history
+   * is cleared if there are changes.
+   *
+   * @return true if the model has been changed and the step was recorded, false otherwise
+   */
+  public boolean record() {
+    final TopicStateCapture capture = new TopicStateCapture(this.currentIndex);
+    final MapState newState = captureMap(capture, this.model, this.current);
+    if (newState == this.current) {
+      return false;
+    }
+    for (final Step s : this.redoSteps) {
+      this.usedMemory -= s.bytes;
+    }
+    this.redoSteps.clear();
+    this.undoSteps.addLast(new Step(this.current, capture.getBytes()));
+    this.usedMemory += capture.getBytes();
+    this.current = newState;
+    this.currentIndex = capture.getIndex();
+    this.trimToBudget();
+    return true;
+  }
+
+  /**
+   * Restore the previous state of the model. Not recorded changes are recorded before undo.
+   *
+   * @return true if the model has been changed
+   */
+  public boolean undo() {
+    this.record();
+    if (this.undoSteps.isEmpty()) {
+      return false;
+    }
+    final Step step = this.undoSteps.removeLast();
+    this.redoSteps.addLast(new Step(this.current, step.bytes));
+    this.restore(step.state);
+    return true;
+  }
+
+  /**
+   * Restore the last undone state of the model.
+   *
+   * @return true if the model has been changed
+   */
+  public boolean redo() {
+    if (this.redoSteps.isEmpty()) {
+      return false;
+    }
+    final Step step = this.redoSteps.removeLast();
+    this.undoSteps.addLast(new Step(this.current, step.bytes));
+    this.restore(step.state);
+    return true;
+  }
+
+  private void trimToBudget() {
+    while (this.usedMemory > this.memoryBudget && this.undoSteps.size() > 1) {
+      this.usedMemory -= this.undoSteps.removeFirst().bytes;
+      this.someStatesLost = true;
+    }
+  }
+
+  private void restore(final MapState target) {
+    final TopicState rootState = target.root;
+    final Topic rootTopic = rootState == null ? null : rootState.topic;
+    if (this.model.getRoot() != rootTopic) {
+      this.model.setRoot(rootTopic, false);
+    }
+
+    for (final String name : new ArrayList<>(this.model.getAttributeNames())) {
+      if (!target.attributes.containsKey(name)) {
+        this.model.putAttribute(name, null);
+      }
+    }
+    target.attributes.forEach(this.model::putAttribute);
+
+    final Map<Topic, TopicState> index = new IdentityHashMap<>();
+    if (rootState != null) {
+      this.restoreTopic(rootState);
+      rootState.fillIndex(index);
+    }
+    this.current = target;
+    this.currentIndex = index;
+  }
+
+  private void restoreTopic(final TopicState state) {
+    if (this.currentIndex.get(state.topic) == state) {
+      // subtree is not changed
+      return;
+    }
+    final Topic topic = state.topic;
+    if (!topic.getText().equals(state.text)) {
+      topic.setText(state.text);
+    }
+    if (!topic.getAttributes().equals(state.attributes)) {
+      topic.clearAttributes();
+      state.attributes.forEach(topic::putAttribute);
+    }
+    if (!topic.getCodeSnippets().equals(state.codeSnippets)) {
+      for (final String language : new ArrayList<>(topic.getCodeSnippets().keySet())) {
+        topic.putCodeSnippet(language, null);
+      }
+      state.codeSnippets.forEach(topic::putCodeSnippet);
+    }
+    if (!topic.getExtras().equals(state.extras)) {
+      for (final Extra.ExtraType type : new ArrayList<>(topic.getExtras().keySet())) {
+        if (!topic.getExtras().get(type).equals(state.extras.get(type))) {
+          topic.removeExtra(type);
+        }
+      }
+      for (final Extra<?> extra : state.extras.values()) {
+        if (!topic.getExtras().containsKey(extra.getType())) {
+          topic.setExtra(extra);
+        }
+      }
+    }
+    this.restoreChildren(topic, state.children);
+    for (final TopicState child : state.children) {
+      this.restoreTopic(child);
+    }
+  }
+
+  private void restoreChildren(final Topic parent, final TopicState[] children) {
+    final List<Topic> actual = parent.getChildren();
+    boolean same = actual.size() == children.length;
+    for (int i = 0; same && i < children.length; i++) {
+      same = actual.get(i) == children[i].topic;
+    }
+    if (same) {
+      return;
+    }
+
+    final Set<Topic> required = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (final TopicState s : children) {
+      required.add(s.topic);
+    }
+    for (final Topic t : new ArrayList<>(actual)) {
+      if (!required.remove(t)) {
+        t.delete();
+      }
+    }
+    for (final TopicState s : children) {
+      if (required.contains(s.topic)) {
+        // topic is not among children, parent field can still point to the parent after delete
+        if (s.topic.getParent() == parent) {
+          s.topic.moveToNewParent(this.findDetachedHolder());
+        }
+        s.topic.moveToNewParent(parent);
+      }
+      s.topic.makeLast();
+    }
+  }
+
+  private Topic findDetachedHolder() {
+    if (this.detachedHolder == null) {
+      this.detachedHolder = new Topic(this.model, null, "");
+    }
+    return this.detachedHolder;
+  }
+
+  private static final class Step {
+    private final MapState state;
+    private final long bytes;
+
+    private Step(final MapState state, final long bytes) {
+      this.state = state;
+      this.bytes = bytes;
+    }
+  }
+
+  private static final class MapState {
+    private final TopicState root;
+    private final Map<String, String> attributes;
+
+    private MapState(final TopicState root, final Map<String, String> attributes) {
+      this.root = root;
+      this.attributes = attributes;
+    }
+  }
+}
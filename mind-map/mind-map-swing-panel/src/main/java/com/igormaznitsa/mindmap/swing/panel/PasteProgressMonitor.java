@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.swing.panel;
+
+import com.igormaznitsa.mindmap.swing.i18n.MmdI18n;
+import java.awt.Cursor;
+import javax.swing.ProgressMonitor;
+
+/**
+ * Listener of background paste which shows progress monitor for long pastes and wait cursor on
+ * the panel. If user cancels the monitor then the paste is cancelled.
+ *
+ * @see MindMapPanel#pasteTopicsFromClipboardInBackground(MindMapPanel.PasteListener)
+ * @since 1.6.6
+ */
+public class PasteProgressMonitor implements MindMapPanel.PasteListener {
+
+  private ProgressMonitor monitor;
+  private Cursor panelCursor;
+
+  /**
+   * Start paste from clipboard in background with progress monitor.
+   *
+   * @param panel target panel, must not be null
+   * @return true if paste has been started or completed, false if there is nothing to paste
+   */
+  public static boolean paste(final MindMapPanel panel) {
+    // previous paste must restore its cursor before the new one saves it
+    panel.cancelPasteInBackground();
+    final PasteProgressMonitor listener = new PasteProgressMonitor();
+    listener.panelCursor = panel.getCursor();
+    panel.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+    final boolean result = panel.pasteTopicsFromClipboardInBackground(listener);
+    if (!result) {
+      listener.close(panel);
+    }
+    return result;
+  }
+
+  @Override
+  public void onPasteProgress(final MindMapPanel source, final int preparedTopics,
+                              final int totalTopics) {
+    if (this.monitor == null) {
+      this.monitor = new ProgressMonitor(source,
+          MmdI18n.getInstance().findBundle().getString("PasteProgressMonitor.message"), null,
+          0, totalTopics);
+    }
+    if (this.monitor.isCanceled()) {
+      source.cancelPasteInBackground();
+      this.close(source);
+    } else {
+      this.monitor.setNote(preparedTopics + " / " + totalTopics);
+      this.monitor.setProgress(preparedTopics);
+    }
+  }
+
+  @Override
+  public void onPasteCompleted(final MindMapPanel source, final boolean pasted) {
+    this.close(source);
+  }
+
+  private void close(final MindMapPanel source) {
+    if (this.monitor != null) {
+      this.monitor.close();
+      this.monitor = null;
+    }
+    if (this.panelCursor != null) {
+      source.setCursor(this.panelCursor);
+      this.panelCursor = null;
+    }
+  }
+}
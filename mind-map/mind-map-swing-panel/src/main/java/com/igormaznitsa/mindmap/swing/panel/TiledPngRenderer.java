@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.mindmap.swing.panel;
+
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMDisplayList;
+import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics;
+import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics2DWrapper;
+import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphicsRecorder;
+import com.igormaznitsa.mindmap.swing.panel.utils.PngStreamWriter;
+import com.igormaznitsa.mindmap.swing.panel.utils.RenderQuality;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.Dimension2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renderer writes mind map as PNG image band by band. The map is laid out and recorded into
+ * display list once, then bands are rendered in parallel by worker threads through replay of
+ * the list commands touching the band and written in order through row-based PNG encoder, so
+ * that peak memory depends on band size and number of workers but not on size of the whole
+ * image.
+ *
+ * @since 1.6.6
+ */
+final class TiledPngRenderer {
+
+  /**
+   * Max number of pixels in one band.
+   */
+  private static final int BAND_PIXELS = 4 * 1024 * 1024;
+
+  private final RenderQuality quality;
+  private final MMDisplayList displayList;
+  private final int width;
+  private final int height;
+  private final int bandHeight;
+
+  TiledPngRenderer(final MindMap workMap, final MindMapPanelConfig config,
+                   final RenderQuality quality, final Dimension2D paperSize) {
+    this.quality = quality;
+    this.width = (int) paperSize.getWidth();
+    this.height = (int) paperSize.getHeight();
+    this.bandHeight = Math.max(1, Math.min(this.height, BAND_PIXELS / Math.max(1, this.width)));
+
+    final Graphics2D g = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+    quality.prepare(g);
+    final MMGraphics measurer = new MMGraphics2DWrapper(g);
+    measurer.setClip(0, 0, this.width, this.height);
+    final MMGraphicsRecorder recorder = new MMGraphicsRecorder(measurer);
+    try {
+      MindMapPanel.layoutFullDiagramWithCenteringToPaper(recorder, workMap, config, paperSize);
+      MindMapPanel.drawOnGraphicsForConfiguration(recorder, config, workMap, false, null);
+    } finally {
+      recorder.dispose();
+    }
+    this.displayList = recorder.toDisplayList();
+  }
+
+  private int[] renderBand(final int bandY, final int bandRows) {
+    final BufferedImage band =
+        new BufferedImage(this.width, bandRows, BufferedImage.TYPE_INT_ARGB);
+    final Graphics2D g = band.createGraphics();
+    final MMGraphics gfx = new MMGraphics2DWrapper(g);
+    try {
+      this.quality.prepare(g);
+      gfx.translate(0, -bandY);
+      gfx.setClip(0, bandY, this.width, bandRows);
+      this.displayList.replay(gfx, new Rectangle(0, bandY, this.width, bandRows));
+    } finally {
+      gfx.dispose();
+    }
+    return ((DataBufferInt) band.getRaster().getDataBuffer()).getData();
+  }
+
+  /**
+   * Render image and write it into stream.
+   *
+   * @param out     target stream, must not be null, it is not closed
+   * @param threads number of worker threads
+   * @throws IOException if any IO error or rendering error
+   */
+  void write(final OutputStream out, final int threads) throws IOException {
+    final int workers = Math.max(1, threads);
+    final AtomicInteger threadCounter = new AtomicInteger();
+    final ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+      final Thread thread =
+          new Thread(runnable, "mmd-png-band-" + threadCounter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    try (final PngStreamWriter writer = new PngStreamWriter(out, this.width, this.height)) {
+      final Deque<Future<int[]>> queue = new ArrayDeque<>();
+      int nextBandY = 0;
+      int writtenY = 0;
+      while (writtenY < this.height) {
+        while (nextBandY < this.height && queue.size() < workers + 1) {
+          final int bandY = nextBandY;
+          final int bandRows = Math.min(this.bandHeight, this.height - bandY);
+          queue.addLast(executor.submit(() -> this.renderBand(bandY, bandRows)));
+          nextBandY += bandRows;
+        }
+        final int bandRows = Math.min(this.bandHeight, this.height - writtenY);
+        writer.writeRows(queue.removeFirst().get(), 0, bandRows);
+        writtenY += bandRows;
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Rendering interrupted");
+    } catch (ExecutionException ex) {
+      throw new IOException("Error during band rendering", ex.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
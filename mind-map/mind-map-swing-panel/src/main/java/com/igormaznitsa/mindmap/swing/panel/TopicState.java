@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.swing.panel;
+
+import com.igormaznitsa.mindmap.model.Extra;
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.Topic;
+import java.util.Map;
+
+/**
+ * Immutable state of topic and its subtree. States are made by {@link TopicStateCapture} which
+ * shares unchanged subtrees with previously made states, so the same state can be a part of
+ * several trees.
+ *
+ * @see TopicStateCapture
+ * @since 1.6.6
+ */
+final class TopicState {
+
+  static final TopicState[] NO_CHILDREN = new TopicState[0];
+
+  final Topic topic;
+  final String text;
+  final Map<String, String> attributes;
+  final Map<String, String> codeSnippets;
+  final Map<Extra.ExtraType, Extra<?>> extras;
+  final TopicState[] children;
+
+  TopicState(final Topic topic, final String text,
+             final Map<String, String> attributes,
+             final Map<String, String> codeSnippets,
+             final Map<Extra.ExtraType, Extra<?>> extras,
+             final TopicState[] children) {
+    this.topic = topic;
+    this.text = text;
+    this.attributes = attributes;
+    this.codeSnippets = codeSnippets;
+    this.extras = extras;
+    this.children = children;
+  }
+
+  /**
+   * Put the state and states of its subtree into index.
+   *
+   * @param index index to be filled, must not be null
+   */
+  void fillIndex(final Map<Topic, TopicState> index) {
+    index.put(this.topic, this);
+    for (final TopicState c : this.children) {
+      c.fillIndex(index);
+    }
+  }
+
+  /**
+   * Make new topic tree from the state.
+   *
+   * @param map    map of new topics, must not be null
+   * @param parent parent for new topic, can be null
+   * @return made topic, must not be null
+   */
+  Topic makeTopic(final MindMap map, final Topic parent) {
+    final Topic result = new Topic(map, parent, this.text);
+    result.getAttributes().putAll(this.attributes);
+    result.getExtras().putAll(this.extras);
+    result.getCodeSnippets().putAll(this.codeSnippets);
+    for (final TopicState c : this.children) {
+      c.makeTopic(map, result);
+    }
+    return result;
+  }
+}
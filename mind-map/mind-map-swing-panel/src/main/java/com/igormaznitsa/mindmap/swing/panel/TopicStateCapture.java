@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.swing.panel;
+
+import com.igormaznitsa.mindmap.model.Extra;
+import com.igormaznitsa.mindmap.model.Topic;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Capture of topic states which reuses unchanged states of previous capture. Only changed topics
+ * and their ancestors get new states, so capture of a mostly unchanged tree allocates almost
+ * nothing. Must be used from the thread which changes the model.
+ *
+ * @since 1.6.6
+ */
+final class TopicStateCapture {
+
+  private static final long TOPIC_STATE_BYTES = 64L;
+  private static final long ENTRY_BYTES = 48L;
+
+  private final Map<Topic, TopicState> previous;
+  private final Map<Topic, TopicState> index = new IdentityHashMap<>();
+  private long bytes;
+
+  /**
+   * Constructor.
+   *
+   * @param previous index of previously captured states, can be null
+   */
+  TopicStateCapture(final Map<Topic, TopicState> previous) {
+    this.previous = previous == null ? Collections.emptyMap() : previous;
+  }
+
+  private static <K, V> Map<K, V> reuseIfEqual(final Map<K, V> previous, final Map<K, V> actual,
+                                               final Map<K, V> copy) {
+    if (previous != null && previous.equals(actual)) {
+      return previous;
+    }
+    if (actual.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    copy.putAll(actual);
+    return Collections.unmodifiableMap(copy);
+  }
+
+  /**
+   * Estimate memory occupied by strings of map.
+   *
+   * @param map map to be estimated, must not be null
+   * @return approximate size in bytes
+   */
+  static long estimateStrings(final Map<?, ?> map) {
+    long result = 0L;
+    for (final Map.Entry<?, ?> e : map.entrySet()) {
+      final Object value = e.getValue();
+      final String text =
+          value instanceof Extra ? ((Extra<?>) value).getAsString() : String.valueOf(value);
+      result += ENTRY_BYTES + 2L * (String.valueOf(e.getKey()).length() + text.length());
+    }
+    return result;
+  }
+
+  /**
+   * Get index of all states captured by the capture.
+   *
+   * @return index of captured states, must not be null
+   */
+  Map<Topic, TopicState> getIndex() {
+    return this.index;
+  }
+
+  /**
+   * Get approximate memory occupied by new states made by the capture.
+   *
+   * @return memory in bytes
+   */
+  long getBytes() {
+    return this.bytes;
+  }
+
+  void addBytes(final long value) {
+    this.bytes += value;
+  }
+
+  /**
+   * Capture state of topic subtree.
+   *
+   * @param topic topic to be captured, must not be null
+   * @return state of the topic, previous state if the subtree is not changed
+   */
+  TopicState capture(final Topic topic) {
+    final TopicState prev = this.previous.get(topic);
+
+    final List<Topic> topicChildren = topic.getChildren();
+    final TopicState[] children = topicChildren.isEmpty() ? TopicState.NO_CHILDREN
+        : new TopicState[topicChildren.size()];
+    boolean same = prev != null && prev.children.length == children.length;
+    for (int i = 0; i < children.length; i++) {
+      children[i] = this.capture(topicChildren.get(i));
+      same = same && prev.children[i] == children[i];
+    }
+
+    final String text = topic.getText();
+    same = same && prev.text.equals(text);
+
+    final Map<String, String> attributes = reuseIfEqual(prev == null ? null : prev.attributes,
+        topic.getAttributes(), new TreeMap<>());
+    final Map<String, String> codeSnippets =
+        reuseIfEqual(prev == null ? null : prev.codeSnippets, topic.getCodeSnippets(),
+            new TreeMap<>());
+    final Map<Extra.ExtraType, Extra<?>> extras =
+        reuseIfEqual(prev == null ? null : prev.extras, topic.getExtras(),
+            new EnumMap<>(Extra.ExtraType.class));
+
+    final TopicState result;
+    if (same && prev.attributes == attributes && prev.codeSnippets == codeSnippets
+        && prev.extras == extras) {
+      result = prev;
+    } else {
+      result = new TopicState(topic, text, attributes, codeSnippets, extras, children);
+      this.bytes += TOPIC_STATE_BYTES + 8L * children.length + 2L * text.length();
+      if (prev == null || prev.attributes != attributes) {
+        this.bytes += estimateStrings(attributes);
+      }
+      if (prev == null || prev.codeSnippets != codeSnippets) {
+        this.bytes += estimateStrings(codeSnippets);
+      }
+      if (prev == null || prev.extras != extras) {
+        this.bytes += estimateStrings(extras);
+      }
+    }
+    this.index.put(topic, result);
+    return result;
+  }
+}
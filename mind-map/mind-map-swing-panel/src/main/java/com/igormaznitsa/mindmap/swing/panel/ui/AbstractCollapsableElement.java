@@ -23,10 +23,12 @@ import com.igormaznitsa.mindmap.swing.panel.MindMapPanelConfig;
 import com.igormaznitsa.mindmap.swing.panel.StandardTopicAttribute;
 import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics;
 import com.igormaznitsa.mindmap.swing.panel.ui.gfx.StrokeType;
+import com.igormaznitsa.mindmap.swing.panel.utils.LevelOfDetail;
 import com.igormaznitsa.mindmap.swing.panel.utils.MindMapUtils;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.geom.Dimension2D;
 import java.awt.geom.Path2D;
 import java.awt.geom.Rectangle2D;
@@ -41,6 +43,12 @@ public abstract class AbstractCollapsableElement extends AbstractElement {
     this.collapsatorZone.setRect(element.collapsatorZone);
   }
 
+  protected AbstractCollapsableElement(final AbstractCollapsableElement element,
+                                       final Topic model) {
+    super(element, model);
+    this.collapsatorZone.setRect(element.collapsatorZone);
+  }
+
   public AbstractCollapsableElement(final Topic model) {
     super(model);
   }
@@ -57,6 +65,16 @@ public abstract class AbstractCollapsableElement extends AbstractElement {
     }
   }
 
+  @Override
+  public void drawSimplifiedComponent(final MMGraphics g, final MindMapPanelConfig cfg,
+                                      final LevelOfDetail levelOfDetail,
+                                      final boolean drawCollapsator) {
+    super.drawSimplifiedComponent(g, cfg, levelOfDetail, drawCollapsator);
+    if (levelOfDetail != LevelOfDetail.SKELETON && drawCollapsator && this.hasChildren()) {
+      drawCollapsator(g, cfg, this.isCollapsed());
+    }
+  }
+
   protected void drawCollapsator(final MMGraphics g, final MindMapPanelConfig cfg,
                                  final boolean collapsed) {
     final int x = (int) Math.round(collapsatorZone.getX());
@@ -211,31 +229,24 @@ public abstract class AbstractCollapsableElement extends AbstractElement {
   }
 
   @Override
-  public void doPaintConnectors(final MMGraphics g, final boolean leftDirection,
-                                final MindMapPanelConfig cfg) {
+  public void appendConnectors(final Path2D path, final boolean leftDirection,
+                               final MindMapPanelConfig cfg, final Rectangle clip) {
     final Rectangle2D source =
         new Rectangle2D.Double(this.bounds.getX() + this.collapsatorZone.getX(),
             this.bounds.getY() + this.collapsatorZone.getY(), this.collapsatorZone.getWidth(),
             this.collapsatorZone.getHeight());
-    final boolean lefDir = isLeftDirection();
-    for (final Topic t : this.model.getChildren()) {
-      this.drawConnector(g, source, (requireNonNull((AbstractElement) t.getPayload())).getBounds(),
-          lefDir, cfg);
-    }
+    this.appendConnectors(path, source, isLeftDirection(), cfg, clip);
   }
 
   @Override
-  public void drawConnector(final MMGraphics g, final Rectangle2D source,
-                            final Rectangle2D destination, final boolean leftDirection,
-                            final MindMapPanelConfig cfg) {
-    g.setStroke(cfg.safeScaleFloatValue(cfg.getConnectorWidth(), 0.1f), StrokeType.SOLID);
-
+  public void appendConnector(final Path2D path, final Rectangle2D source,
+                              final Rectangle2D destination, final boolean leftDirection,
+                              final MindMapPanelConfig cfg) {
     final double dy = Math.abs(destination.getCenterY() - source.getCenterY());
     if (dy < (16.0d * cfg.getScale())) {
-      g.drawLine((int) source.getCenterX(), (int) source.getCenterY(),
-          (int) destination.getCenterX(), (int) source.getCenterY(), cfg.getConnectorColor());
+      path.moveTo((int) source.getCenterX(), (int) source.getCenterY());
+      path.lineTo((int) destination.getCenterX(), (int) source.getCenterY());
     } else {
-      final Path2D path = new Path2D.Double();
       path.moveTo(source.getCenterX(), source.getCenterY());
 
       if (leftDirection) {
@@ -248,8 +259,6 @@ public abstract class AbstractCollapsableElement extends AbstractElement {
         path.lineTo((source.getCenterX() + dx / 2), destination.getCenterY());
       }
       path.lineTo(destination.getCenterX(), destination.getCenterY());
-
-      g.draw(path, cfg.getConnectorColor(), null);
     }
   }
 
@@ -24,13 +24,21 @@ import static java.util.Objects.requireNonNull;
 import com.igormaznitsa.mindmap.model.StandardTopicAttributes;
 import com.igormaznitsa.mindmap.model.Topic;
 import com.igormaznitsa.mindmap.swing.panel.MindMapPanelConfig;
+import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMDisplayList;
 import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics;
+import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphicsRecorder;
+import com.igormaznitsa.mindmap.swing.panel.ui.gfx.StrokeType;
+import com.igormaznitsa.mindmap.swing.panel.utils.LevelOfDetail;
+import com.igormaznitsa.mindmap.swing.panel.utils.MetricsRecorder;
+import com.igormaznitsa.mindmap.swing.panel.utils.MindMapUtils;
+import com.igormaznitsa.mindmap.swing.panel.utils.RenderResources;
 import com.igormaznitsa.mindmap.swing.panel.utils.Utils;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.geom.Dimension2D;
+import java.awt.geom.Path2D;
 import java.awt.geom.Rectangle2D;
 import javax.swing.text.JTextComponent;
 
@@ -48,11 +56,30 @@ public abstract class AbstractElement {
   protected Color textColor;
   protected Color borderColor;
 
+  private MMDisplayList displayList;
+  private MindMapPanelConfig displayListConfig;
+  private long displayListConfigCounter;
+  private boolean displayListCollapsed;
+  private boolean displayListCollapsator;
+
   protected AbstractElement(final AbstractElement orig) {
-    this.model = orig.model;
+    this(orig, orig.model);
+  }
+
+  /**
+   * Make copy of element but bind it to another topic, the topic must have the same content as
+   * topic of the original element.
+   *
+   * @param orig  original element, must not be null
+   * @param model topic to be bound with the copy, must not be null
+   * @since 1.6.6
+   */
+  protected AbstractElement(final AbstractElement orig, final Topic model) {
+    this.model = requireNonNull(model);
     this.textBlock = new TextBlock(orig.textBlock);
-    this.extrasIconBlock = new IconBlock(orig.extrasIconBlock);
-    this.visualAttributeImageBlock = new VisualAttributeImageBlock(orig.visualAttributeImageBlock);
+    this.extrasIconBlock = new IconBlock(orig.extrasIconBlock, model);
+    this.visualAttributeImageBlock =
+        new VisualAttributeImageBlock(orig.visualAttributeImageBlock, model);
     this.bounds.setRect(orig.bounds);
     this.blockSize.setSize(orig.blockSize);
     this.fillColor = orig.fillColor;
@@ -79,9 +106,11 @@ public abstract class AbstractElement {
   public void setText(final String text) {
     this.model.setText(text);
     this.textBlock.updateText(text);
+    this.invalidateDisplayList();
   }
 
   public final void updateColorAttributeFromModel() {
+    this.invalidateDisplayList();
     this.borderColor =
         Utils.html2color(this.model.getAttribute(ATTR_BORDER_COLOR.getText()), false);
     this.textColor = Utils.html2color(this.model.getAttribute(ATTR_TEXT_COLOR.getText()), false);
@@ -105,9 +134,22 @@ public abstract class AbstractElement {
     this.textBlock.setTextAlign(textAlign);
     this.model.putAttribute(StandardTopicAttributes.MMD_TOPIC_ATTRIBUTE_TITLE_ALIGN,
         this.textBlock.getTextAlign().name());
+    this.invalidateDisplayList();
+  }
+
+  /**
+   * Reset cached display list of the element, it will be recorded again during next paint.
+   * Must be called if anything changed in element view.
+   *
+   * @since 1.6.6
+   */
+  public void invalidateDisplayList() {
+    this.displayList = null;
+    this.displayListConfig = null;
   }
 
   public void updateElementBounds(final MMGraphics gfx, final MindMapPanelConfig cfg) {
+    this.invalidateDisplayList();
     this.visualAttributeImageBlock.updateSize(gfx, cfg);
     this.textBlock.updateSize(gfx, cfg);
     this.extrasIconBlock.updateSize(gfx, cfg);
@@ -166,34 +208,228 @@ public abstract class AbstractElement {
 
   public final void doPaint(final MMGraphics g, final MindMapPanelConfig cfg,
                             final boolean drawCollapsator) {
+    this.doPaint(g, cfg, drawCollapsator, true);
+  }
+
+  /**
+   * Paint element.
+   *
+   * @param g               graphics, must not be null
+   * @param cfg             configuration, must not be null
+   * @param drawCollapsator flag to draw collapsator if element supports it
+   * @param drawConnectors  flag to draw connectors to children, false if they are drawn in batch
+   * @see #appendConnectors(Path2D, boolean, MindMapPanelConfig, Rectangle)
+   * @since 1.6.6
+   */
+  public final void doPaint(final MMGraphics g, final MindMapPanelConfig cfg,
+                            final boolean drawCollapsator, final boolean drawConnectors) {
+    final LevelOfDetail levelOfDetail = cfg.findLevelOfDetail(cfg.getScale());
     final MMGraphics gfx = g.copy();
     try {
-      if (this.hasChildren() && !isCollapsed()) {
-        doPaintConnectors(g, isLeftDirection(), cfg);
+      if (drawConnectors && this.hasChildren() && !isCollapsed()) {
+        if (levelOfDetail == LevelOfDetail.SKELETON) {
+          doPaintSkeletonConnectors(g, cfg);
+        } else {
+          doPaintConnectors(g, isLeftDirection(), cfg);
+        }
       }
 
       final Rectangle clip = g.getClipBounds();
+      final MetricsRecorder recorder = MetricsRecorder.current();
 
-      if (clip == null) {
-        gfx.translate(this.bounds.getX(), this.bounds.getY());
-        drawComponent(gfx, cfg, drawCollapsator);
-      } else if (clip.intersects(this.bounds)) {
+      if (clip == null || clip.intersects(this.bounds)) {
+        if (recorder != null) {
+          recorder.incTopicsDrawn();
+        }
         gfx.translate(this.bounds.getX(), this.bounds.getY());
-        drawComponent(gfx, cfg, drawCollapsator);
+        if (levelOfDetail == LevelOfDetail.FULL) {
+          if (cfg.isDisplayListCache()) {
+            this.findDisplayList(gfx, cfg, drawCollapsator).replay(gfx);
+          } else {
+            drawComponent(gfx, cfg, drawCollapsator);
+          }
+        } else {
+          drawSimplifiedComponent(gfx, cfg, levelOfDetail, drawCollapsator);
+        }
+      } else if (recorder != null) {
+        recorder.incTopicsCulled();
       }
     } finally {
       gfx.dispose();
     }
   }
 
+  private MMDisplayList findDisplayList(final MMGraphics gfx, final MindMapPanelConfig cfg,
+                                        final boolean drawCollapsator) {
+    final boolean collapsed = this.isCollapsed();
+    final long configCounter = cfg.getModificationCounter();
+    final boolean hit = this.displayList != null
+        && this.displayListConfig == cfg
+        && this.displayListConfigCounter == configCounter
+        && this.displayListCollapsed == collapsed
+        && this.displayListCollapsator == drawCollapsator;
+    MetricsRecorder.recordCacheAccess("displaylist", hit);
+    if (!hit) {
+      final long missingResources = RenderResources.getMissingResourceCount();
+      final MMGraphicsRecorder graphicsRecorder = new MMGraphicsRecorder(gfx.copy());
+      try {
+        drawComponent(graphicsRecorder, cfg, drawCollapsator);
+      } finally {
+        graphicsRecorder.dispose();
+      }
+      final MMDisplayList recorded = graphicsRecorder.toDisplayList();
+      if (RenderResources.getMissingResourceCount() != missingResources) {
+        // placeholders of not ready resources must not be cached
+        return recorded;
+      }
+      this.displayList = recorded;
+      this.displayListConfig = cfg;
+      this.displayListConfigCounter = configCounter;
+      this.displayListCollapsed = collapsed;
+      this.displayListCollapsator = drawCollapsator;
+    }
+    return this.displayList;
+  }
+
+  /**
+   * Draw element with reduced level of details, text is replaced by a placeholder bar and
+   * icons, images and shadow are not drawn. Graphics must be translated to element position.
+   *
+   * @param g               graphics, must not be null
+   * @param cfg             configuration, must not be null
+   * @param levelOfDetail   level of details, must not be FULL
+   * @param drawCollapsator flag to draw collapsator if element supports it
+   * @since 1.6.6
+   */
+  public void drawSimplifiedComponent(final MMGraphics g, final MindMapPanelConfig cfg,
+                                      final LevelOfDetail levelOfDetail,
+                                      final boolean drawCollapsator) {
+    final Rectangle2D shape =
+        new Rectangle2D.Double(0d, 0d, this.bounds.getWidth(), this.bounds.getHeight());
+    if (levelOfDetail == LevelOfDetail.SKELETON) {
+      g.draw(shape, null, this.getBackgroundColor(cfg));
+    } else {
+      g.setStroke(cfg.safeScaleFloatValue(cfg.getElementBorderWidth(), 0.1f), StrokeType.SOLID);
+      g.draw(shape, this.getBorderColor(cfg), this.getBackgroundColor(cfg));
+
+      final Rectangle2D textBounds = this.textBlock.getBounds();
+      if (textBounds.getWidth() > 0.0d && textBounds.getHeight() > 0.0d) {
+        final double barHeight = Math.max(1.0d, textBounds.getHeight() / 3.0d);
+        final Color textColor = this.getTextColor(cfg);
+        g.draw(new Rectangle2D.Double(textBounds.getX(),
+                textBounds.getCenterY() - barHeight / 2.0d, textBounds.getWidth(), barHeight),
+            null, new Color(textColor.getRed(), textColor.getGreen(), textColor.getBlue(), 0x60));
+      }
+    }
+  }
+
+  /**
+   * Draw straight lines from the element center to centers of its children.
+   *
+   * @param g   graphics, must not be null
+   * @param cfg configuration, must not be null
+   * @since 1.6.6
+   */
+  public void doPaintSkeletonConnectors(final MMGraphics g, final MindMapPanelConfig cfg) {
+    final Path2D path = new Path2D.Double();
+    this.appendSkeletonConnectors(path, cfg, g.getClipBounds());
+    drawConnectorPath(g, path, cfg);
+  }
+
   public void doPaintConnectors(final MMGraphics g, final boolean leftDirection,
                                 final MindMapPanelConfig cfg) {
+    final Path2D path = new Path2D.Double();
+    this.appendConnectors(path, leftDirection, cfg, g.getClipBounds());
+    drawConnectorPath(g, path, cfg);
+  }
+
+  /**
+   * Draw path containing connectors with stroke and color of connectors. All connectors
+   * have the same style so that connectors of whole map can be drawn in one call.
+   *
+   * @param g    graphics, must not be null
+   * @param path path contains connectors, empty one is ignored
+   * @param cfg  configuration, must not be null
+   * @since 1.6.6
+   */
+  public static void drawConnectorPath(final MMGraphics g, final Path2D path,
+                                       final MindMapPanelConfig cfg) {
+    if (path.getCurrentPoint() != null) {
+      g.setStroke(cfg.safeScaleFloatValue(cfg.getConnectorWidth(), 0.1f), StrokeType.SOLID);
+      g.draw(path, cfg.getConnectorColor(), null);
+    }
+  }
+
+  /**
+   * Add straight lines from the element center to centers of its children into path.
+   *
+   * @param path path to be filled, must not be null
+   * @param cfg  configuration, must not be null
+   * @param clip visible area, connectors out of it are skipped, can be null
+   * @since 1.6.6
+   */
+  public void appendSkeletonConnectors(final Path2D path, final MindMapPanelConfig cfg,
+                                       final Rectangle clip) {
+    final double margin = cfg.safeScaleFloatValue(cfg.getConnectorWidth(), 0.1f);
+    final int startX = (int) Math.round(this.bounds.getCenterX());
+    final int startY = (int) Math.round(this.bounds.getCenterY());
     for (final Topic t : this.model.getChildren()) {
-      drawConnector(g, this.bounds, (requireNonNull((AbstractElement) t.getPayload())).getBounds(),
-          leftDirection, cfg);
+      final AbstractElement child = (AbstractElement) t.getPayload();
+      if (child != null && isConnectorVisible(this.bounds, child.bounds, clip, margin)) {
+        path.moveTo(startX, startY);
+        path.lineTo((int) Math.round(child.bounds.getCenterX()),
+            (int) Math.round(child.bounds.getCenterY()));
+      }
     }
   }
 
+  /**
+   * Add connectors from the element to its children into path.
+   *
+   * @param path          path to be filled, must not be null
+   * @param leftDirection flag shows that children are placed on the left side
+   * @param cfg           configuration, must not be null
+   * @param clip          visible area, connectors out of it are skipped, can be null
+   * @since 1.6.6
+   */
+  public void appendConnectors(final Path2D path, final boolean leftDirection,
+                               final MindMapPanelConfig cfg, final Rectangle clip) {
+    this.appendConnectors(path, this.bounds, leftDirection, cfg, clip);
+  }
+
+  protected void appendConnectors(final Path2D path, final Rectangle2D source,
+                                  final boolean leftDirection, final MindMapPanelConfig cfg,
+                                  final Rectangle clip) {
+    final double margin = cfg.safeScaleFloatValue(cfg.getConnectorWidth(), 0.1f);
+    for (final Topic t : this.model.getChildren()) {
+      final Rectangle2D destination =
+          requireNonNull((AbstractElement) t.getPayload()).getBounds();
+      if (isConnectorVisible(source, destination, clip, margin)) {
+        this.appendConnector(path, source, destination, leftDirection, cfg);
+      }
+    }
+  }
+
+  private static boolean isConnectorVisible(final Rectangle2D source,
+                                            final Rectangle2D destination,
+                                            final Rectangle clip, final double margin) {
+    if (clip == null) {
+      return true;
+    }
+    // connector never leaves area of its end elements, extend it for stroke width
+    final Rectangle2D area = source.createUnion(destination);
+    return clip.intersects(area.getX() - margin, area.getY() - margin,
+        area.getWidth() + margin * 2.0d, area.getHeight() + margin * 2.0d);
+  }
+
+  public void drawConnector(final MMGraphics g, final Rectangle2D source,
+                            final Rectangle2D destination, final boolean leftDirection,
+                            final MindMapPanelConfig cfg) {
+    final Path2D path = new Path2D.Double();
+    this.appendConnector(path, source, destination, leftDirection, cfg);
+    drawConnectorPath(g, path, cfg);
+  }
+
   public boolean hasChildren() {
     return !this.model.isEmpty();
   }
@@ -205,8 +441,23 @@ public abstract class AbstractElement {
 
   public abstract void drawComponent(MMGraphics g, MindMapPanelConfig cfg, boolean drawCollapsator);
 
-  public abstract void drawConnector(MMGraphics g, Rectangle2D source, Rectangle2D destination,
-                                     boolean leftDirection, MindMapPanelConfig cfg);
+  /**
+   * Add connector between source and destination into path. Default implementation adds
+   * straight line between centers of areas.
+   *
+   * @param path          path to be filled, must not be null
+   * @param source        source area, must not be null
+   * @param destination   destination area, must not be null
+   * @param leftDirection flag shows that destination is placed on the left side
+   * @param cfg           configuration, must not be null
+   * @since 1.6.6
+   */
+  public void appendConnector(final Path2D path, final Rectangle2D source,
+                              final Rectangle2D destination, final boolean leftDirection,
+                              final MindMapPanelConfig cfg) {
+    path.moveTo(source.getCenterX(), source.getCenterY());
+    path.lineTo(destination.getCenterX(), destination.getCenterY());
+  }
 
   public abstract boolean isMoveable();
 
@@ -436,7 +687,9 @@ public abstract class AbstractElement {
     if (this.hasChildren()) {
       for (final Topic t : this.model.getChildren()) {
         final AbstractElement e = (AbstractElement) t.getPayload();
-        if (e != null) {
+        if (e == null) {
+          result |= collapseOrExpandAllTopics(t, collapse);
+        } else {
           result |= e.collapseOrExpandAllChildren(collapse);
         }
       }
@@ -445,6 +698,18 @@ public abstract class AbstractElement {
     return result;
   }
 
+  private static boolean collapseOrExpandAllTopics(final Topic topic, final boolean collapse) {
+    boolean result = false;
+    if (MindMapUtils.isCollapsed(topic) != collapse) {
+      MindMapUtils.setCollapsed(topic, collapse);
+      result = true;
+    }
+    for (final Topic t : topic.getChildren()) {
+      result |= collapseOrExpandAllTopics(t, collapse);
+    }
+    return result;
+  }
+
   public abstract Color getBackgroundColor(MindMapPanelConfig config);
 
   public abstract Color getTextColor(MindMapPanelConfig config);
@@ -455,4 +720,17 @@ public abstract class AbstractElement {
 
   public abstract AbstractElement makeCopy();
 
+  /**
+   * Make copy of the element bound to another topic with the same content. Default
+   * implementation returns {@link #makeCopy()} which keeps topic of the original element, so
+   * that elements which can be laid out in background must override it.
+   *
+   * @param model topic for the copy, must not be null
+   * @return copy of the element, it should be bound to the topic
+   * @since 1.6.6
+   */
+  public AbstractElement makeCopy(final Topic model) {
+    return this.makeCopy();
+  }
+
 }
@@ -0,0 +1,284 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.swing.panel.ui;
+
+import com.igormaznitsa.mindmap.model.Topic;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Uniform grid index of bounds of laid out visible elements. It allows to find nearest element
+ * in a direction without scan of the whole tree. The index is immutable and must be made again
+ * after any new layout of elements.
+ *
+ * @since 1.6.6
+ */
+public final class ElementGeometryIndex {
+
+  private static final double MIN_CELL_SIZE = 16.0d;
+  private static final double MINOR_GAP_WEIGHT = 4.0d;
+  private static final double MINOR_CENTER_WEIGHT = 0.25d;
+
+  private final long layoutVersion;
+  private final double cellSize;
+  private final Map<Long, List<AbstractElement>> cells = new HashMap<>();
+  private final int minCellX;
+  private final int minCellY;
+  private final int maxCellX;
+  private final int maxCellY;
+
+  /**
+   * Make index for visible elements of topic tree.
+   *
+   * @param root          root topic which payloads are elements, must not be null
+   * @param layoutVersion version of layout to be kept in the index
+   */
+  public ElementGeometryIndex(final Topic root, final long layoutVersion) {
+    this.layoutVersion = layoutVersion;
+
+    final List<AbstractElement> elements = new ArrayList<>();
+    collectVisible(root, elements);
+
+    double averageSize = 0.0d;
+    for (final AbstractElement e : elements) {
+      averageSize += Math.max(e.getBounds().getWidth(), e.getBounds().getHeight());
+    }
+    this.cellSize = elements.isEmpty() ? MIN_CELL_SIZE
+        : Math.max(MIN_CELL_SIZE, averageSize / elements.size());
+
+    int minX = Integer.MAX_VALUE;
+    int minY = Integer.MAX_VALUE;
+    int maxX = Integer.MIN_VALUE;
+    int maxY = Integer.MIN_VALUE;
+
+    for (final AbstractElement e : elements) {
+      final Rectangle2D bounds = e.getBounds();
+      final int startX = this.toCell(bounds.getMinX());
+      final int startY = this.toCell(bounds.getMinY());
+      final int endX = this.toCell(bounds.getMaxX());
+      final int endY = this.toCell(bounds.getMaxY());
+      for (int x = startX; x <= endX; x++) {
+        for (int y = startY; y <= endY; y++) {
+          this.cells.computeIfAbsent(makeKey(x, y), k -> new ArrayList<>(2)).add(e);
+        }
+      }
+      minX = Math.min(minX, startX);
+      minY = Math.min(minY, startY);
+      maxX = Math.max(maxX, endX);
+      maxY = Math.max(maxY, endY);
+    }
+
+    this.minCellX = minX;
+    this.minCellY = minY;
+    this.maxCellX = maxX;
+    this.maxCellY = maxY;
+  }
+
+  private static void collectVisible(final Topic topic, final List<AbstractElement> list) {
+    final AbstractElement element = (AbstractElement) topic.getPayload();
+    if (element == null) {
+      return;
+    }
+    list.add(element);
+    if (!element.isCollapsed()) {
+      for (final Topic t : topic.getChildren()) {
+        collectVisible(t, list);
+      }
+    }
+  }
+
+  private static long makeKey(final int x, final int y) {
+    return ((long) x << 32) | (y & 0xFFFFFFFFL);
+  }
+
+  private static boolean isInDirection(final Rectangle2D source, final Rectangle2D candidate,
+                                       final Direction direction) {
+    switch (direction) {
+      case UP:
+        return candidate.getCenterY() < source.getMinY();
+      case DOWN:
+        return candidate.getCenterY() > source.getMaxY();
+      case LEFT:
+        return candidate.getCenterX() < source.getMinX();
+      case RIGHT:
+        return candidate.getCenterX() > source.getMaxX();
+      default:
+        throw new Error("Unexpected direction: " + direction);
+    }
+  }
+
+  private static double gap(final double min1, final double max1, final double min2,
+                            final double max2) {
+    return Math.max(0.0d, Math.max(min1, min2) - Math.min(max1, max2));
+  }
+
+  private static double calcWeight(final Rectangle2D source, final Rectangle2D candidate,
+                                   final Direction direction) {
+    final double major;
+    final double minorGap;
+    final double minorCenter;
+    switch (direction) {
+      case UP:
+      case DOWN: {
+        major = gap(source.getMinY(), source.getMaxY(), candidate.getMinY(),
+            candidate.getMaxY());
+        minorGap = gap(source.getMinX(), source.getMaxX(), candidate.getMinX(),
+            candidate.getMaxX());
+        minorCenter = Math.abs(source.getCenterX() - candidate.getCenterX());
+      }
+      break;
+      default: {
+        major = gap(source.getMinX(), source.getMaxX(), candidate.getMinX(),
+            candidate.getMaxX());
+        minorGap = gap(source.getMinY(), source.getMaxY(), candidate.getMinY(),
+            candidate.getMaxY());
+        minorCenter = Math.abs(source.getCenterY() - candidate.getCenterY());
+      }
+      break;
+    }
+    return major + minorGap * MINOR_GAP_WEIGHT + minorCenter * MINOR_CENTER_WEIGHT;
+  }
+
+  private int toCell(final double coordinate) {
+    return (int) Math.floor(coordinate / this.cellSize);
+  }
+
+  public long getLayoutVersion() {
+    return this.layoutVersion;
+  }
+
+  /**
+   * Find nearest visible element in direction from source element. Element is in direction if
+   * its center is placed behind the source edge for the direction.
+   *
+   * @param source    source element, must not be null
+   * @param direction direction of search, must not be null
+   * @param filter    filter of allowed elements, can be null
+   * @return found element or null if not found
+   */
+  public AbstractElement findNearest(final AbstractElement source, final Direction direction,
+                                     final Predicate<AbstractElement> filter) {
+    if (this.cells.isEmpty()) {
+      return null;
+    }
+
+    final Rectangle2D sourceBounds = source.getBounds();
+    final double centerX = sourceBounds.getCenterX();
+    final double centerY = sourceBounds.getCenterY();
+    // weight can't be less than distance from source center to candidate minus this value
+    final double sourceHalfSize = (sourceBounds.getWidth() + sourceBounds.getHeight()) / 2.0d;
+
+    final int startX = this.toCell(centerX);
+    final int startY = this.toCell(centerY);
+
+    // only cells which can contain elements in the direction are checked
+    int areaMinX = this.minCellX;
+    int areaMinY = this.minCellY;
+    int areaMaxX = this.maxCellX;
+    int areaMaxY = this.maxCellY;
+    switch (direction) {
+      case UP:
+        areaMaxY = Math.min(areaMaxY, this.toCell(sourceBounds.getMinY()));
+        break;
+      case DOWN:
+        areaMinY = Math.max(areaMinY, this.toCell(sourceBounds.getMaxY()));
+        break;
+      case LEFT:
+        areaMaxX = Math.min(areaMaxX, this.toCell(sourceBounds.getMinX()));
+        break;
+      case RIGHT:
+        areaMinX = Math.max(areaMinX, this.toCell(sourceBounds.getMaxX()));
+        break;
+      default:
+        throw new Error("Unexpected direction: " + direction);
+    }
+    if (areaMinX > areaMaxX || areaMinY > areaMaxY) {
+      return null;
+    }
+
+    final int maxRadius = Math.max(
+        Math.max(Math.abs(startX - areaMinX), Math.abs(areaMaxX - startX)),
+        Math.max(Math.abs(startY - areaMinY), Math.abs(areaMaxY - startY)));
+
+    final Set<AbstractElement> checked = Collections.newSetFromMap(new IdentityHashMap<>());
+    checked.add(source);
+
+    AbstractElement result = null;
+    double resultWeight = Double.MAX_VALUE;
+
+    for (int radius = 0; radius <= maxRadius; radius++) {
+      for (int x = Math.max(areaMinX, startX - radius);
+           x <= Math.min(areaMaxX, startX + radius); x++) {
+        final boolean border = x == startX - radius || x == startX + radius;
+        final int step = border ? 1 : Math.max(1, radius * 2);
+        for (int y = startY - radius; y <= startY + radius; y += step) {
+          if (y < areaMinY || y > areaMaxY) {
+            continue;
+          }
+          final List<AbstractElement> cell = this.cells.get(makeKey(x, y));
+          if (cell == null) {
+            continue;
+          }
+          for (final AbstractElement e : cell) {
+            if (!checked.add(e)) {
+              continue;
+            }
+            final Rectangle2D bounds = e.getBounds();
+            if (isInDirection(sourceBounds, bounds, direction)
+                && (filter == null || filter.test(e))) {
+              final double weight = calcWeight(sourceBounds, bounds, direction);
+              if (weight < resultWeight) {
+                resultWeight = weight;
+                result = e;
+              }
+            }
+          }
+        }
+      }
+
+      if (result != null) {
+        // elements outside of checked cells are not closer than the square border
+        final double minDistance = Math.min(
+            Math.min(centerX - (startX - radius) * this.cellSize,
+                (startX + radius + 1) * this.cellSize - centerX),
+            Math.min(centerY - (startY - radius) * this.cellSize,
+                (startY + radius + 1) * this.cellSize - centerY));
+        if (resultWeight <= minDistance - sourceHalfSize) {
+          break;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Direction of search.
+   */
+  public enum Direction {
+    UP,
+    DOWN,
+    LEFT,
+    RIGHT
+  }
+}
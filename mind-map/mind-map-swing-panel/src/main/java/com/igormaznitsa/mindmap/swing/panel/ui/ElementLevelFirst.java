@@ -34,11 +34,20 @@ public class ElementLevelFirst extends AbstractCollapsableElement {
     super(element);
   }
 
+  protected ElementLevelFirst(final ElementLevelFirst element, final Topic model) {
+    super(element, model);
+  }
+
   @Override
   public AbstractElement makeCopy() {
     return new ElementLevelFirst(this);
   }
 
+  @Override
+  public AbstractElement makeCopy(final Topic model) {
+    return new ElementLevelFirst(this, model);
+  }
+
   protected Shape makeShape(final MindMapPanelConfig config, final double x, final double y) {
     return new Rectangle2D.Double(x, y, this.bounds.getWidth(), this.bounds.getHeight());
   }
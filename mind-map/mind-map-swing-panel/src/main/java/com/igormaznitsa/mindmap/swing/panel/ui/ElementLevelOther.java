@@ -24,7 +24,9 @@ import com.igormaznitsa.mindmap.swing.panel.MindMapPanelConfig;
 import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics;
 import com.igormaznitsa.mindmap.swing.panel.ui.gfx.StrokeType;
 import java.awt.Color;
+import java.awt.Rectangle;
 import java.awt.Shape;
+import java.awt.geom.Path2D;
 import java.awt.geom.Rectangle2D;
 
 public class ElementLevelOther extends ElementLevelFirst {
@@ -37,11 +39,20 @@ public class ElementLevelOther extends ElementLevelFirst {
     super(element);
   }
 
+  protected ElementLevelOther(final ElementLevelOther element, final Topic model) {
+    super(element, model);
+  }
+
   @Override
   public AbstractElement makeCopy() {
     return new ElementLevelOther(this);
   }
 
+  @Override
+  public AbstractElement makeCopy(final Topic model) {
+    return new ElementLevelOther(this, model);
+  }
+
   @Override
   public void drawComponent(final MMGraphics g, final MindMapPanelConfig cfg,
                             final boolean drawCollapsator) {
@@ -72,16 +83,13 @@ public class ElementLevelOther extends ElementLevelFirst {
   }
 
   @Override
-  public void doPaintConnectors(final MMGraphics g, final boolean leftDirection,
-                                final MindMapPanelConfig cfg) {
+  public void appendConnectors(final Path2D path, final boolean leftDirection,
+                               final MindMapPanelConfig cfg, final Rectangle clip) {
     final Rectangle2D source =
         new Rectangle2D.Double(this.bounds.getX() + this.collapsatorZone.getX(),
             this.bounds.getY() + this.collapsatorZone.getY(), this.collapsatorZone.getWidth(),
             this.collapsatorZone.getHeight());
-    for (final Topic t : this.model.getChildren()) {
-      this.drawConnector(g, source, requireNonNull(((AbstractElement) t.getPayload())).getBounds(),
-          leftDirection, cfg);
-    }
+    this.appendConnectors(path, source, leftDirection, cfg, clip);
   }
 
   @Override
@@ -27,6 +27,7 @@ import java.awt.Dimension;
 import java.awt.Point;
 import java.awt.Shape;
 import java.awt.geom.Dimension2D;
+import java.awt.geom.Path2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.geom.RoundRectangle2D;
 import java.util.ArrayList;
@@ -47,11 +48,22 @@ public final class ElementRoot extends AbstractElement {
     this.rightBlockSize.setSize(element.rightBlockSize);
   }
 
+  public ElementRoot(final ElementRoot element, final Topic topic) {
+    super(element, topic);
+    this.leftBlockSize.setSize(element.leftBlockSize);
+    this.rightBlockSize.setSize(element.rightBlockSize);
+  }
+
   @Override
   public AbstractElement makeCopy() {
     return new ElementRoot(this);
   }
 
+  @Override
+  public AbstractElement makeCopy(final Topic topic) {
+    return new ElementRoot(this, topic);
+  }
+
 
   @Override
   public boolean isMoveable() {
@@ -95,11 +107,9 @@ public final class ElementRoot extends AbstractElement {
   }
 
   @Override
-  public void drawConnector(final MMGraphics g, final Rectangle2D source,
-                            final Rectangle2D destination, final boolean leftDirection,
-                            final MindMapPanelConfig cfg) {
-    g.setStroke(cfg.safeScaleFloatValue(cfg.getConnectorWidth(), 0.1f), StrokeType.SOLID);
-
+  public void appendConnector(final Path2D path, final Rectangle2D source,
+                              final Rectangle2D destination, final boolean leftDirection,
+                              final MindMapPanelConfig cfg) {
     final double startX;
     if (destination.getCenterX() < source.getCenterX()) {
       // left
@@ -109,7 +119,9 @@ public final class ElementRoot extends AbstractElement {
       startX = source.getCenterX() + source.getWidth() / 4;
     }
 
-    g.drawCurve(startX, source.getCenterY(), destination.getCenterX(), destination.getCenterY(), cfg.getConnectorColor());
+    path.moveTo(startX, source.getCenterY());
+    path.curveTo(startX, destination.getCenterY(), startX, destination.getCenterY(),
+        destination.getCenterX(), destination.getCenterY());
   }
 
   private double calcTotalChildrenHeight(final double vertInset, final boolean left) {
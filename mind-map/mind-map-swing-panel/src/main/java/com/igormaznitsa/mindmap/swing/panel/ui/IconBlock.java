@@ -39,8 +39,12 @@ public class IconBlock {
   private Extra<?>[] currentExtras = null;
 
   public IconBlock(final IconBlock orig) {
+    this(orig, orig.model);
+  }
+
+  public IconBlock(final IconBlock orig, final Topic model) {
     this.bounds.setRect(orig.bounds);
-    this.model = orig.model;
+    this.model = model;
     this.scale = orig.scale;
     this.contentPresented = orig.contentPresented;
     this.currentExtras = orig.currentExtras == null ? null : orig.currentExtras.clone();
@@ -21,9 +21,9 @@ import static java.util.Objects.requireNonNull;
 
 import com.igormaznitsa.mindmap.swing.panel.MindMapPanelConfig;
 import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics;
+import com.igormaznitsa.mindmap.swing.panel.utils.ScaledResourceCache;
 import java.awt.Color;
 import java.awt.Font;
-import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
 import javax.swing.text.JTextComponent;
 
@@ -87,8 +87,7 @@ public final class TextBlock implements Cloneable {
   }
 
   public void updateSize(final MMGraphics gfx, final MindMapPanelConfig cfg) {
-    this.font =
-        cfg.getFont().deriveFont(AffineTransform.getScaleInstance(cfg.getScale(), cfg.getScale()));
+    this.font = ScaledResourceCache.findScaledFont(cfg.getFont(), cfg.getScale());
     gfx.setFont(font);
 
     this.maxLineAscent = gfx.getFontMaxAscent();
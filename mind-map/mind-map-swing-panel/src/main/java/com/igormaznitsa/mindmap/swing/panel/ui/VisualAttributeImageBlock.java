@@ -38,8 +38,12 @@ public class VisualAttributeImageBlock {
   private VisualItem[] items = null;
 
   public VisualAttributeImageBlock(final VisualAttributeImageBlock orig) {
+    this(orig, orig.model);
+  }
+
+  public VisualAttributeImageBlock(final VisualAttributeImageBlock orig, final Topic model) {
     this.bounds.setRect(orig.bounds);
-    this.model = orig.model;
+    this.model = model;
     this.contentPresented = orig.contentPresented;
     if (orig.items == null) {
       this.items = null;
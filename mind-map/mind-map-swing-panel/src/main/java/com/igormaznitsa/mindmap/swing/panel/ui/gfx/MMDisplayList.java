@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.mindmap.swing.panel.ui.gfx;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Immutable list of drawing commands recorded by {@link MMGraphicsRecorder}. The list can be
+ * replayed onto any graphics any number of times and from any thread.
+ *
+ * @see MMGraphicsRecorder
+ * @since 1.6.6
+ */
+public final class MMDisplayList {
+
+  /**
+   * Marker command to make copy of current graphics.
+   */
+  static final Command PUSH = g -> {
+  };
+
+  /**
+   * Marker command to dispose current graphics and return to previous one.
+   */
+  static final Command POP = g -> {
+  };
+
+  private final Command[] commands;
+  private final Rectangle2D[] bounds;
+
+  MMDisplayList(final List<Command> commands, final List<Rectangle2D> bounds) {
+    this.commands = commands.toArray(new Command[0]);
+    this.bounds = bounds.toArray(new Rectangle2D[0]);
+  }
+
+  /**
+   * Get number of recorded commands.
+   *
+   * @return number of commands
+   */
+  public int size() {
+    return this.commands.length;
+  }
+
+  public boolean isEmpty() {
+    return this.commands.length == 0;
+  }
+
+  /**
+   * Replay all recorded commands onto graphics. State changes made by top level commands
+   * (translate, font, stroke and clip) stay in the target graphics.
+   *
+   * @param target target graphics, must not be null
+   */
+  public void replay(final MMGraphics target) {
+    this.replay(target, null);
+  }
+
+  /**
+   * Replay recorded commands onto graphics but skip drawing commands which don't touch area.
+   * State changes are replayed in any case.
+   *
+   * @param target target graphics, must not be null
+   * @param area   area in coordinates of the recording graphics, null means the whole list
+   */
+  public void replay(final MMGraphics target, final Rectangle2D area) {
+    final Deque<MMGraphics> stack = new ArrayDeque<>();
+    MMGraphics current = target;
+    for (int i = 0; i < this.commands.length; i++) {
+      final Command command = this.commands[i];
+      final Rectangle2D commandBounds = this.bounds[i];
+      if (area != null && commandBounds != null && !commandBounds.intersects(area)) {
+        continue;
+      }
+      if (command == PUSH) {
+        stack.push(current);
+        current = current.copy();
+      } else if (command == POP) {
+        current.dispose();
+        current = stack.pop();
+      } else {
+        command.execute(current);
+      }
+    }
+    while (!stack.isEmpty()) {
+      current.dispose();
+      current = stack.pop();
+    }
+  }
+
+  /**
+   * Recorded drawing command.
+   */
+  @FunctionalInterface
+  interface Command {
+    void execute(MMGraphics gfx);
+  }
+}
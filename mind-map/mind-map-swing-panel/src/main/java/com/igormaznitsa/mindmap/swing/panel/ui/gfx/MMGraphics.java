@@ -22,6 +22,7 @@ import java.awt.Image;
 import java.awt.Rectangle;
 import java.awt.Shape;
 import java.awt.geom.Rectangle2D;
+import java.util.function.Consumer;
 
 /**
  * Decorator to provide graphic operations
@@ -132,6 +133,23 @@ public interface MMGraphics {
    */
   void drawImage(Image image, int x, int y);
 
+  /**
+   * Draw content which must be resolved at every drawing, for instance an image which can be
+   * evicted from a cache. Graphics which record operations keep the painter instead of what it
+   * draws, so that recorded lists don't hold drawn resources.
+   *
+   * @param painter painter to draw content, must not be null
+   * @param x       left top X of content
+   * @param y       left top Y of content
+   * @param width   width of content, negative if unknown
+   * @param height  height of content, negative if unknown
+   * @since 1.6.6
+   */
+  default void drawResolved(final Consumer<MMGraphics> painter, final int x, final int y,
+                            final int width, final int height) {
+    painter.accept(this);
+  }
+
   /**
    * Set current font for draw operations
    *
@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.mindmap.swing.panel.ui.gfx;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Graphics records drawing operations into display list instead of drawing. Requests of font
+ * metrics and clip bounds are served by measuring graphics which gets all state changes. Bounds
+ * of every drawing command are kept in the list to skip the command if it is out of area.
+ *
+ * @see MMDisplayList
+ * @since 1.6.6
+ */
+public final class MMGraphicsRecorder implements MMGraphics {
+
+  private final List<MMDisplayList.Command> commands;
+  private final List<Rectangle2D> bounds;
+  private final MMGraphics measurer;
+  private final boolean nested;
+  private double translateX;
+  private double translateY;
+  private float strokeWidth = 1.0f;
+
+  /**
+   * Constructor.
+   *
+   * @param measurer graphics to measure text and provide clip bounds, must not be null, it will
+   *                 be disposed together with the recorder
+   */
+  public MMGraphicsRecorder(final MMGraphics measurer) {
+    this(new ArrayList<>(), new ArrayList<>(), measurer, false);
+  }
+
+  private MMGraphicsRecorder(final List<MMDisplayList.Command> commands,
+                             final List<Rectangle2D> bounds,
+                             final MMGraphics measurer, final boolean nested) {
+    this.commands = commands;
+    this.bounds = bounds;
+    this.measurer = measurer;
+    this.nested = nested;
+  }
+
+  private void add(final MMDisplayList.Command command) {
+    this.commands.add(command);
+    this.bounds.add(null);
+  }
+
+  private void add(final MMDisplayList.Command command, final double x, final double y,
+                   final double width, final double height) {
+    final double gap = this.strokeWidth;
+    this.commands.add(command);
+    this.bounds.add(new Rectangle2D.Double(
+        Math.min(x, x + width) + this.translateX - gap,
+        Math.min(y, y + height) + this.translateY - gap,
+        Math.abs(width) + gap * 2.0d,
+        Math.abs(height) + gap * 2.0d));
+  }
+
+  /**
+   * Make display list from all recorded commands.
+   *
+   * @return display list, must not be null
+   */
+  public MMDisplayList toDisplayList() {
+    return new MMDisplayList(this.commands, this.bounds);
+  }
+
+  @Override
+  public MMGraphics copy() {
+    this.add(MMDisplayList.PUSH);
+    final MMGraphicsRecorder result =
+        new MMGraphicsRecorder(this.commands, this.bounds, this.measurer.copy(), true);
+    result.translateX = this.translateX;
+    result.translateY = this.translateY;
+    result.strokeWidth = this.strokeWidth;
+    return result;
+  }
+
+  @Override
+  public void dispose() {
+    if (this.nested) {
+      this.add(MMDisplayList.POP);
+    }
+    this.measurer.dispose();
+  }
+
+  @Override
+  public void translate(final double x, final double y) {
+    this.measurer.translate(x, y);
+    this.translateX += x;
+    this.translateY += y;
+    this.add(g -> g.translate(x, y));
+  }
+
+  @Override
+  public Rectangle getClipBounds() {
+    return this.measurer.getClipBounds();
+  }
+
+  @Override
+  public void setStroke(final float width, final StrokeType type) {
+    this.measurer.setStroke(width, type);
+    this.strokeWidth = Math.max(1.0f, width);
+    this.add(g -> g.setStroke(width, type));
+  }
+
+  @Override
+  public void drawLine(final int startX, final int startY, final int endX, final int endY,
+                       final Color color) {
+    this.add(g -> g.drawLine(startX, startY, endX, endY, color), startX, startY,
+        endX - startX, endY - startY);
+  }
+
+  @Override
+  public void drawRect(final int x, final int y, final int width, final int height,
+                       final Color border, final Color fill) {
+    this.add(g -> g.drawRect(x, y, width, height, border, fill), x, y, width, height);
+  }
+
+  @Override
+  public void draw(final Shape shape, final Color border, final Color fill) {
+    final Rectangle2D shapeBounds = shape.getBounds2D();
+    this.add(g -> g.draw(shape, border, fill), shapeBounds.getX(), shapeBounds.getY(),
+        shapeBounds.getWidth(), shapeBounds.getHeight());
+  }
+
+  @Override
+  public void drawCurve(final double startX, final double startY, final double endX,
+                        final double endY, final Color color) {
+    this.add(g -> g.drawCurve(startX, startY, endX, endY, color), startX, startY,
+        endX - startX, endY - startY);
+  }
+
+  @Override
+  public void drawOval(final int x, final int y, final int w, final int h, final Color border,
+                       final Color fill) {
+    this.add(g -> g.drawOval(x, y, w, h, border, fill), x, y, w, h);
+  }
+
+  @Override
+  public void drawImage(final Image image, final int x, final int y) {
+    final MMDisplayList.Command command = g -> g.drawImage(image, x, y);
+    final int width = image.getWidth(null);
+    final int height = image.getHeight(null);
+    if (width < 0 || height < 0) {
+      // size is unknown yet
+      this.add(command);
+    } else {
+      this.add(command, x, y, width, height);
+    }
+  }
+
+  @Override
+  public void drawResolved(final Consumer<MMGraphics> painter, final int x, final int y,
+                           final int width, final int height) {
+    final MMDisplayList.Command command = painter::accept;
+    if (width < 0 || height < 0) {
+      this.add(command);
+    } else {
+      this.add(command, x, y, width, height);
+    }
+  }
+
+  @Override
+  public void setFont(final Font font) {
+    this.measurer.setFont(font);
+    this.add(g -> g.setFont(font));
+  }
+
+  @Override
+  public float getFontMaxAscent() {
+    return this.measurer.getFontMaxAscent();
+  }
+
+  @Override
+  public void setClip(final int x, final int y, final int w, final int h) {
+    this.measurer.setClip(x, y, w, h);
+    this.add(g -> g.setClip(x, y, w, h));
+  }
+
+  @Override
+  public Rectangle2D getStringBounds(final String text) {
+    return this.measurer.getStringBounds(text);
+  }
+
+  @Override
+  public void drawString(final String text, final int x, final int y, final Color color) {
+    // logical bounds of text, glyphs can overhang them a bit
+    final Rectangle2D textBounds = this.measurer.getStringBounds(text);
+    final double overhang = textBounds.getHeight() / 4.0d;
+    this.add(g -> g.drawString(text, x, y, color), x + textBounds.getX() - overhang,
+        y + textBounds.getY() - overhang, textBounds.getWidth() + overhang * 2.0d,
+        textBounds.getHeight() + overhang * 2.0d);
+  }
+}
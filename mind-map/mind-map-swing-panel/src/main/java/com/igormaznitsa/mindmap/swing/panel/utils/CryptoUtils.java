@@ -30,23 +30,80 @@ import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.NoSuchPaddingException;
 import javax.crypto.spec.SecretKeySpec;
 
+/**
+ * Auxiliary methods to encrypt and decrypt notes. Key bytes made from password are filled with
+ * zeros after use and cached ciphers are re-initialized with zero key, but copies of key made by
+ * JCE provider and the password string itself can't be wiped and stay in memory until garbage
+ * collection.
+ */
 public final class CryptoUtils {
+
+  private static final ThreadLocal<Cipher> CIPHER = ThreadLocal.withInitial(() -> {
+    try {
+      return Cipher.getInstance("AES");
+    } catch (NoSuchAlgorithmException | NoSuchPaddingException ex) {
+      throw new IllegalStateException(ex);
+    }
+  });
+
+  private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException(ex);
+    }
+  });
+
+  /**
+   * Key to re-init cached cipher after use, so that cipher doesn't keep key of the last secret
+   * operation.
+   */
+  private static final Key WIPE_KEY = new SecretKeySpec(new byte[32], "AES");
+
   private CryptoUtils() {
 
   }
 
   public static byte[] sha256(final byte[] data) {
+    return SHA256.get().digest(data);
+  }
+
+  private static void wipeCipher(final Cipher cipher) {
     try {
-      return MessageDigest.getInstance("SHA-256").digest(data);
-    } catch (NoSuchAlgorithmException ex) {
-      throw new IllegalStateException(ex);
+      cipher.init(Cipher.ENCRYPT_MODE, WIPE_KEY);
+    } catch (InvalidKeyException ex) {
+      // cipher with unknown state must not be reused
+      CIPHER.remove();
     }
   }
 
+  private static byte[] makeKey(final String pass) {
+    return sha256(pass.getBytes(StandardCharsets.UTF_8));
+  }
+
   public static String encrypt(final String pass, final String text) {
     if (pass == null || pass.isEmpty()) {
       return text;
     }
+    final byte[] key = makeKey(pass);
+    try {
+      return encrypt(key, text);
+    } finally {
+      Arrays.fill(key, (byte) 0);
+    }
+  }
+
+  public static boolean decrypt(final String pass, final String text,
+                                final StringBuilder output) {
+    final byte[] key = makeKey(pass);
+    try {
+      return decrypt(key, text, output);
+    } finally {
+      Arrays.fill(key, (byte) 0);
+    }
+  }
+
+  private static String encrypt(final byte[] key, final String text) {
     try {
       final byte[] textBytes = text.getBytes(StandardCharsets.UTF_8);
       final byte[] textHash = sha256(textBytes);
@@ -57,30 +114,38 @@ public final class CryptoUtils {
 
       final byte[] originalData = outputStream.toByteArray();
 
-      final byte[] key = sha256(pass.getBytes(StandardCharsets.UTF_8));
-      Key aesKey = new SecretKeySpec(key, "AES");
-      Cipher cipher = Cipher.getInstance("AES");
+      final Key aesKey = new SecretKeySpec(key, "AES");
+      final Cipher cipher = CIPHER.get();
+      final byte[] encodedData;
       cipher.init(Cipher.ENCRYPT_MODE, aesKey);
-      final byte[] encodedData = cipher.doFinal(originalData);
+      try {
+        encodedData = cipher.doFinal(originalData);
+      } finally {
+        wipeCipher(cipher);
+      }
       if (Arrays.equals(originalData, encodedData)) {
         throw new IllegalStateException(
             "Data can't be encrypted! Check encryption provider and settings!");
       }
       return Utils.base64encode(encodedData);
-    } catch (NoSuchPaddingException | InvalidKeyException | NoSuchAlgorithmException |
-             IllegalBlockSizeException | BadPaddingException | IOException ex) {
+    } catch (InvalidKeyException | IllegalBlockSizeException | BadPaddingException
+             | IOException ex) {
       throw new RuntimeException(ex);
     }
   }
 
-  public static boolean decrypt(final String pass, final String text,
-                                final StringBuilder output) {
+  private static boolean decrypt(final byte[] key, final String text,
+                                 final StringBuilder output) {
     try {
-      final byte[] key = sha256(pass.getBytes(StandardCharsets.UTF_8));
       final Key aesKey = new SecretKeySpec(key, "AES");
-      Cipher cipher = Cipher.getInstance("AES");
+      final Cipher cipher = CIPHER.get();
+      final byte[] decrypted;
       cipher.init(Cipher.DECRYPT_MODE, aesKey);
-      final byte[] decrypted = cipher.doFinal(Utils.base64decode(text));
+      try {
+        decrypted = cipher.doFinal(Utils.base64decode(text));
+      } finally {
+        wipeCipher(cipher);
+      }
       if (decrypted.length < 32) {
         return false;
       }
@@ -94,9 +159,8 @@ public final class CryptoUtils {
       return true;
     } catch (BadPaddingException ex) {
       return false;
-    } catch (NoSuchPaddingException | InvalidKeyException | NoSuchAlgorithmException | IllegalBlockSizeException ex) {
+    } catch (InvalidKeyException | IllegalBlockSizeException ex) {
       throw new RuntimeException(ex);
     }
   }
-
 }
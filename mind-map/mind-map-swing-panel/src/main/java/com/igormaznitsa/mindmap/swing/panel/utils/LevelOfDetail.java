@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2015-2023 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.swing.panel.utils;
+
+/**
+ * Level of details to render mind map elements, it depends on current scale.
+ *
+ * @see com.igormaznitsa.mindmap.swing.panel.MindMapPanelConfig#findLevelOfDetail(double)
+ * @since 1.6.6
+ */
+public enum LevelOfDetail {
+  /**
+   * Render all parts of elements.
+   */
+  FULL,
+  /**
+   * Render element boxes with borders and connectors, text is replaced by placeholder bar, icons,
+   * images and shadows are not rendered.
+   */
+  SIMPLIFIED,
+  /**
+   * Render only filled element boxes and straight connectors.
+   */
+  SKELETON
+}
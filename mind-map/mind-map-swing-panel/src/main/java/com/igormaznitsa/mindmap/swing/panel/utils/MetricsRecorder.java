@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.mindmap.swing.panel.utils;
+
+import com.igormaznitsa.mindmap.swing.panel.MindMapPanelMetrics;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Collector of performance metrics for one layout or paint frame. Active recorder is bound to
+ * the current thread so that instrumented code (elements, plugins, caches) can report into it
+ * without any reference to the panel, if there is no active recorder then reporting is no-op.
+ *
+ * @see MindMapPanelMetrics
+ * @since 1.6.6
+ */
+public final class MetricsRecorder {
+
+  private static final ThreadLocal<MetricsRecorder> ACTIVE = new ThreadLocal<>();
+
+  private final MindMapPanelMetrics.FrameType frameType;
+  private final long startTime = System.nanoTime();
+  private final Map<String, Long> cacheHits = new HashMap<>();
+  private final Map<String, Long> cacheMisses = new HashMap<>();
+  private long elementCreationNanos;
+  private long textMeasurementNanos;
+  private long alignmentNanos;
+  private int topicsProcessed;
+  private int topicsDrawn;
+  private int topicsCulled;
+  private MetricsRecorder previous;
+
+  public MetricsRecorder(final MindMapPanelMetrics.FrameType frameType) {
+    this.frameType = frameType;
+  }
+
+  /**
+   * Get recorder bound to the current thread.
+   *
+   * @return active recorder or null
+   */
+  public static MetricsRecorder current() {
+    return ACTIVE.get();
+  }
+
+  /**
+   * Report access to named cache into recorder of the current thread.
+   *
+   * @param cacheName name of cache, must not be null
+   * @param hit       true if cache hit, false if cache miss
+   */
+  public static void recordCacheAccess(final String cacheName, final boolean hit) {
+    final MetricsRecorder recorder = ACTIVE.get();
+    if (recorder != null) {
+      recorder.addCacheAccess(cacheName, hit);
+    }
+  }
+
+  /**
+   * Bind the recorder to the current thread, recorder which was active before will be restored
+   * by {@link #finish()}.
+   *
+   * @return the recorder
+   */
+  public MetricsRecorder activate() {
+    this.previous = ACTIVE.get();
+    ACTIVE.set(this);
+    return this;
+  }
+
+  /**
+   * Unbind the recorder from the current thread and make snapshot of collected metrics.
+   *
+   * @return collected metrics
+   */
+  public MindMapPanelMetrics finish() {
+    if (ACTIVE.get() == this) {
+      if (this.previous == null) {
+        ACTIVE.remove();
+      } else {
+        ACTIVE.set(this.previous);
+      }
+    }
+    this.previous = null;
+    return new MindMapPanelMetrics(this.frameType, this.elementCreationNanos,
+        this.textMeasurementNanos, this.alignmentNanos,
+        this.frameType == MindMapPanelMetrics.FrameType.PAINT ? System.nanoTime() - this.startTime
+            : 0L,
+        this.topicsProcessed, this.topicsDrawn, this.topicsCulled, this.cacheHits,
+        this.cacheMisses);
+  }
+
+  public void addCacheAccess(final String cacheName, final boolean hit) {
+    (hit ? this.cacheHits : this.cacheMisses).merge(cacheName, 1L, Long::sum);
+  }
+
+  public void addElementCreation(final long nanos) {
+    this.elementCreationNanos += nanos;
+  }
+
+  public void addTextMeasurement(final long nanos) {
+    this.textMeasurementNanos += nanos;
+    this.topicsProcessed++;
+  }
+
+  public void addAlignment(final long nanos) {
+    this.alignmentNanos += nanos;
+  }
+
+  public void incTopicsDrawn() {
+    this.topicsDrawn++;
+  }
+
+  public void incTopicsCulled() {
+    this.topicsCulled++;
+  }
+}
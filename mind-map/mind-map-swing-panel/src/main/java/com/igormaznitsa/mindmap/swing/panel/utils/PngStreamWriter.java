@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.mindmap.swing.panel.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Simple row-based PNG encoder writing 8 bit RGBA image directly into output stream. Rows can be
+ * provided by portions so that whole image is never kept in memory.
+ *
+ * @since 1.6.6
+ */
+public final class PngStreamWriter implements AutoCloseable {
+
+  private static final byte[] SIGNATURE =
+      new byte[] {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+  private static final int IDAT_CHUNK_SIZE = 64 * 1024;
+
+  private final OutputStream out;
+  private final int width;
+  private final int height;
+  private final Deflater deflater;
+  private final DeflaterOutputStream imageData;
+  private final byte[] rowBuffer;
+  private int writtenRows;
+
+  /**
+   * Constructor, writes PNG signature and image header.
+   *
+   * @param out    target stream, must not be null, it is not closed by the writer
+   * @param width  width of image in pixels, must be greater than zero
+   * @param height height of image in pixels, must be greater than zero
+   * @throws IOException if any IO error
+   */
+  public PngStreamWriter(final OutputStream out, final int width, final int height)
+      throws IOException {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("Wrong image size: " + width + 'x' + height);
+    }
+    this.out = out;
+    this.width = width;
+    this.height = height;
+    this.rowBuffer = new byte[1 + width * 4];
+
+    this.out.write(SIGNATURE);
+    final ByteArrayOutputStream header = new ByteArrayOutputStream(13);
+    final DataOutputStream headerData = new DataOutputStream(header);
+    headerData.writeInt(width);
+    headerData.writeInt(height);
+    headerData.writeByte(8); // bit depth
+    headerData.writeByte(6); // RGBA
+    headerData.writeByte(0); // deflate
+    headerData.writeByte(0); // adaptive filtering
+    headerData.writeByte(0); // no interlace
+    writeChunk(this.out, "IHDR", header.toByteArray(), header.size());
+
+    this.deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    this.imageData = new DeflaterOutputStream(new IdatOutputStream(this.out), this.deflater,
+        IDAT_CHUNK_SIZE);
+  }
+
+  private static void writeChunk(final OutputStream out, final String type, final byte[] data,
+                                 final int length) throws IOException {
+    final byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+    final CRC32 crc = new CRC32();
+    crc.update(typeBytes);
+    crc.update(data, 0, length);
+
+    final DataOutputStream dataOut = new DataOutputStream(out);
+    dataOut.writeInt(length);
+    dataOut.write(typeBytes);
+    dataOut.write(data, 0, length);
+    dataOut.writeInt((int) crc.getValue());
+    dataOut.flush();
+  }
+
+  public int getWidth() {
+    return this.width;
+  }
+
+  public int getHeight() {
+    return this.height;
+  }
+
+  /**
+   * Write next rows of image. Every row is encoded with Sub filter.
+   *
+   * @param argb   array contains non-premultiplied ARGB pixels, row after row
+   * @param offset offset of the first pixel in the array
+   * @param rows   number of rows to be written
+   * @throws IOException if any IO error
+   */
+  public void writeRows(final int[] argb, final int offset, final int rows) throws IOException {
+    if (this.writtenRows + rows > this.height) {
+      throw new IllegalStateException("Too many rows");
+    }
+    final byte[] row = this.rowBuffer;
+    row[0] = 1;
+    for (int r = 0; r < rows; r++) {
+      final int start = offset + r * this.width;
+      int prevR = 0;
+      int prevG = 0;
+      int prevB = 0;
+      int prevA = 0;
+      int pos = 1;
+      for (int x = 0; x < this.width; x++) {
+        final int pixel = argb[start + x];
+        final int red = (pixel >>> 16) & 0xFF;
+        final int green = (pixel >>> 8) & 0xFF;
+        final int blue = pixel & 0xFF;
+        final int alpha = pixel >>> 24;
+        row[pos++] = (byte) (red - prevR);
+        row[pos++] = (byte) (green - prevG);
+        row[pos++] = (byte) (blue - prevB);
+        row[pos++] = (byte) (alpha - prevA);
+        prevR = red;
+        prevG = green;
+        prevB = blue;
+        prevA = alpha;
+      }
+      this.imageData.write(row);
+    }
+    this.writtenRows += rows;
+  }
+
+  /**
+   * Finish image data and write the end chunk. All rows must be written before the call.
+   *
+   * @throws IOException if any IO error or not all rows have been written
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      if (this.writtenRows != this.height) {
+        throw new IOException(
+            "Written only " + this.writtenRows + " row(s) from " + this.height);
+      }
+      this.imageData.finish();
+      this.imageData.flush();
+      writeChunk(this.out, "IEND", new byte[0], 0);
+      this.out.flush();
+    } finally {
+      this.deflater.end();
+    }
+  }
+
+  /**
+   * Stream splits compressed data into IDAT chunks.
+   */
+  private static final class IdatOutputStream extends OutputStream {
+    private final OutputStream out;
+    private final byte[] buffer = new byte[IDAT_CHUNK_SIZE];
+    private int size;
+
+    private IdatOutputStream(final OutputStream out) {
+      this.out = out;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+      if (this.size == this.buffer.length) {
+        this.flush();
+      }
+      this.buffer[this.size++] = (byte) b;
+    }
+
+    @Override
+    public void write(final byte[] data, final int off, final int len) throws IOException {
+      int offset = off;
+      int length = len;
+      while (length > 0) {
+        if (this.size == this.buffer.length) {
+          this.flush();
+        }
+        final int portion = Math.min(length, this.buffer.length - this.size);
+        System.arraycopy(data, offset, this.buffer, this.size, portion);
+        this.size += portion;
+        offset += portion;
+        length -= portion;
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      if (this.size > 0) {
+        writeChunk(this.out, "IDAT", this.buffer, this.size);
+        this.size = 0;
+      }
+    }
+  }
+}
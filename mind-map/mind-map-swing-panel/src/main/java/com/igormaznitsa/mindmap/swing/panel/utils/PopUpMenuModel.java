@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.swing.panel.utils;
+
+import static com.igormaznitsa.mindmap.swing.panel.utils.Utils.ICON_SERVICE;
+import static com.igormaznitsa.mindmap.swing.panel.utils.Utils.UI_COMPO_FACTORY;
+
+import com.igormaznitsa.mindmap.model.Topic;
+import com.igormaznitsa.mindmap.plugins.MindMapPluginRegistry;
+import com.igormaznitsa.mindmap.plugins.PopUpSection;
+import com.igormaznitsa.mindmap.plugins.api.AbstractPopupMenuItem;
+import com.igormaznitsa.mindmap.plugins.api.ExternallyExecutedPlugin;
+import com.igormaznitsa.mindmap.plugins.api.PluginContext;
+import com.igormaznitsa.mindmap.plugins.api.PopUpMenuItemPlugin;
+import com.igormaznitsa.mindmap.swing.i18n.MmdI18n;
+import com.igormaznitsa.mindmap.swing.panel.DialogProvider;
+import com.igormaznitsa.mindmap.swing.panel.MindMapPanel;
+import com.igormaznitsa.mindmap.swing.panel.MindMapPanelConfig;
+import com.igormaznitsa.mindmap.swing.services.IconID;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.swing.JMenu;
+import javax.swing.JMenuItem;
+import javax.swing.LookAndFeel;
+import javax.swing.UIManager;
+
+/**
+ * Cached structure of pop-up menu for a mind map panel. Plug-ins are grouped by sections once
+ * for every version of the plug-in registry, reusable items and sub-menus are made once for the
+ * panel and only their enabled state is updated for every new pop-up menu. Hosts can make new
+ * plugin context for every pop-up menu, so reusable items are made with context which delegates
+ * calls to the context of the last pop-up menu.
+ *
+ * @since 1.6.6
+ */
+final class PopUpMenuModel {
+
+  private static final String CLIENT_PROPERTY = "mmd.popUpMenuModel";
+
+  private static final Object SECTIONS_LOCK = new Object();
+  private static long sectionsVersion = -1L;
+  private static Map<PopUpSection, List<PopUpMenuItemPlugin>> sections;
+
+  private final ActiveContext activeContext = new ActiveContext();
+  private final long registryVersion;
+  private final LookAndFeel lookAndFeel;
+  private final Map<PopUpMenuItemPlugin, JMenuItem> reusableItems = new IdentityHashMap<>();
+  private JMenu exportMenu;
+  private JMenu importMenu;
+
+  private PopUpMenuModel(final long registryVersion) {
+    this.registryVersion = registryVersion;
+    this.lookAndFeel = UIManager.getLookAndFeel();
+  }
+
+  /**
+   * Find model for panel, it is kept as client property of the panel.
+   *
+   * @param panel mind map panel, must not be null
+   * @return model actual for current registry content, must not be null
+   */
+  static PopUpMenuModel find(final MindMapPanel panel) {
+    final long version = MindMapPluginRegistry.getInstance().getVersion();
+    PopUpMenuModel result = (PopUpMenuModel) panel.getClientProperty(CLIENT_PROPERTY);
+    if (result == null
+        || result.registryVersion != version
+        || result.lookAndFeel != UIManager.getLookAndFeel()) {
+      result = new PopUpMenuModel(version);
+      panel.putClientProperty(CLIENT_PROPERTY, result);
+    }
+    return result;
+  }
+
+  private static List<PopUpMenuItemPlugin> findSectionPlugins(final PopUpSection section) {
+    synchronized (SECTIONS_LOCK) {
+      final MindMapPluginRegistry registry = MindMapPluginRegistry.getInstance();
+      final long version = registry.getVersion();
+      if (sections == null || sectionsVersion != version) {
+        final Map<PopUpSection, List<PopUpMenuItemPlugin>> grouped =
+            new EnumMap<>(PopUpSection.class);
+        for (final PopUpSection s : PopUpSection.values()) {
+          final List<PopUpMenuItemPlugin> sectionPlugins = new ArrayList<>();
+          for (final PopUpMenuItemPlugin p : registry.findFor(PopUpMenuItemPlugin.class)) {
+            if (p.getSection() == s) {
+              sectionPlugins.add(p);
+            }
+          }
+          grouped.put(s, Collections.unmodifiableList(sectionPlugins));
+        }
+        sections = grouped;
+        sectionsVersion = version;
+      }
+      return sections.get(section);
+    }
+  }
+
+  private static boolean isReusable(final PopUpMenuItemPlugin plugin) {
+    return plugin instanceof AbstractPopupMenuItem
+        && ((AbstractPopupMenuItem) plugin).isMenuItemReusable();
+  }
+
+  List<JMenuItem> findItems(
+      final PluginContext context,
+      final PopUpSection section,
+      final boolean fullScreenModeActive,
+      final Topic topicUnderMouse,
+      final List<JMenuItem> list
+  ) {
+    list.clear();
+    this.activeContext.target = context;
+
+    for (final PopUpMenuItemPlugin p : findSectionPlugins(section)) {
+      if (fullScreenModeActive && !p.isCompatibleWithFullScreenMode()) {
+        continue;
+      }
+      if (!(p.needsTopicUnderMouse() || p.needsSelectedTopics())
+          || (p.needsTopicUnderMouse() && topicUnderMouse != null)
+          || (p.needsSelectedTopics() && context.getSelectedTopics().length > 0)) {
+
+        final JMenuItem item;
+        if (isReusable(p)) {
+          item = this.reusableItems.computeIfAbsent(p,
+              x -> x.makeMenuItem(this.activeContext, null));
+        } else {
+          item = p.makeMenuItem(context, topicUnderMouse);
+        }
+        if (item != null) {
+          item.setEnabled(p.isEnabled(context, topicUnderMouse));
+          list.add(item);
+        }
+      }
+    }
+    return list;
+  }
+
+  JMenu getExportMenu() {
+    if (this.exportMenu == null) {
+      this.exportMenu = UI_COMPO_FACTORY.makeMenu(
+          MmdI18n.getInstance().findBundle().getString("MMDExporters.SubmenuName"));
+      this.exportMenu.setIcon(ICON_SERVICE.getIconForId(IconID.POPUP_EXPORT));
+    }
+    this.exportMenu.removeAll();
+    return this.exportMenu;
+  }
+
+  JMenu getImportMenu() {
+    if (this.importMenu == null) {
+      this.importMenu = UI_COMPO_FACTORY.makeMenu(
+          MmdI18n.getInstance().findBundle().getString("MMDImporters.SubmenuName"));
+      this.importMenu.setIcon(ICON_SERVICE.getIconForId(IconID.POPUP_IMPORT));
+    }
+    this.importMenu.removeAll();
+    return this.importMenu;
+  }
+
+  /**
+   * Plugin context which delegates all calls to context of the last pop-up menu.
+   */
+  private static final class ActiveContext implements PluginContext {
+    private PluginContext target;
+
+    @Override
+    public MindMapPanelConfig getPanelConfig() {
+      return this.target.getPanelConfig();
+    }
+
+    @Override
+    public MindMapPanel getPanel() {
+      return this.target.getPanel();
+    }
+
+    @Override
+    public DialogProvider getDialogProvider() {
+      return this.target.getDialogProvider();
+    }
+
+    @Override
+    public File getProjectFolder() {
+      return this.target.getProjectFolder();
+    }
+
+    @Override
+    public File getMindMapFile() {
+      return this.target.getMindMapFile();
+    }
+
+    @Override
+    public Topic[] getSelectedTopics() {
+      return this.target.getSelectedTopics();
+    }
+
+    @Override
+    public void openFile(final File file, final boolean preferSystemBrowser) {
+      this.target.openFile(file, preferSystemBrowser);
+    }
+
+    @Override
+    public void processPluginActivation(final ExternallyExecutedPlugin plugin,
+                                        final Topic activeTopic) {
+      this.target.processPluginActivation(plugin, activeTopic);
+    }
+  }
+}
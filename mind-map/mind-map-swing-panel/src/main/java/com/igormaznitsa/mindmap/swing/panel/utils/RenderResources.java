@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.mindmap.swing.panel.utils;
+
+import java.awt.Component;
+import java.awt.Window;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.swing.SwingUtilities;
+
+/**
+ * Tracker of render resources which are prepared in background (for instance decoded images).
+ * Components paint inside of {@link PaintPass}, so that a resource requested during paint knows
+ * which component waits for it and only that component is repainted when the resource is ready.
+ * Renderings which have met a missing resource must not be cached, it can be detected through
+ * change of {@link #getMissingResourceCount()}.
+ *
+ * @since 1.6.6
+ */
+public final class RenderResources {
+
+  private static final AtomicLong FRAME = new AtomicLong();
+  private static final ThreadLocal<PaintPass> CURRENT_PASS = new ThreadLocal<>();
+  private static final ThreadLocal<long[]> MISSING_COUNTER =
+      ThreadLocal.withInitial(() -> new long[1]);
+
+  private static final Object REPAINT_LOCK = new Object();
+  private static final Set<Component> REPAINT_TARGETS = new LinkedHashSet<>();
+  private static boolean repaintAllWindows;
+  private static boolean repaintScheduled;
+
+  private RenderResources() {
+  }
+
+  /**
+   * Start paint pass of component in the current thread, must be closed after paint.
+   *
+   * @param component component to be painted, must not be null
+   * @return started paint pass, must not be null
+   */
+  public static PaintPass beginPaint(final Component component) {
+    final PaintPass result = new PaintPass(component, FRAME.incrementAndGet(),
+        CURRENT_PASS.get());
+    CURRENT_PASS.set(result);
+    return result;
+  }
+
+  /**
+   * Get number of the last started paint pass.
+   *
+   * @return frame number of the last paint pass
+   */
+  public static long getFrame() {
+    return FRAME.get();
+  }
+
+  /**
+   * Find frame number of paint pass active in the current thread.
+   *
+   * @return frame number or -1 if there is no active paint pass
+   */
+  public static long findPaintFrame() {
+    final PaintPass pass = CURRENT_PASS.get();
+    return pass == null ? -1L : pass.frame;
+  }
+
+  /**
+   * Find component painted in the current thread.
+   *
+   * @return painted component or null if there is no active paint pass
+   */
+  public static Component findPaintTarget() {
+    final PaintPass pass = CURRENT_PASS.get();
+    return pass == null ? null : pass.component;
+  }
+
+  /**
+   * Notify that rendering in the current thread has met a resource which is not ready yet.
+   */
+  public static void notifyResourceMissing() {
+    MISSING_COUNTER.get()[0]++;
+  }
+
+  /**
+   * Get number of missing resources met by renderings in the current thread.
+   *
+   * @return counter of missing resources
+   */
+  public static long getMissingResourceCount() {
+    return MISSING_COUNTER.get()[0];
+  }
+
+  /**
+   * Notify that a resource has been prepared in background and components waiting for it must
+   * be repainted. Can be called from any thread, repaint requests are coalesced into single
+   * event on the event dispatch thread.
+   *
+   * @param targets    components waiting for the resource, must not be null
+   * @param allWindows true if the resource has been requested out of paint pass, so all visible
+   *                   windows must be repainted
+   */
+  public static void notifyResourceReady(final Collection<Component> targets,
+                                         final boolean allWindows) {
+    if (targets.isEmpty() && !allWindows) {
+      return;
+    }
+    synchronized (REPAINT_LOCK) {
+      REPAINT_TARGETS.addAll(targets);
+      repaintAllWindows |= allWindows;
+      if (repaintScheduled) {
+        return;
+      }
+      repaintScheduled = true;
+    }
+    SwingUtilities.invokeLater(() -> {
+      final Component[] components;
+      final boolean all;
+      synchronized (REPAINT_LOCK) {
+        components = REPAINT_TARGETS.toArray(new Component[0]);
+        all = repaintAllWindows;
+        REPAINT_TARGETS.clear();
+        repaintAllWindows = false;
+        repaintScheduled = false;
+      }
+      if (all) {
+        for (final Window window : Window.getWindows()) {
+          if (window.isShowing()) {
+            window.repaint();
+          }
+        }
+      } else {
+        for (final Component component : components) {
+          if (component.isShowing()) {
+            component.repaint();
+          }
+        }
+      }
+    });
+  }
+
+  /**
+   * Paint pass of component, it must be closed in the same thread.
+   */
+  public static final class PaintPass implements AutoCloseable {
+    private final Component component;
+    private final long frame;
+    private final PaintPass previous;
+
+    private PaintPass(final Component component, final long frame, final PaintPass previous) {
+      this.component = component;
+      this.frame = frame;
+      this.previous = previous;
+    }
+
+    @Override
+    public void close() {
+      if (this.previous == null) {
+        CURRENT_PASS.remove();
+      } else {
+        CURRENT_PASS.set(this.previous);
+      }
+    }
+  }
+}
@@ -40,8 +40,6 @@ public final class ScalableIcon {
   private final Image baseImage;
   private final float baseScaleX;
   private final float baseScaleY;
-  private volatile double scale = -1.0d;
-  private Image scaledCachedImage;
 
   public ScalableIcon(final Image image) {
     this.baseImage = requireNonNull(image, "Image must not be null");
@@ -62,20 +60,28 @@ public final class ScalableIcon {
     }
   }
 
+  /**
+   * Get the last scale of the icon image.
+   *
+   * @return the most recently used scale which has cached image of the icon, -1 if there is no
+   * such one
+   * @deprecated icons are shared between panels with different scales, so that the value can
+   * belong to any of them, use {@link #getImage(double)} with scale of panel
+   */
+  @Deprecated
   public double getScale() {
-    return this.scale;
+    return ScaledResourceCache.findLastScale(this);
   }
 
+  /**
+   * Get image scaled for scale. Scaled images are shared between all panels through
+   * {@link ScaledResourceCache}.
+   *
+   * @param scale scale of image
+   * @return scaled image, can be null if scaled image is too small
+   */
   public Image getImage(final double scale) {
-    if (Double.compare(this.scale, scale) != 0) {
-      this.scaledCachedImage = null;
-    }
-
-    if (this.scaledCachedImage == null) {
-      this.scaledCachedImage =
-          Utils.scaleImage(this.baseImage, this.baseScaleX, this.baseScaleY, scale);
-      this.scale = scale;
-    }
-    return this.scaledCachedImage;
+    return ScaledResourceCache.find(this, scale,
+        () -> Utils.scaleImage(this.baseImage, this.baseScaleX, this.baseScaleY, scale));
   }
 }
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.swing.panel.utils;
+
+import java.awt.Font;
+import java.awt.geom.AffineTransform;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide cache of resources prepared for a scale (derived fonts, scaled icons, emoticon
+ * atlases). All panels with the same scale share the same resource instances. Panels hold
+ * reference to scale they use, resources of scales which are not referenced by any panel are
+ * kept only for few last used scales.
+ *
+ * @since 1.6.6
+ */
+public final class ScaledResourceCache {
+
+  private static final int MAX_UNREFERENCED_SCALES = 4;
+
+  private static final Map<Double, ScaleBucket> BUCKETS = new LinkedHashMap<>(16, 0.75f, true);
+
+  private ScaledResourceCache() {
+  }
+
+  /**
+   * Notify that scale is in use, must be paired with {@link #release(double)}.
+   *
+   * @param scale used scale
+   */
+  public static void acquire(final double scale) {
+    synchronized (BUCKETS) {
+      BUCKETS.computeIfAbsent(scale, x -> new ScaleBucket()).references++;
+    }
+  }
+
+  /**
+   * Notify that scale is not used anymore.
+   *
+   * @param scale scale provided in {@link #acquire(double)}
+   */
+  public static void release(final double scale) {
+    synchronized (BUCKETS) {
+      final ScaleBucket bucket = BUCKETS.get(scale);
+      if (bucket != null && bucket.references > 0) {
+        bucket.references--;
+        if (bucket.references == 0) {
+          removeUnreferenced();
+        }
+      }
+    }
+  }
+
+  /**
+   * Find resource for scale or make it if not found.
+   *
+   * @param key   key of resource, must not be null and must not be equal to keys of other kinds
+   * @param scale scale of resource
+   * @param maker maker of resource, called outside of cache lock, can return null
+   * @param <T>   type of resource
+   * @return found or made resource, can be null if maker returns null
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> T find(final Object key, final double scale, final Supplier<T> maker) {
+    synchronized (BUCKETS) {
+      final ScaleBucket bucket = BUCKETS.get(scale);
+      final Object found = bucket == null ? null : bucket.resources.get(key);
+      MetricsRecorder.recordCacheAccess("scaled-resource", found != null);
+      if (found != null) {
+        return (T) found;
+      }
+    }
+
+    final T made = maker.get();
+    if (made == null) {
+      return null;
+    }
+
+    synchronized (BUCKETS) {
+      ScaleBucket bucket = BUCKETS.get(scale);
+      if (bucket == null) {
+        bucket = new ScaleBucket();
+        BUCKETS.put(scale, bucket);
+        removeUnreferenced();
+      }
+      final Object alreadyMade = bucket.resources.putIfAbsent(key, made);
+      return alreadyMade == null ? made : (T) alreadyMade;
+    }
+  }
+
+  /**
+   * Find the most recently used scale which has cached resource for key.
+   *
+   * @param key key of resource, must not be null
+   * @return found scale or -1 if there is no cached resource for the key
+   */
+  public static double findLastScale(final Object key) {
+    double result = -1.0d;
+    synchronized (BUCKETS) {
+      // iteration starts from the least recently used scale
+      for (final Map.Entry<Double, ScaleBucket> e : BUCKETS.entrySet()) {
+        if (e.getValue().resources.containsKey(key)) {
+          result = e.getKey();
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Find font derived from base font for scale.
+   *
+   * @param font  base font, must not be null
+   * @param scale scale to be applied to the font
+   * @return shared scaled font, must not be null
+   */
+  public static Font findScaledFont(final Font font, final double scale) {
+    return find(font, scale,
+        () -> font.deriveFont(AffineTransform.getScaleInstance(scale, scale)));
+  }
+
+  /**
+   * Remove all cached resources and references, for tests only.
+   */
+  static void clear() {
+    synchronized (BUCKETS) {
+      BUCKETS.clear();
+    }
+  }
+
+  static int getBucketCount() {
+    synchronized (BUCKETS) {
+      return BUCKETS.size();
+    }
+  }
+
+  private static void removeUnreferenced() {
+    int unreferenced = 0;
+    for (final ScaleBucket b : BUCKETS.values()) {
+      if (b.references == 0) {
+        unreferenced++;
+      }
+    }
+    // iteration starts from the least recently used scale
+    final Iterator<ScaleBucket> iterator = BUCKETS.values().iterator();
+    while (unreferenced > MAX_UNREFERENCED_SCALES && iterator.hasNext()) {
+      if (iterator.next().references == 0) {
+        iterator.remove();
+        unreferenced--;
+      }
+    }
+  }
+
+  private static final class ScaleBucket {
+
+    private final Map<Object, Object> resources = new HashMap<>();
+    private int references;
+  }
+}
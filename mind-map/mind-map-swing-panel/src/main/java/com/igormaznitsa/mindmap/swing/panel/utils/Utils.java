@@ -19,10 +19,8 @@ package com.igormaznitsa.mindmap.swing.panel.utils;
 import com.igormaznitsa.mindmap.model.Topic;
 import com.igormaznitsa.mindmap.model.logger.Logger;
 import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
-import com.igormaznitsa.mindmap.plugins.MindMapPluginRegistry;
 import com.igormaznitsa.mindmap.plugins.PopUpSection;
 import com.igormaznitsa.mindmap.plugins.api.PluginContext;
-import com.igormaznitsa.mindmap.plugins.api.PopUpMenuItemPlugin;
 import com.igormaznitsa.mindmap.swing.i18n.MmdI18n;
 import com.igormaznitsa.mindmap.swing.panel.DialogProvider;
 import com.igormaznitsa.mindmap.swing.panel.MindMapPanelConfig;
@@ -30,7 +28,6 @@ import com.igormaznitsa.mindmap.swing.panel.ui.AbstractCollapsableElement;
 import com.igormaznitsa.mindmap.swing.panel.ui.AbstractElement;
 import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics;
 import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics2DWrapper;
-import com.igormaznitsa.mindmap.swing.services.IconID;
 import com.igormaznitsa.mindmap.swing.services.ImageIconService;
 import com.igormaznitsa.mindmap.swing.services.ImageIconServiceProvider;
 import com.igormaznitsa.mindmap.swing.services.UIComponentFactory;
@@ -805,36 +802,6 @@ public final class Utils {
     return new Color(color.getRed() ^ 0xFF, color.getGreen() ^ 0xFF, color.getBlue() ^ 0xFF);
   }
 
-  private static List<JMenuItem> findPopupMenuItems(
-      final PluginContext context,
-      final PopUpSection section,
-      final boolean fullScreenModeActive,
-      final List<JMenuItem> list,
-      final Topic topicUnderMouse,
-      final List<PopUpMenuItemPlugin> pluginMenuItems
-  ) {
-    list.clear();
-
-    for (final PopUpMenuItemPlugin p : pluginMenuItems) {
-      if (fullScreenModeActive && !p.isCompatibleWithFullScreenMode()) {
-        continue;
-      }
-      if (p.getSection() == section) {
-        if (!(p.needsTopicUnderMouse() || p.needsSelectedTopics())
-            || (p.needsTopicUnderMouse() && topicUnderMouse != null)
-            || (p.needsSelectedTopics() && context.getSelectedTopics().length > 0)) {
-
-          final JMenuItem item = p.makeMenuItem(context, topicUnderMouse);
-          if (item != null) {
-            item.setEnabled(p.isEnabled(context, topicUnderMouse));
-            list.add(item);
-          }
-        }
-      }
-    }
-    return list;
-  }
-
   public static void assertSwingDispatchThread() {
     if (!SwingUtilities.isEventDispatchThread()) {
       throw new Error("Must be called in Swing dispatch thread");
@@ -880,45 +847,36 @@ public final class Utils {
       final Topic topicUnderMouse
   ) {
     final JPopupMenu result = UI_COMPO_FACTORY.makePopupMenu();
-    final List<PopUpMenuItemPlugin> pluginMenuItems =
-        MindMapPluginRegistry.getInstance().findFor(PopUpMenuItemPlugin.class);
+    final PopUpMenuModel menuModel = PopUpMenuModel.find(context.getPanel());
     final List<JMenuItem> tmpList = new ArrayList<>();
 
     final boolean isModelNotEmpty = context.getPanel().getModel().getRoot() != null;
 
     putAllItemsAsSection(result, null,
-        findPopupMenuItems(context, PopUpSection.MAIN, fullScreenModeActive, tmpList,
-            topicUnderMouse, pluginMenuItems));
+        menuModel.findItems(context, PopUpSection.MAIN, fullScreenModeActive, topicUnderMouse,
+            tmpList));
     putAllItemsAsSection(result, null,
-        findPopupMenuItems(context, PopUpSection.MANIPULATORS, fullScreenModeActive, tmpList,
-            topicUnderMouse, pluginMenuItems));
+        menuModel.findItems(context, PopUpSection.MANIPULATORS, fullScreenModeActive,
+            topicUnderMouse, tmpList));
     putAllItemsAsSection(result, null,
-        findPopupMenuItems(context, PopUpSection.EXTRAS, fullScreenModeActive, tmpList,
-            topicUnderMouse, pluginMenuItems));
-
-    final JMenu exportMenu =
-        UI_COMPO_FACTORY.makeMenu(MmdI18n.getInstance().findBundle().getString("MMDExporters.SubmenuName"));
-    exportMenu.setIcon(ICON_SERVICE.getIconForId(IconID.POPUP_EXPORT));
-
-    final JMenu importMenu =
-        UI_COMPO_FACTORY.makeMenu(MmdI18n.getInstance().findBundle().getString("MMDImporters.SubmenuName"));
-    importMenu.setIcon(ICON_SERVICE.getIconForId(IconID.POPUP_IMPORT));
+        menuModel.findItems(context, PopUpSection.EXTRAS, fullScreenModeActive, topicUnderMouse,
+            tmpList));
 
-    putAllItemsAsSection(result, importMenu,
-        findPopupMenuItems(context, PopUpSection.IMPORT, fullScreenModeActive, tmpList,
-            topicUnderMouse, pluginMenuItems));
+    putAllItemsAsSection(result, menuModel.getImportMenu(),
+        menuModel.findItems(context, PopUpSection.IMPORT, fullScreenModeActive, topicUnderMouse,
+            tmpList));
     if (isModelNotEmpty) {
-      putAllItemsAsSection(result, exportMenu,
-          findPopupMenuItems(context, PopUpSection.EXPORT, fullScreenModeActive, tmpList,
-              topicUnderMouse, pluginMenuItems));
+      putAllItemsAsSection(result, menuModel.getExportMenu(),
+          menuModel.findItems(context, PopUpSection.EXPORT, fullScreenModeActive,
+              topicUnderMouse, tmpList));
     }
 
     putAllItemsAsSection(result, null,
-        findPopupMenuItems(context, PopUpSection.TOOLS, fullScreenModeActive, tmpList,
-            topicUnderMouse, pluginMenuItems));
+        menuModel.findItems(context, PopUpSection.TOOLS, fullScreenModeActive, topicUnderMouse,
+            tmpList));
     putAllItemsAsSection(result, null,
-        findPopupMenuItems(context, PopUpSection.MISC, fullScreenModeActive, tmpList,
-            topicUnderMouse, pluginMenuItems));
+        menuModel.findItems(context, PopUpSection.MISC, fullScreenModeActive, topicUnderMouse,
+            tmpList));
 
     return result;
   }
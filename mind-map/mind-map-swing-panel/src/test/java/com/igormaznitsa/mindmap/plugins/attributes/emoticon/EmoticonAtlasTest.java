@@ -0,0 +1,51 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.plugins.attributes.emoticon;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.igormaznitsa.mindmap.plugins.api.Renderable;
+import com.igormaznitsa.mindmap.swing.panel.utils.MiscIcons;
+import org.junit.Test;
+
+public class EmoticonAtlasTest {
+
+  @Test
+  public void testIconsArePlacedIntoSharedPages() {
+    final EmoticonAtlas atlas = new EmoticonAtlas(1.5d);
+    final String[] names = MiscIcons.getNames();
+    final int count = EmoticonAtlas.PAGE_CELLS * EmoticonAtlas.PAGE_CELLS + 1;
+
+    for (int i = 0; i < count; i++) {
+      final Renderable icon = atlas.find(names[i]);
+      assertNotNull(icon);
+      assertEquals(48, icon.getWidth(1.5d));
+      assertEquals(48, icon.getHeight(1.5d));
+      assertSame(icon, atlas.find(names[i]));
+    }
+    assertEquals(2, atlas.getPageCount());
+    assertNull(atlas.find("unknown_icon_name"));
+  }
+
+  @Test
+  public void testTooSmallScale() {
+    assertNull(new EmoticonAtlas(0.001d).find(MiscIcons.getNames()[0]));
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.plugins.attributes.images;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.igormaznitsa.mindmap.swing.panel.utils.RenderResources;
+import com.igormaznitsa.mindmap.swing.panel.utils.Utils;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import javax.imageio.ImageIO;
+import javax.swing.JPanel;
+import org.junit.Test;
+
+public class ImageContentCacheTest {
+
+  private static String makeImage(final int width, final int height, final int color)
+      throws Exception {
+    final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        image.setRGB(x, y, color);
+      }
+    }
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    ImageIO.write(image, "png", buffer);
+    return Utils.base64encode(buffer.toByteArray());
+  }
+
+  @Test
+  public void testSameContentIsDecodedOnce() throws Exception {
+    final ImageContentCache cache = new ImageContentCache(1024L * 1024L);
+    final String encoded = makeImage(20, 10, 0xFF00FF00);
+    final String copy = new String(encoded.toCharArray());
+
+    final ImageContentCache.ImageInfo info = cache.findInfo(encoded);
+    final ImageContentCache.ImageInfo copyInfo = cache.findInfo(copy);
+    assertEquals(20, info.getWidth());
+    assertEquals(10, info.getHeight());
+    assertEquals(info.getKey(), copyInfo.getKey());
+
+    assertNull(cache.find(info));
+    final ScalableRenderableImage decoded = cache.request(info, encoded, false).get();
+    assertNotNull(decoded);
+    assertSame(decoded, cache.find(copyInfo));
+    assertSame(decoded, cache.get(copyInfo, copy));
+    assertEquals(20L * 10L * 4L, cache.getUsedBytes());
+  }
+
+  @Test
+  public void testLeastRecentlyUsedImageIsEvicted() throws Exception {
+    final ImageContentCache cache = new ImageContentCache(2L * 10L * 10L * 4L);
+    final String first = makeImage(10, 10, 0xFF000001);
+    final String second = makeImage(10, 10, 0xFF000002);
+    final String third = makeImage(10, 10, 0xFF000003);
+    final ImageContentCache.ImageInfo firstInfo = cache.findInfo(first);
+    final ImageContentCache.ImageInfo secondInfo = cache.findInfo(second);
+    final ImageContentCache.ImageInfo thirdInfo = cache.findInfo(third);
+
+    assertNotNull(cache.get(firstInfo, first));
+    assertNotNull(cache.get(secondInfo, second));
+    assertNotNull(cache.find(firstInfo));
+    assertNotNull(cache.get(thirdInfo, third));
+
+    assertNotNull(cache.find(firstInfo));
+    assertNull(cache.find(secondInfo));
+    assertNotNull(cache.find(thirdInfo));
+    assertEquals(2L * 10L * 10L * 4L, cache.getUsedBytes());
+
+    cache.setBudget(0L);
+    assertNotNull(cache.find(thirdInfo));
+    assertEquals(10L * 10L * 4L, cache.getUsedBytes());
+  }
+
+  @Test
+  public void testBrokenImage() throws Exception {
+    final ImageContentCache cache = new ImageContentCache(1024L);
+    final String broken = Utils.base64encode(new byte[] {1, 2, 3, 4, 5});
+    assertNull(cache.findInfo(broken));
+    assertNull(cache.requestInfo(broken).get());
+  }
+
+  @Test
+  public void testInfoIsReadInBackground() throws Exception {
+    final ImageContentCache cache = new ImageContentCache(1024L * 1024L);
+    final String encoded = makeImage(30, 20, 0xFFFF0000);
+    final ImageContentCache.ImageInfo info = cache.requestInfo(encoded).get();
+    assertEquals(30, info.getWidth());
+    assertEquals(20, info.getHeight());
+    assertSame(info, cache.requestInfo(encoded).getNow(null));
+  }
+
+  @Test
+  public void testDerivedCopiesAreCounted() throws Exception {
+    final ImageContentCache cache = new ImageContentCache(1024L * 1024L);
+    final String encoded = makeImage(40, 40, 0xFF0000FF);
+    final ImageContentCache.ImageInfo info = cache.findInfo(encoded);
+    final ScalableRenderableImage image = cache.get(info, encoded);
+    assertEquals(40L * 40L * 4L, cache.getUsedBytes());
+    image.getLevel(1);
+    assertEquals(40L * 40L * 4L + 20L * 20L * 4L, cache.getUsedBytes());
+  }
+
+  @Test
+  public void testImageUsedInCurrentFrameIsNotEvicted() throws Exception {
+    final ImageContentCache cache = new ImageContentCache(10L * 10L * 4L);
+    final String first = makeImage(10, 10, 0xFF000001);
+    final String second = makeImage(10, 10, 0xFF000002);
+    final ImageContentCache.ImageInfo firstInfo = cache.findInfo(first);
+    final ImageContentCache.ImageInfo secondInfo = cache.findInfo(second);
+
+    final RenderResources.PaintPass pass = RenderResources.beginPaint(new JPanel());
+    try {
+      assertNotNull(cache.get(firstInfo, first));
+      assertNotNull(cache.get(secondInfo, second));
+      assertNotNull(cache.find(firstInfo));
+      assertEquals(2L * 10L * 10L * 4L, cache.getUsedBytes());
+    } finally {
+      pass.close();
+    }
+
+    // images of previous frame can be evicted
+    RenderResources.beginPaint(new JPanel()).close();
+    cache.setBudget(10L * 10L * 4L);
+    assertNull(cache.find(secondInfo));
+    assertNotNull(cache.find(firstInfo));
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.plugins.attributes.images;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.awt.image.BufferedImage;
+import org.junit.Test;
+
+public class ScalableRenderableImageTest {
+
+  @Test
+  public void testPyramidLevels() {
+    final BufferedImage base = new BufferedImage(200, 100, BufferedImage.TYPE_INT_ARGB);
+    final ScalableRenderableImage image = new ScalableRenderableImage(base);
+
+    assertEquals(3, image.getLevelCount());
+    assertSame(base, image.getLevel(0));
+    assertEquals(100, image.getLevel(1).getWidth());
+    assertEquals(50, image.getLevel(1).getHeight());
+    assertEquals(25, image.getLevel(3).getWidth());
+    assertEquals(12, image.getLevel(3).getHeight());
+
+    assertEquals(0, image.findLevel(300, 150));
+    assertEquals(0, image.findLevel(101, 51));
+    assertEquals(1, image.findLevel(100, 50));
+    assertEquals(1, image.findLevel(60, 30));
+    assertEquals(2, image.findLevel(50, 25));
+    assertEquals(3, image.findLevel(1, 1));
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.swing.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.swing.panel.MindMapPanelConfig;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BatchMindMapRendererTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testRenderTree() throws Exception {
+    final Path source = this.tempFolder.newFolder("src").toPath();
+    final Path target = this.tempFolder.newFolder("dst").toPath();
+
+    final MindMap map = new MindMap(true);
+    map.getRoot().setText("Root");
+    map.getRoot().makeChild("Child", null);
+    final Path subFolder = Files.createDirectories(source.resolve("sub"));
+    Files.write(subFolder.resolve("test.mmd"),
+        map.write(new StringWriter()).toString().getBytes(StandardCharsets.UTF_8));
+    Files.write(source.resolve("broken.mmd"), new byte[0]);
+
+    final BatchMindMapRenderer renderer = new BatchMindMapRenderer(new MindMapPanelConfig(), 2,
+        true, EnumSet.allOf(BatchMindMapRenderer.Format.class));
+    final BatchMindMapRenderer.Result result = renderer.renderTree(source, target);
+
+    assertEquals(1, result.getRendered());
+    assertEquals(1, result.getErrors().size());
+    assertTrue(Files.size(target.resolve("sub").resolve("test.png")) > 0);
+    assertTrue(new String(Files.readAllBytes(target.resolve("sub").resolve("test.svg")),
+        StandardCharsets.UTF_8).contains("Child"));
+  }
+}
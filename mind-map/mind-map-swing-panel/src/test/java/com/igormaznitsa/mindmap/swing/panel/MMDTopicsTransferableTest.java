@@ -0,0 +1,98 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.swing.panel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.igormaznitsa.mindmap.model.ExtraNote;
+import com.igormaznitsa.mindmap.model.ExtraTopic;
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.Topic;
+import java.awt.datatransfer.DataFlavor;
+import java.io.StringReader;
+import org.junit.Test;
+
+public class MMDTopicsTransferableTest {
+
+  private static MindMap makeMap() throws Exception {
+    return new MindMap(new StringReader("Mind Map generated by NB MindMap plugin\n"
+        + "> __version__=`1.1`\n---\n# root\n## a\n> topicLinkUID=`B1`\n\n"
+        + "### a1\n> topicLinkUID=`A1`\n\n## b\n"));
+  }
+
+  @Test
+  public void testDataIsSnapshotOfCopyTime() throws Exception {
+    final MindMap map = makeMap();
+    final Topic a = map.getRoot().getChildren().get(0);
+    final MMDTopicsTransferable transferable = new MMDTopicsTransferable(a);
+
+    a.setText("changed");
+    a.getChildren().get(0).makeChild("new", null);
+
+    final String text = (String) transferable.getTransferData(DataFlavor.stringFlavor);
+    assertTrue(text.startsWith("+[a]"));
+    assertFalse(text.contains("changed"));
+    assertFalse(text.contains("new"));
+
+    final Topic[] topics = ((NBMindMapTopicsContainer) transferable
+        .getTransferData(MMDTopicsTransferable.MMD_DATA_FLAVOR)).getTopics();
+    assertEquals(1, topics.length);
+    assertEquals("a", topics[0].getText());
+    assertEquals("B1", topics[0].getAttribute("topicLinkUID"));
+    assertEquals(1, topics[0].getChildren().size());
+    assertTrue(topics[0].getChildren().get(0).getChildren().isEmpty());
+  }
+
+  @Test
+  public void testTextContainsNoteAndLinks() throws Exception {
+    final MindMap map = makeMap();
+    map.getRoot().getChildren().get(0).setExtra(new ExtraNote("note\nline"));
+    map.getRoot().getChildren().get(1).setExtra(new ExtraTopic("A1"));
+    final MMDTopicsTransferable transferable = new MMDTopicsTransferable(map.getRoot());
+    final String text = (String) transferable.getTransferData(DataFlavor.stringFlavor);
+    assertTrue(text.contains("|+[a]"));
+    assertTrue(text.contains("||note"));
+    assertTrue(text.contains("||line"));
+    assertTrue(text.contains("||+[a1]"));
+    assertTrue(text.contains("||#(a1)"));
+  }
+
+  @Test
+  public void testCaptureReusesUnchangedSubtrees() throws Exception {
+    final MindMap map = makeMap();
+    final Topic root = map.getRoot();
+    final TopicStateCapture first = new TopicStateCapture(null);
+    final TopicState rootState = first.capture(root);
+
+    root.getChildren().get(1).setText("changed");
+
+    final TopicStateCapture second = new TopicStateCapture(first.getIndex());
+    final TopicState changedRootState = second.capture(root);
+    assertNotSame(rootState, changedRootState);
+    assertSame(rootState.children[0], changedRootState.children[0]);
+    assertNotSame(rootState.children[1], changedRootState.children[1]);
+    assertEquals("changed", changedRootState.children[1].text);
+
+    final TopicStateCapture third = new TopicStateCapture(second.getIndex());
+    assertSame(changedRootState, third.capture(root));
+    assertEquals(0L, third.getBytes());
+  }
+}
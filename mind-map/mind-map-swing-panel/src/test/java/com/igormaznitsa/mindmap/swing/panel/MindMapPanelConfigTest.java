@@ -33,6 +33,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import com.igormaznitsa.mindmap.swing.panel.utils.KeyShortcut;
+import com.igormaznitsa.mindmap.swing.panel.utils.LevelOfDetail;
 import com.igormaznitsa.mindmap.swing.panel.utils.RenderQuality;
 import java.awt.Color;
 import java.awt.Font;
@@ -41,6 +42,8 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.prefs.Preferences;
@@ -185,6 +188,84 @@ public class MindMapPanelConfigTest {
     assertTrue(one.hasDifferenceInParameters(two));
   }
 
+  @Test
+  public void testAllPropertiesAreCopiedAndCompared() throws Exception {
+    final MindMapPanelConfig etalon = new MindMapPanelConfig();
+    for (final Field f : MindMapPanelConfig.class.getDeclaredFields()) {
+      if ((f.getModifiers() & (Modifier.STATIC | Modifier.TRANSIENT | Modifier.FINAL)) != 0
+          || f.getType() == Map.class) {
+        continue;
+      }
+      f.setAccessible(true);
+      final Object value = f.get(etalon);
+      final Object changed;
+      if (f.getType() == boolean.class) {
+        changed = !(Boolean) value;
+      } else if (f.getType() == int.class) {
+        changed = (Integer) value + 1;
+      } else if (f.getType() == float.class) {
+        changed = (Float) value + 1.0f;
+      } else if (f.getType() == double.class) {
+        changed = (Double) value + 1.0d;
+      } else if (f.getType() == Color.class) {
+        changed = new Color(((Color) value).getRGB() ^ 0xFF, true);
+      } else if (f.getType() == Font.class) {
+        changed = ((Font) value).deriveFont(((Font) value).getSize2D() + 1.0f);
+      } else if (f.getType().isEnum()) {
+        final Object[] constants = f.getType().getEnumConstants();
+        changed = constants[(((Enum<?>) value).ordinal() + 1) % constants.length];
+      } else {
+        fail("Unexpected field type: " + f);
+        return;
+      }
+
+      final MindMapPanelConfig config = new MindMapPanelConfig(etalon, false);
+      f.set(config, changed);
+      assertTrue(f.getName(), config.hasDifferenceInParameters(etalon));
+
+      final MindMapPanelConfig copy = new MindMapPanelConfig(config, false);
+      assertFalse(f.getName(), copy.hasDifferenceInParameters(config));
+    }
+  }
+
+  @Test
+  public void testFindLevelOfDetail() {
+    final MindMapPanelConfig config = new MindMapPanelConfig();
+    config.setLevelOfDetailSimplifiedScale(0.5d);
+    config.setLevelOfDetailSkeletonScale(0.25d);
+
+    assertEquals(LevelOfDetail.FULL, config.findLevelOfDetail(1.0d));
+    assertEquals(LevelOfDetail.FULL, config.findLevelOfDetail(0.5d));
+    assertEquals(LevelOfDetail.SIMPLIFIED, config.findLevelOfDetail(0.3d));
+    assertEquals(LevelOfDetail.SKELETON, config.findLevelOfDetail(0.1d));
+
+    config.setLevelOfDetailEnabled(false);
+    assertEquals(LevelOfDetail.FULL, config.findLevelOfDetail(0.1d));
+  }
+
+  @Test
+  public void testFindChangeImpact() {
+    final MindMapPanelConfig etalon = new MindMapPanelConfig();
+    final MindMapPanelConfig config = new MindMapPanelConfig(etalon, false);
+    assertEquals(MindMapPanelConfig.ChangeImpact.NONE, config.findChangeImpact(etalon));
+
+    config.setSmartTextPaste(!etalon.isSmartTextPaste());
+    assertEquals(MindMapPanelConfig.ChangeImpact.NONE, config.findChangeImpact(etalon));
+
+    config.setConnectorColor(Color.MAGENTA);
+    assertEquals(MindMapPanelConfig.ChangeImpact.REPAINT, config.findChangeImpact(etalon));
+
+    config.setPaperMargins(etalon.getPaperMargins() + 10);
+    assertEquals(MindMapPanelConfig.ChangeImpact.REALIGN, config.findChangeImpact(etalon));
+
+    config.setTextMargins(etalon.getTextMargins() + 3);
+    assertEquals(MindMapPanelConfig.ChangeImpact.REMEASURE, config.findChangeImpact(etalon));
+
+    final MindMapPanelConfig fontChanged = new MindMapPanelConfig(etalon, false);
+    fontChanged.setFont(etalon.getFont().deriveFont(42.0f));
+    assertEquals(MindMapPanelConfig.ChangeImpact.REMEASURE, fontChanged.findChangeImpact(etalon));
+  }
+
   @Test
   public void testSaveRestoreState() {
     final Map<String, Object> storage = new HashMap<>();
@@ -16,16 +16,39 @@
 
 package com.igormaznitsa.mindmap.swing.panel;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
-
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.Topic;
+import com.igormaznitsa.mindmap.swing.panel.ui.AbstractElement;
+import com.igormaznitsa.mindmap.swing.panel.ui.ElementGeometryIndex;
+import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics2DWrapper;
+import com.igormaznitsa.mindmap.swing.panel.utils.MindMapUtils;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.StringReader;
 import org.junit.Test;
 
 public class MindMapPanelTest {
 
+  private static void calculateElementSizes(final MindMap map, final MindMapPanelConfig config) {
+    final Graphics2D gfx =
+        new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB).createGraphics();
+    try {
+      assertTrue(MindMapPanel.calculateElementSizes(new MMGraphics2DWrapper(gfx), map, config));
+    } finally {
+      gfx.dispose();
+    }
+  }
+
   @Test
   public void testCreatePanel() {
     final MindMapPanelConfig config = new MindMapPanelConfig();
@@ -38,4 +61,49 @@ public class MindMapPanelTest {
     assertNotSame(config, panel.getConfiguration());
   }
 
+  @Test
+  public void testElementsAreNotCreatedForHiddenTopics() throws Exception {
+    final MindMap map = new MindMap(new StringReader("Mind Map generated by NB MindMap plugin\n"
+        + "> __version__=`1.1`\n---\n# root\n## a\n> collapsed=`true`\n\n### a1\n"
+        + "#### a11\n> collapsed=`true`\n\n##### a111\n## b\n### b1\n"));
+    final MindMapPanelConfig config = new MindMapPanelConfig();
+    calculateElementSizes(map, config);
+
+    final Topic a = map.getRoot().getChildren().get(0);
+    final Topic b = map.getRoot().getChildren().get(1);
+    assertNotNull(a.getPayload());
+    assertNull(a.getChildren().get(0).getPayload());
+    assertNotNull(b.getChildren().get(0).getPayload());
+    assertNotNull(MindMapPanel.layoutModelElements(map, config));
+
+    assertTrue(((AbstractElement) map.getRoot().getPayload()).collapseOrExpandAllChildren(false));
+    assertFalse(MindMapUtils.isCollapsed(a));
+    assertFalse(MindMapUtils.isCollapsed(a.getChildren().get(0).getChildren().get(0)));
+  }
+
+  @Test
+  public void testGeometryIndexFindsNearestElementInDirection() throws Exception {
+    final MindMap map = new MindMap(new StringReader("Mind Map generated by NB MindMap plugin\n"
+        + "> __version__=`1.1`\n---\n# root\n## a\n## b\n### b1\n### b2\n"));
+    final MindMapPanelConfig config = new MindMapPanelConfig();
+    calculateElementSizes(map, config);
+    assertNotNull(MindMapPanel.layoutModelElements(map, config));
+
+    final ElementGeometryIndex index = new ElementGeometryIndex(map.getRoot(), 1L);
+    final AbstractElement root = (AbstractElement) map.getRoot().getPayload();
+    final AbstractElement a = (AbstractElement) map.getRoot().getChildren().get(0).getPayload();
+    final AbstractElement b = (AbstractElement) map.getRoot().getChildren().get(1).getPayload();
+    final AbstractElement b1 = (AbstractElement) b.getModel().getChildren().get(0).getPayload();
+    final AbstractElement b2 = (AbstractElement) b.getModel().getChildren().get(1).getPayload();
+
+    assertSame(b, index.findNearest(a, ElementGeometryIndex.Direction.DOWN,
+        AbstractElement::isMoveable));
+    assertSame(a, index.findNearest(b, ElementGeometryIndex.Direction.UP,
+        AbstractElement::isMoveable));
+    assertSame(b2, index.findNearest(b1, ElementGeometryIndex.Direction.DOWN, null));
+    assertSame(root, index.findNearest(a, ElementGeometryIndex.Direction.LEFT, null));
+    assertNull(index.findNearest(a, ElementGeometryIndex.Direction.UP,
+        AbstractElement::isMoveable));
+    assertNull(index.findNearest(b1, ElementGeometryIndex.Direction.RIGHT, null));
+  }
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.swing.panel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.igormaznitsa.mindmap.model.ExtraNote;
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.Topic;
+import java.io.StringReader;
+import org.junit.Test;
+
+public class MindMapUndoJournalTest {
+
+  private static MindMap makeMap() throws Exception {
+    return new MindMap(new StringReader("Mind Map generated by NB MindMap plugin\n"
+        + "> __version__=`1.1`\n---\n# root\n## a\n### a1\n### a2\n## b\n> leftSide=`true`\n\n"
+        + "### b1\n"));
+  }
+
+  @Test
+  public void testUndoRedoRestoresSameTopics() throws Exception {
+    final MindMap map = makeMap();
+    final String initial = map.asString();
+    final MindMapUndoJournal journal = new MindMapUndoJournal(map);
+    assertFalse(journal.record());
+
+    final Topic root = map.getRoot();
+    final Topic a = root.getChildren().get(0);
+    final Topic b = root.getChildren().get(1);
+    final Topic a1 = a.getChildren().get(0);
+
+    a1.setText("changed");
+    a1.setExtra(new ExtraNote("note"));
+    assertTrue(journal.record());
+    final String afterEdit = map.asString();
+
+    map.removeTopic(a);
+    assertTrue(journal.record());
+
+    a1.moveToNewParent(b);
+    b.putAttribute("leftSide", null);
+    b.makeChild("new", null);
+    map.putAttribute("some", "value");
+    final String afterMove = map.asString();
+    assertEquals(2, journal.getUndoDepth());
+
+    // not recorded changes are recorded by undo
+    assertTrue(journal.undo());
+    assertEquals(2, journal.getUndoDepth());
+    assertEquals(1, journal.getRedoDepth());
+    assertTrue(journal.undo());
+    assertEquals(afterEdit, map.asString());
+    assertSame(a, root.getChildren().get(0));
+    assertSame(a1, a.getChildren().get(0));
+    assertSame(a, a1.getParent());
+
+    assertTrue(journal.undo());
+    assertEquals(initial, map.asString());
+    assertFalse(journal.undo());
+
+    assertTrue(journal.redo());
+    assertTrue(journal.redo());
+    assertTrue(journal.redo());
+    assertEquals(afterMove, map.asString());
+    assertFalse(journal.redo());
+
+    assertTrue(journal.undo());
+    root.makeChild("other", null);
+    assertTrue(journal.record());
+    assertFalse(journal.hasRedo());
+  }
+
+  @Test
+  public void testOldStepsAreDroppedForBudget() throws Exception {
+    final MindMap map = makeMap();
+    final MindMapUndoJournal journal = new MindMapUndoJournal(map, 1024L);
+    final Topic a1 = map.getRoot().getChildren().get(0).getChildren().get(0);
+    for (int i = 0; i < 100; i++) {
+      a1.setText("text " + i);
+      assertTrue(journal.record());
+    }
+    assertTrue(journal.getUndoDepth() < 100);
+    assertTrue(journal.getUsedMemory() <= 1024L);
+    assertTrue(journal.hasLostStates());
+
+    while (journal.undo()) {
+      // undo all kept steps
+    }
+    assertEquals("text " + (99 - journal.getRedoDepth()), a1.getText());
+  }
+}
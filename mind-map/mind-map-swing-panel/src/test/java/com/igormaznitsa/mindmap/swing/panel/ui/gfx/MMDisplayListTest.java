@@ -0,0 +1,85 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.swing.panel.ui.gfx;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class MMDisplayListTest {
+
+  private static BufferedImage replay(final MMDisplayList list, final Rectangle area) {
+    final BufferedImage image = new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB);
+    final MMGraphics gfx = new MMGraphics2DWrapper(image.createGraphics());
+    try {
+      list.replay(gfx, area);
+    } finally {
+      gfx.dispose();
+    }
+    return image;
+  }
+
+  @Test
+  public void testReplayOfAreaSkipsCommandsOutside() {
+    final MMGraphicsRecorder recorder = new MMGraphicsRecorder(
+        new MMGraphics2DWrapper(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB)
+            .createGraphics()));
+    recorder.drawRect(5, 5, 10, 10, null, Color.RED);
+    final MMGraphics nested = recorder.copy();
+    nested.translate(60, 60);
+    nested.drawRect(5, 5, 10, 10, null, Color.BLUE);
+    nested.dispose();
+    recorder.dispose();
+    final MMDisplayList list = recorder.toDisplayList();
+
+    final BufferedImage full = replay(list, null);
+    assertEquals(Color.RED.getRGB(), full.getRGB(10, 10));
+    assertEquals(Color.BLUE.getRGB(), full.getRGB(70, 70));
+
+    final BufferedImage top = replay(list, new Rectangle(0, 0, 100, 40));
+    assertEquals(Color.RED.getRGB(), top.getRGB(10, 10));
+    assertEquals(0, top.getRGB(70, 70));
+
+    final BufferedImage bottom = replay(list, new Rectangle(0, 50, 100, 50));
+    assertEquals(0, bottom.getRGB(10, 10));
+    assertEquals(Color.BLUE.getRGB(), bottom.getRGB(70, 70));
+  }
+
+  @Test
+  public void testResolvedContentIsPaintedAtEveryReplay() {
+    final AtomicInteger painted = new AtomicInteger();
+    final MMGraphicsRecorder recorder = new MMGraphicsRecorder(
+        new MMGraphics2DWrapper(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB)
+            .createGraphics()));
+    recorder.drawResolved(g -> {
+      painted.incrementAndGet();
+      g.drawRect(60, 60, 10, 10, null, Color.GREEN);
+    }, 60, 60, 10, 10);
+    recorder.dispose();
+    final MMDisplayList list = recorder.toDisplayList();
+    assertEquals(0, painted.get());
+
+    assertEquals(Color.GREEN.getRGB(), replay(list, null).getRGB(65, 65));
+    assertEquals(0, replay(list, new Rectangle(0, 0, 40, 40)).getRGB(65, 65));
+    assertEquals(Color.GREEN.getRGB(), replay(list, null).getRGB(65, 65));
+    assertEquals(2, painted.get());
+  }
+}
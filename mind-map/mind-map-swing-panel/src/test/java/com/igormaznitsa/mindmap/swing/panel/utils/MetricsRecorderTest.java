@@ -0,0 +1,63 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.swing.panel.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.igormaznitsa.mindmap.swing.panel.MindMapPanelMetrics;
+import org.junit.Test;
+
+public class MetricsRecorderTest {
+
+  @Test
+  public void testNestedRecorders() {
+    assertNull(MetricsRecorder.current());
+    final MetricsRecorder paint =
+        new MetricsRecorder(MindMapPanelMetrics.FrameType.PAINT).activate();
+    final MetricsRecorder layout =
+        new MetricsRecorder(MindMapPanelMetrics.FrameType.LAYOUT).activate();
+    assertSame(layout, MetricsRecorder.current());
+    layout.finish();
+    assertSame(paint, MetricsRecorder.current());
+    paint.finish();
+    assertNull(MetricsRecorder.current());
+  }
+
+  @Test
+  public void testCacheHitRate() {
+    final MetricsRecorder recorder =
+        new MetricsRecorder(MindMapPanelMetrics.FrameType.PAINT).activate();
+    MetricsRecorder.recordCacheAccess("test", true);
+    MetricsRecorder.recordCacheAccess("test", true);
+    MetricsRecorder.recordCacheAccess("test", true);
+    MetricsRecorder.recordCacheAccess("test", false);
+    recorder.incTopicsDrawn();
+    recorder.incTopicsCulled();
+    recorder.incTopicsCulled();
+    final MindMapPanelMetrics metrics = recorder.finish();
+
+    assertEquals(0.75d, metrics.getCacheHitRate("test"), 0.0001d);
+    assertEquals(-1.0d, metrics.getCacheHitRate("unknown"), 0.0001d);
+    assertEquals(1, metrics.getTopicsDrawn());
+    assertEquals(2, metrics.getTopicsCulled());
+
+    MetricsRecorder.recordCacheAccess("test", false);
+    assertEquals(0.75d, metrics.getCacheHitRate("test"), 0.0001d);
+  }
+}
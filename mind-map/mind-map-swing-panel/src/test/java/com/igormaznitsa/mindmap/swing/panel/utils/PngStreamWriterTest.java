@@ -0,0 +1,53 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.swing.panel.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+import javax.imageio.ImageIO;
+import org.junit.Test;
+
+public class PngStreamWriterTest {
+
+  @Test
+  public void testWrittenByPortionsImageIsReadable() throws Exception {
+    final int width = 123;
+    final int height = 77;
+    final int[] pixels = new int[width * height];
+    final Random rnd = new Random(12345L);
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = rnd.nextInt();
+    }
+
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    try (final PngStreamWriter writer = new PngStreamWriter(buffer, width, height)) {
+      writer.writeRows(pixels, 0, 10);
+      writer.writeRows(pixels, 10 * width, 60);
+      writer.writeRows(pixels, 70 * width, 7);
+    }
+
+    final BufferedImage image = ImageIO.read(new ByteArrayInputStream(buffer.toByteArray()));
+    assertEquals(width, image.getWidth());
+    assertEquals(height, image.getHeight());
+    assertArrayEquals(pixels, image.getRGB(0, 0, width, height, null, 0, width));
+  }
+}
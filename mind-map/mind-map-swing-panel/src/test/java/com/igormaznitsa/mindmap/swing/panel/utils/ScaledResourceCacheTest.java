@@ -0,0 +1,85 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.swing.panel.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.awt.Font;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ScaledResourceCacheTest {
+
+  @Before
+  public void before() {
+    ScaledResourceCache.clear();
+  }
+
+  @After
+  public void after() {
+    ScaledResourceCache.clear();
+  }
+
+  @Test
+  public void testFontsAreSharedForScale() {
+    final Font font1 = new Font(Font.SERIF, Font.BOLD, 18);
+    final Font font2 = new Font(Font.SERIF, Font.BOLD, 18);
+
+    final Font scaled = ScaledResourceCache.findScaledFont(font1, 1.75d);
+    assertSame(scaled, ScaledResourceCache.findScaledFont(font2, 1.75d));
+    assertNotSame(scaled, ScaledResourceCache.findScaledFont(font1, 1.5d));
+    assertEquals(1.75d, scaled.getTransform().getScaleX(), 0.0d);
+  }
+
+  @Test
+  public void testReferencedScalesAreKept() {
+    final Object key = new Object();
+    final double referencedScale = 7.125d;
+
+    ScaledResourceCache.acquire(referencedScale);
+    try {
+      final Object resource = ScaledResourceCache.find(key, referencedScale, Object::new);
+      for (int i = 0; i < 20; i++) {
+        ScaledResourceCache.find(key, 100.0d + i, Object::new);
+      }
+      assertSame(resource, ScaledResourceCache.find(key, referencedScale, Object::new));
+      assertEquals(5, ScaledResourceCache.getBucketCount());
+    } finally {
+      ScaledResourceCache.release(referencedScale);
+    }
+
+    for (int i = 0; i < 20; i++) {
+      ScaledResourceCache.find(key, 200.0d + i, Object::new);
+    }
+    assertNull(ScaledResourceCache.find(key, referencedScale, () -> null));
+  }
+
+  @Test
+  public void testLastScaleOfKey() {
+    final Object key = new Object();
+    assertEquals(-1.0d, ScaledResourceCache.findLastScale(key), 0.0d);
+    ScaledResourceCache.find(key, 1.5d, Object::new);
+    ScaledResourceCache.find(key, 2.5d, Object::new);
+    assertEquals(2.5d, ScaledResourceCache.findLastScale(key), 0.0d);
+    ScaledResourceCache.find(key, 1.5d, Object::new);
+    assertEquals(1.5d, ScaledResourceCache.findLastScale(key), 0.0d);
+  }
+}
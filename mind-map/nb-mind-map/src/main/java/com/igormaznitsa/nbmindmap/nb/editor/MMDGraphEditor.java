@@ -64,6 +64,7 @@ import com.igormaznitsa.mindmap.swing.panel.MindMapListener;
 import com.igormaznitsa.mindmap.swing.panel.MindMapPanel;
 import com.igormaznitsa.mindmap.swing.panel.MindMapPanelConfig;
 import com.igormaznitsa.mindmap.swing.panel.MindMapPanelController;
+import com.igormaznitsa.mindmap.swing.panel.PasteProgressMonitor;
 import com.igormaznitsa.mindmap.swing.panel.ui.AbstractElement;
 import com.igormaznitsa.mindmap.swing.panel.ui.ElementPart;
 import com.igormaznitsa.mindmap.swing.panel.ui.PasswordPanel;
@@ -263,7 +264,7 @@ public final class MMDGraphEditor extends CloneableEditor
 
     @Override
     public void actionPerformed(@Nonnull final ActionEvent e) {
-      mindMapPanel.pasteTopicsFromClipboard();
+      PasteProgressMonitor.paste(mindMapPanel);
     }
   };
 
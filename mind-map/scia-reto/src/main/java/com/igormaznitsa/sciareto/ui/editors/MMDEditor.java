@@ -65,6 +65,8 @@ import com.igormaznitsa.mindmap.swing.panel.MindMapListener;
 import com.igormaznitsa.mindmap.swing.panel.MindMapPanel;
 import com.igormaznitsa.mindmap.swing.panel.MindMapPanelConfig;
 import com.igormaznitsa.mindmap.swing.panel.MindMapPanelController;
+import com.igormaznitsa.mindmap.swing.panel.MindMapUndoJournal;
+import com.igormaznitsa.mindmap.swing.panel.PasteProgressMonitor;
 import com.igormaznitsa.mindmap.swing.panel.ui.AbstractElement;
 import com.igormaznitsa.mindmap.swing.panel.ui.ElementPart;
 import com.igormaznitsa.mindmap.swing.panel.ui.PasswordPanel;
@@ -123,7 +125,6 @@ import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
@@ -155,9 +156,8 @@ public final class MMDEditor extends AbstractTextEditor
   private final MindMapPanel mindMapPanel;
   private final TabTitle title;
   private final Context context;
-  private final transient UndoRedoStorage<String> undoStorage = new UndoRedoStorage<>(5);
   private final AtomicBoolean preventAddUndo = new AtomicBoolean();
-  private final AtomicReference<String> currentModelState = new AtomicReference<>();
+  private transient MindMapUndoJournal undoJournal;
   private final JScrollPane scrollPane;
   private final FileFilter fileFilter = makeFileFilter();
   private boolean dragAcceptableType;
@@ -204,7 +204,11 @@ public final class MMDEditor extends AbstractTextEditor
     this.mindMapPanel.setModel(Assertions.assertNotNull(map), false);
 
     loadContent(file);
-    this.currentModelState.set(this.mindMapPanel.getModel().asString());
+    this.resetUndoJournal();
+  }
+
+  private void resetUndoJournal() {
+    this.undoJournal = new MindMapUndoJournal(this.mindMapPanel.getModel());
   }
 
   @Override
@@ -393,12 +397,12 @@ public final class MMDEditor extends AbstractTextEditor
 
   @Override
   public boolean isRedo() {
-    return this.undoStorage.hasRedo();
+    return this.undoJournal != null && this.undoJournal.hasRedo();
   }
 
   @Override
   public boolean isUndo() {
-    return this.undoStorage.hasUndo();
+    return this.undoJournal != null && this.undoJournal.hasUndo();
   }
 
   @Nonnull
@@ -412,8 +416,7 @@ public final class MMDEditor extends AbstractTextEditor
     final MindMap map = new MindMap(new StringReader(textFile.readContentAsUtf8()));
     this.mindMapPanel.setModel(Assertions.assertNotNull(map), false);
 
-    this.undoStorage.clearRedo();
-    this.undoStorage.clearUndo();
+    this.resetUndoJournal();
 
     this.title.setChanged(false);
 
@@ -440,7 +443,7 @@ public final class MMDEditor extends AbstractTextEditor
         this.title.setChanged(false);
         this.deleteBackup();
         result = true;
-        this.undoStorage.setFlagThatSomeStateLost();
+        this.undoJournal.setFlagThatSomeStateLost();
       }
     } else {
       result = true;
@@ -552,16 +555,14 @@ public final class MMDEditor extends AbstractTextEditor
   @Override
   public void onMindMapModelChanged(@Nonnull final MindMapPanel source,
                                     final boolean addToHistory) {
-    if (addToHistory && !this.preventAddUndo.get() && this.currentModelState.get() != null) {
-      final String state = this.currentModelState.getAndSet(source.getModel().asString());
-      backup(state);
-      this.undoStorage.addToUndo(state);
-      this.undoStorage.clearRedo();
-      if (addToHistory) {
-        this.title.setChanged(true);
-      }
+    if (this.undoJournal == null || this.undoJournal.getModel() != source.getModel()) {
+      this.resetUndoJournal();
+    } else if (addToHistory && !this.preventAddUndo.get()) {
+      this.undoJournal.record();
+      backup();
+      this.title.setChanged(true);
     } else {
-      this.currentModelState.set(source.getModel().asString());
+      this.undoJournal.sync();
     }
 
     try {
@@ -575,43 +576,32 @@ public final class MMDEditor extends AbstractTextEditor
   @Override
   public boolean redo() {
     if (!this.mindMapPanel.endEdit(false)) {
-      if (this.undoStorage.hasRedo()) {
-        this.undoStorage.addToUndo(this.currentModelState.getAndSet(this.undoStorage.fromRedo()));
-        this.preventAddUndo.set(true);
-        try {
-          this.mindMapPanel
-              .setModel(new MindMap(new StringReader(this.currentModelState.get())), true);
-          this.title.setChanged(
-              this.undoStorage.hasUndo() || this.undoStorage.hasRemovedUndoStateForFullBuffer());
-        } catch (IOException ex) {
-          logger.error("Can't redo mind map", ex); //NOI18N
-        } finally {
-          this.preventAddUndo.set(false);
-        }
+      if (this.undoJournal.redo()) {
+        this.refreshAfterUndoRedo();
       }
     }
-    return this.undoStorage.hasRedo();
+    return this.undoJournal.hasRedo();
   }
 
   @Override
   public boolean undo() {
     if (!this.mindMapPanel.endEdit(false)) {
-      if (this.undoStorage.hasUndo()) {
-        this.undoStorage.addToRedo(this.currentModelState.getAndSet(this.undoStorage.fromUndo()));
-        this.preventAddUndo.set(true);
-        try {
-          this.mindMapPanel
-              .setModel(new MindMap(new StringReader(this.currentModelState.get())), true);
-          this.title.setChanged(
-              this.undoStorage.hasUndo() || this.undoStorage.hasRemovedUndoStateForFullBuffer());
-        } catch (IOException ex) {
-          logger.error("Can't redo mind map", ex); //NOI18N
-        } finally {
-          this.preventAddUndo.set(false);
-        }
+      if (this.undoJournal.undo()) {
+        this.refreshAfterUndoRedo();
       }
     }
-    return this.undoStorage.hasUndo();
+    return this.undoJournal.hasUndo();
+  }
+
+  private void refreshAfterUndoRedo() {
+    this.preventAddUndo.set(true);
+    try {
+      // model is changed in place, so re-set it to make layout and restore selection
+      this.mindMapPanel.setModel(this.mindMapPanel.getModel(), true);
+      this.title.setChanged(this.undoJournal.hasUndo() || this.undoJournal.hasLostStates());
+    } finally {
+      this.preventAddUndo.set(false);
+    }
   }
 
   @Override
@@ -1591,7 +1581,7 @@ public final class MMDEditor extends AbstractTextEditor
   @Override
   public boolean doPaste() {
     assertSwingDispatchThread();
-    return this.mindMapPanel.pasteTopicsFromClipboard();
+    return PasteProgressMonitor.paste(this.mindMapPanel);
   }
 
   @Nonnull